@@ -152,6 +152,25 @@ class ProjectConfigurationTest extends ProjectSynchronizationSpecification {
          thrown RuntimeException
     }
 
+    def "project configuration is reloaded when the preferences file changes on the disk"() {
+        setup:
+        File otherRootProjectDir = dir('other-root-project-dir').canonicalFile
+        BuildConfiguration buildConfig = createInheritingBuildConfiguration(rootProjectDir)
+        configurationManager.saveProjectConfiguration(configurationManager.createProjectConfiguration(buildConfig, projectDir))
+        configurationManager.saveBuildConfiguration(createInheritingBuildConfiguration(otherRootProjectDir))
+
+        expect:
+        configurationManager.loadProjectConfiguration(project).buildConfiguration.rootProjectDirectory == rootProjectDir
+
+        when:
+        File preferencesFile = new File(projectDir, ".settings/${CorePlugin.PLUGIN_ID}.prefs")
+        preferencesFile.text = preferencesFile.text.replace("../$rootProjectDir.name", "../$otherRootProjectDir.name")
+        project.refreshLocal(IResource.DEPTH_INFINITE, new NullProgressMonitor())
+
+        then:
+        configurationManager.loadProjectConfiguration(project).buildConfiguration.rootProjectDirectory == otherRootProjectDir
+    }
+
     def "can read project configuration safely with tryLoadProjectConfiguration method"() {
         when:
         ProjectConfiguration projectConfiguration = configurationManager.tryLoadProjectConfiguration(project)
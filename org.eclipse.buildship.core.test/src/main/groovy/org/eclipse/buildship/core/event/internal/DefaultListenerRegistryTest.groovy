@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.event.internal
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import spock.lang.Specification
+
+import org.eclipse.buildship.core.event.Event
+import org.eclipse.buildship.core.event.EventDelivery
+import org.eclipse.buildship.core.event.EventListener
+import org.eclipse.buildship.core.workspace.ProjectCreatedEvent
+import org.eclipse.buildship.core.workspace.ProjectDeletedEvent
+
+class DefaultListenerRegistryTest extends Specification {
+
+    DefaultListenerRegistry registry = new DefaultListenerRegistry()
+
+    def "Listeners only receive the event types they registered for"() {
+        setup:
+        EventListener listener = Mock(EventListener)
+        registry.addEventListener(listener, [ProjectCreatedEvent] as Set, EventDelivery.SYNCHRONOUS)
+        ProjectCreatedEvent created = new ProjectCreatedEvent(null)
+        ProjectDeletedEvent deleted = new ProjectDeletedEvent(null)
+
+        when:
+        registry.dispatch(created)
+        registry.dispatch(deleted)
+
+        then:
+        1 * listener.onEvent(created)
+        0 * listener.onEvent(deleted)
+    }
+
+    def "Listeners registered without event types receive all events"() {
+        setup:
+        EventListener listener = Mock(EventListener)
+        registry.addEventListener(listener)
+
+        when:
+        registry.dispatch(new ProjectCreatedEvent(null))
+        registry.dispatch(new ProjectDeletedEvent(null))
+
+        then:
+        2 * listener.onEvent(_)
+    }
+
+    def "Removed listeners no longer receive events"() {
+        setup:
+        EventListener listener = Mock(EventListener)
+        registry.addEventListener(listener)
+        registry.removeEventListener(listener)
+
+        when:
+        registry.dispatch(new ProjectCreatedEvent(null))
+
+        then:
+        0 * listener.onEvent(_)
+    }
+
+    def "Asynchronous events are delivered on a different thread"() {
+        setup:
+        CountDownLatch delivered = new CountDownLatch(1)
+        Thread deliveryThread = null
+        registry.addEventListener(new EventListener() {
+
+            void onEvent(Event event) {
+                deliveryThread = Thread.currentThread()
+                delivered.countDown()
+            }
+        }, [ProjectCreatedEvent] as Set, EventDelivery.ASYNCHRONOUS)
+
+        when:
+        registry.dispatch(new ProjectCreatedEvent(null))
+
+        then:
+        delivered.await(5, TimeUnit.SECONDS)
+        deliveryThread != Thread.currentThread()
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.launch.internal
+
+import spock.lang.Specification
+
+import org.eclipse.debug.core.ILaunch
+import org.eclipse.debug.core.ILaunchConfiguration
+import org.eclipse.debug.core.ILaunchConfigurationType
+
+class LaunchConfigurationScopeCacheTest extends Specification {
+
+    LaunchConfigurationScopeCache cache = new LaunchConfigurationScopeCache()
+    ILaunchConfiguration configuration = Mock(ILaunchConfiguration)
+    // the scope of an unsupported configuration type is a new instance for every calculation
+    ILaunchConfigurationType unsupportedType = Stub(ILaunchConfigurationType) {
+        getIdentifier() >> 'unsupported'
+    }
+
+    def "Scope is calculated once while the configuration is launched"() {
+        setup:
+        cache.launchesAdded([launch(configuration)] as ILaunch[])
+
+        when:
+        LaunchConfigurationScope first = cache.get(configuration)
+        LaunchConfigurationScope second = cache.get(configuration)
+
+        then:
+        1 * configuration.getType() >> unsupportedType
+        first.is(second)
+    }
+
+    def "Scope is calculated for every request if the configuration is not launched"() {
+        when:
+        LaunchConfigurationScope first = cache.get(configuration)
+        LaunchConfigurationScope second = cache.get(configuration)
+
+        then:
+        2 * configuration.getType() >> unsupportedType
+        !first.is(second)
+    }
+
+    def "Scope is calculated again after the launch is terminated"() {
+        setup:
+        ILaunch launch = launch(configuration)
+        cache.launchesAdded([launch] as ILaunch[])
+        configuration.getType() >> unsupportedType
+        LaunchConfigurationScope scope = cache.get(configuration)
+
+        when:
+        cache.launchesTerminated([launch] as ILaunch[])
+        cache.launchesAdded([launch(configuration)] as ILaunch[])
+
+        then:
+        !cache.get(configuration).is(scope)
+    }
+
+    def "Scope is kept until all launches of the configuration are terminated"() {
+        setup:
+        ILaunch first = launch(configuration)
+        ILaunch second = launch(configuration)
+        cache.launchesAdded([first, second] as ILaunch[])
+        configuration.getType() >> unsupportedType
+        LaunchConfigurationScope scope = cache.get(configuration)
+
+        when:
+        cache.launchesTerminated([first] as ILaunch[])
+        cache.launchesRemoved([first] as ILaunch[])
+
+        then:
+        cache.get(configuration).is(scope)
+    }
+
+    def "Scope is not shared between configuration instances"() {
+        setup:
+        ILaunchConfiguration other = Mock(ILaunchConfiguration)
+        cache.launchesAdded([launch(configuration), launch(other)] as ILaunch[])
+        configuration.getType() >> unsupportedType
+        other.getType() >> unsupportedType
+
+        expect:
+        !cache.get(configuration).is(cache.get(other))
+    }
+
+    private ILaunch launch(ILaunchConfiguration configuration) {
+        Stub(ILaunch) {
+            getLaunchConfiguration() >> configuration
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.launch.internal
+
+import spock.lang.Specification
+
+import org.eclipse.core.runtime.Path
+import org.eclipse.jdt.core.IClasspathAttribute
+import org.eclipse.jdt.core.IClasspathEntry
+import org.eclipse.jdt.core.JavaCore
+
+class LaunchConfigurationScopeTest extends Specification {
+
+    def "Scope masks are parsed from comma-separated scope names"() {
+        expect:
+        LaunchConfigurationScope.ScopeMask.parse('main,test').intersects(LaunchConfigurationScope.ScopeMask.parse('test'))
+        LaunchConfigurationScope.ScopeMask.parse('main,test').intersects(LaunchConfigurationScope.ScopeMask.parse('main'))
+        !LaunchConfigurationScope.ScopeMask.parse('main,test').intersects(LaunchConfigurationScope.ScopeMask.parse('integTest'))
+        !LaunchConfigurationScope.ScopeMask.parse('main').isEmpty()
+        LaunchConfigurationScope.ScopeMask.EMPTY.isEmpty()
+    }
+
+    def "Scope masks are parsed once per attribute value"() {
+        expect:
+        LaunchConfigurationScope.ScopeMask.parse('main,test').is(LaunchConfigurationScope.ScopeMask.parse('main,test'))
+    }
+
+    def "Union of scope masks contains the scopes of both masks"() {
+        setup:
+        def union = LaunchConfigurationScope.ScopeMask.parse('main').union(LaunchConfigurationScope.ScopeMask.parse('test'))
+
+        expect:
+        union.intersects(LaunchConfigurationScope.ScopeMask.parse('main'))
+        union.intersects(LaunchConfigurationScope.ScopeMask.parse('test'))
+        !union.intersects(LaunchConfigurationScope.ScopeMask.parse('integTest'))
+        !LaunchConfigurationScope.ScopeMask.parse('main').intersects(LaunchConfigurationScope.ScopeMask.parse('test'))
+    }
+
+    def "Empty scope mask doesn't intersect any mask"() {
+        expect:
+        !LaunchConfigurationScope.ScopeMask.EMPTY.intersects(LaunchConfigurationScope.ScopeMask.parse('main'))
+        LaunchConfigurationScope.ScopeMask.EMPTY.union(LaunchConfigurationScope.ScopeMask.parse('main')).intersects(LaunchConfigurationScope.ScopeMask.parse('main'))
+    }
+
+    def "Scope masks are read from the classpath attributes"() {
+        setup:
+        IClasspathEntry entry = entry(gradle_used_by_scope: 'main,test')
+
+        expect:
+        LaunchConfigurationScope.ScopeMask.of(entry, 'gradle_used_by_scope').intersects(LaunchConfigurationScope.ScopeMask.parse('test'))
+        LaunchConfigurationScope.ScopeMask.of(entry, 'gradle_scope') == null
+    }
+
+    private static IClasspathEntry entry(Map<String, String> attributes) {
+        IClasspathAttribute[] extraAttributes = attributes.collect { name, value -> JavaCore.newClasspathAttribute(name, value) } as IClasspathAttribute[]
+        JavaCore.newLibraryEntry(new Path('/lib.jar'), null, null, null, extraAttributes, false)
+    }
+}
@@ -1,8 +1,15 @@
 package org.eclipse.buildship.core.preferences.internal
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 import spock.lang.Issue
+import spock.util.concurrent.PollingConditions
+
+import com.google.common.base.Optional
 
 import org.eclipse.core.resources.IProject
+import org.eclipse.core.runtime.IPath
 import org.eclipse.core.runtime.NullProgressMonitor
 import org.eclipse.core.runtime.Path
 import org.eclipse.jdt.core.JavaCore
@@ -38,7 +45,7 @@ class DefaultModelPersistenceTest extends WorkspaceSpecification {
         thrown IllegalStateException
 
         where:
-        method << [ 'getBuildDir', 'getSubprojectPaths', 'getClasspath', 'getDerivedResources', 'getLinkedResources' ]
+        method << [ 'getBuildDir', 'getSubprojectPaths', 'getClasspath', 'getDerivedResources', 'getLinkedResources', 'getFingerprint', 'getBuildInputHashes' ]
     }
 
     def "Can store and load a model"() {
@@ -70,6 +77,22 @@ class DefaultModelPersistenceTest extends WorkspaceSpecification {
         model.linkedResources == linkedResources
     }
 
+    def "Fingerprint and build input hashes are stored with the model"() {
+        setup:
+        DefaultModelPersistence persistence = CorePlugin.modelPersistence()
+        Map<IPath, String> buildInputHashes = [(new Path('build.gradle')): 'hash']
+        persistence.saveModel(new DefaultPersistentModel(project, new Path('buildDir'), new Path('build.gradle'), [], [], [], [], [], [], 'fingerprint', buildInputHashes))
+
+        when:
+        persistence.persistDirtyModels()
+        persistence.modelCache.invalidate(project)
+        PersistentModel model = persistence.loadModel(project)
+
+        then:
+        model.fingerprint == Optional.of('fingerprint')
+        model.buildInputHashes == Optional.of(buildInputHashes)
+    }
+
     def "Can delete a model"() {
         setup:
         def buildDir = new Path('buildDir')
@@ -123,6 +146,165 @@ class DefaultModelPersistenceTest extends WorkspaceSpecification {
         model.linkedResources == linkedResources
     }
 
+    def "Model stored in the legacy properties format is loaded and migrated to the binary format"() {
+        setup:
+        File legacyFile = CorePlugin.instance.stateLocation.append('project-preferences').append(project.name).toFile()
+        File modelFile = CorePlugin.instance.stateLocation.append('project-models').append(project.name).toFile()
+        Properties properties = new Properties()
+        properties['buildDir'] = 'buildDir'
+        properties['buildScriptPath'] = 'build.gradle'
+        properties['subprojectPaths'] = 'subproject'
+        properties['classpath'] = '<?xml version="1.0" encoding="UTF-8"?>\n<classpath>\n<classpathentry kind="src" path="/project-path"/>\n</classpath>\n'
+        legacyFile.parentFile.mkdirs()
+        legacyFile.withWriter('UTF-8') { properties.store(it, '') }
+        DefaultModelPersistence persistence = CorePlugin.modelPersistence()
+
+        when:
+        PersistentModel model = persistence.loadModel(project)
+
+        then:
+        model.present
+        model.buildDir == new Path('buildDir')
+        model.subprojectPaths == [new Path('subproject')]
+        model.classpath == [JavaCore.newProjectEntry(new Path('/project-path'))]
+
+        when:
+        persistence.persistDirtyModels()
+        persistence.modelCache.invalidate(project)
+        model = persistence.loadModel(project)
+
+        then:
+        !legacyFile.exists()
+        modelFile.exists()
+        model.present
+        model.buildDir == new Path('buildDir')
+        model.subprojectPaths == [new Path('subproject')]
+        model.classpath == [JavaCore.newProjectEntry(new Path('/project-path'))]
+    }
+
+    def "Only modified models are written to the disk"() {
+        setup:
+        File modelFile = CorePlugin.instance.stateLocation.append('project-models').append(project.name).toFile()
+        DefaultModelPersistence persistence = CorePlugin.modelPersistence()
+        persistence.saveModel(newModel(new Path('buildDir')))
+        persistence.persistDirtyModels()
+        modelFile.delete()
+
+        when:
+        persistence.saveModel(newModel(new Path('buildDir')))
+        persistence.persistDirtyModels()
+
+        then:
+        !modelFile.exists()
+
+        when:
+        persistence.saveModel(newModel(new Path('otherBuildDir')))
+        persistence.persistDirtyModels()
+
+        then:
+        modelFile.exists()
+    }
+
+    def "Model file with an invalid length is loaded as absent model"() {
+        setup:
+        File modelFile = CorePlugin.instance.stateLocation.append('project-models').append(project.name).toFile()
+        modelFile.parentFile.mkdirs()
+        modelFile.withDataOutputStream { output ->
+            output.writeInt(0x4253504D)
+            output.writeInt(1)
+            output.writeInt(Integer.MAX_VALUE)
+        }
+        DefaultModelPersistence persistence = CorePlugin.modelPersistence()
+        persistence.modelCache.invalidate(project)
+
+        when:
+        PersistentModel model = persistence.loadModel(project)
+
+        then:
+        !model.present
+    }
+
+    def "Model file with an unsupported format version is loaded as absent model"() {
+        setup:
+        File modelFile = CorePlugin.instance.stateLocation.append('project-models').append(project.name).toFile()
+        modelFile.parentFile.mkdirs()
+        modelFile.withDataOutputStream { output ->
+            output.writeInt(0x4253504D)
+            output.writeInt(2)
+        }
+        DefaultModelPersistence persistence = CorePlugin.modelPersistence()
+        persistence.modelCache.invalidate(project)
+
+        when:
+        PersistentModel model = persistence.loadModel(project)
+
+        then:
+        !model.present
+    }
+
+    def "Persisting a model replaces the model file"() {
+        setup:
+        File modelFile = CorePlugin.instance.stateLocation.append('project-models').append(project.name).toFile()
+        DefaultModelPersistence persistence = CorePlugin.modelPersistence()
+        persistence.saveModel(newModel(new Path('buildDir')))
+        persistence.persistDirtyModels()
+
+        when:
+        persistence.saveModel(newModel(new Path('otherBuildDir')))
+        persistence.persistDirtyModels()
+        persistence.modelCache.invalidate(project)
+
+        then:
+        persistence.loadModel(project).buildDir == new Path('otherBuildDir')
+        !modelFile.parentFile.parentFile.listFiles().any { it.name.endsWith('.tmp') }
+    }
+
+    def "Models saved while the persist job is running are persisted"() {
+        setup:
+        IProject first = newProject('first')
+        IProject second = newProject('second')
+        IProject third = newProject('third')
+        CountDownLatch persistStarted = new CountDownLatch(1)
+        CountDownLatch persistReleased = new CountDownLatch(1)
+        DefaultModelPersistence persistence = CorePlugin.modelPersistence()
+        persistence.saveModel(blockingModel(first, persistStarted, persistReleased))
+        persistence.saveModel(newModel(second, new Path('buildDir')))
+
+        when:
+        assert persistStarted.await(30, TimeUnit.SECONDS)
+        persistence.saveModel(newModel(third, new Path('buildDir')))
+        persistReleased.countDown()
+
+        then:
+        new PollingConditions(timeout: 30).eventually {
+            assert modelFile(first).exists()
+            assert modelFile(second).exists()
+            assert modelFile(third).exists()
+        }
+    }
+
+    def "Models can be saved and loaded while a model is written"() {
+        setup:
+        IProject first = newProject('first')
+        IProject second = newProject('second')
+        CountDownLatch persistStarted = new CountDownLatch(1)
+        CountDownLatch persistReleased = new CountDownLatch(1)
+        DefaultModelPersistence persistence = CorePlugin.modelPersistence()
+        persistence.saveModel(blockingModel(first, persistStarted, persistReleased))
+        assert persistStarted.await(30, TimeUnit.SECONDS)
+
+        when:
+        persistence.saveModel(newModel(second, new Path('buildDir')))
+        PersistentModel model = persistence.loadModel(second)
+
+        then:
+        model.buildDir == new Path('buildDir')
+        !modelFile(first).exists()
+
+        cleanup:
+        persistReleased.countDown()
+    }
+
     @Issue('https://github.com/eclipse/buildship/issues/404')
     def "Cached absent model is not persisted"() {
         setup:
@@ -130,9 +312,43 @@ class DefaultModelPersistenceTest extends WorkspaceSpecification {
         persistence.loadModel(project)
 
         when:
-        persistence.persistAllProjectPrefs()
+        persistence.persistDirtyModels()
 
         then:
         notThrown RuntimeException
     }
+
+    private PersistentModel newModel(IPath buildDir) {
+        newModel(project, buildDir)
+    }
+
+    private PersistentModel newModel(IProject project, IPath buildDir) {
+        new DefaultPersistentModel(project, buildDir, new Path('build.gradle'), [], [], [], [], [], [])
+    }
+
+    private PersistentModel blockingModel(IProject project, CountDownLatch persistStarted, CountDownLatch persistReleased) {
+        // the build directory is the first value written by the serializer
+        Stub(PersistentModel) {
+            getProject() >> project
+            isPresent() >> true
+            getBuildDir() >> {
+                persistStarted.countDown()
+                persistReleased.await(30, TimeUnit.SECONDS)
+                new Path('buildDir')
+            }
+            getbuildScriptPath() >> new Path('build.gradle')
+            getSubprojectPaths() >> []
+            getClasspath() >> []
+            getDerivedResources() >> []
+            getLinkedResources() >> []
+            getManagedNatures() >> []
+            getManagedBuilders() >> []
+            getFingerprint() >> Optional.absent()
+            getBuildInputHashes() >> Optional.absent()
+        }
+    }
+
+    private static File modelFile(IProject project) {
+        CorePlugin.instance.stateLocation.append('project-models').append(project.name).toFile()
+    }
 }
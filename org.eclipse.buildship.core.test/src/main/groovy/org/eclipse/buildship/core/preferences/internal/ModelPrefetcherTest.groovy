@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.preferences.internal
+
+import spock.lang.Specification
+
+import com.google.common.cache.LoadingCache
+
+import org.eclipse.core.resources.IProject
+
+class ModelPrefetcherTest extends Specification {
+
+    ModelPrefetcher prefetcher = new ModelPrefetcher(Mock(LoadingCache), 1)
+
+    def "Prioritized projects are queued in the given order before the other projects"() {
+        setup:
+        IProject a = project('a')
+        IProject b = project('b')
+        IProject c = project('c')
+        IProject d = project('d')
+        prefetcher.enqueue(c)
+        prefetcher.enqueue(d)
+
+        when:
+        prefetcher.prioritize([a, b, c])
+
+        then:
+        prefetcher.pendingProjects as List == [a, b, c, d]
+    }
+
+    def "Prioritizing has no effect after the prefetch finished"() {
+        setup:
+        prefetcher.finish()
+
+        when:
+        prefetcher.prioritize([project('a')])
+
+        then:
+        prefetcher.pendingProjects.empty
+    }
+
+    private IProject project(String name) {
+        Stub(IProject) {
+            getName() >> name
+        }
+    }
+}
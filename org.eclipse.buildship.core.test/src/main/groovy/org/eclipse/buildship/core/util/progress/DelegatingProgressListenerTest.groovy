@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.util.progress
+
+import java.util.concurrent.TimeUnit
+
+import org.gradle.tooling.ProgressEvent
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import com.google.common.base.Predicates
+import com.google.common.base.Ticker
+
+import org.eclipse.core.runtime.IProgressMonitor
+
+class DelegatingProgressListenerTest extends Specification {
+
+    static final long UPDATE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1).intdiv(DelegatingProgressListener.MAX_UPDATES_PER_SECOND)
+
+    ManualTicker ticker = new ManualTicker()
+
+    def "Recently seen lifecycle events are not forwarded"() {
+        setup:
+        IProgressMonitor monitor = Mock(IProgressMonitor)
+        DelegatingProgressListener listener = new DelegatingProgressListener(monitor, new DelegatingProgressListener.RecentDuplicateFilter(10), ticker)
+
+        when:
+        listener.statusChanged(event('Configure projects'))
+        ticker.advance(UPDATE_INTERVAL_NANOS)
+        listener.statusChanged(event('Configure projects'))
+
+        then:
+        1 * monitor.subTask('Configure projects')
+        listener.eventCount == 2
+    }
+
+    def "Events are forwarded again once they are no longer among the recent ones"() {
+        setup:
+        IProgressMonitor monitor = Mock(IProgressMonitor)
+        DelegatingProgressListener listener = new DelegatingProgressListener(monitor, new DelegatingProgressListener.RecentDuplicateFilter(10), ticker)
+        listener.statusChanged(event('Configure projects'))
+        (1..10).each { listener.statusChanged(event("Task $it")) }
+        ticker.advance(UPDATE_INTERVAL_NANOS)
+
+        when:
+        listener.statusChanged(event('Configure projects'))
+
+        then:
+        1 * monitor.subTask('Configure projects')
+        listener.eventCount == 12
+    }
+
+    def "Events received after the update interval are forwarded immediately"() {
+        setup:
+        List<String> descriptions = []
+        IProgressMonitor monitor = Mock(IProgressMonitor)
+        monitor.subTask(_) >> { String description -> descriptions << description }
+        DelegatingProgressListener listener = new DelegatingProgressListener(monitor, Predicates.alwaysTrue(), ticker)
+
+        when:
+        listener.statusChanged(event('Task 1'))
+        ticker.advance(UPDATE_INTERVAL_NANOS)
+        listener.statusChanged(event('Task 2'))
+
+        then:
+        descriptions == ['Task 1', 'Task 2']
+    }
+
+    def "Monitor updates are coalesced and the most recent event is forwarded eventually"() {
+        setup:
+        List<String> descriptions = [].asSynchronized()
+        IProgressMonitor monitor = Mock(IProgressMonitor)
+        monitor.subTask(_) >> { String description -> descriptions << description }
+        DelegatingProgressListener listener = new DelegatingProgressListener(monitor, Predicates.alwaysTrue(), ticker)
+
+        when:
+        (1..100).each { listener.statusChanged(event("Task $it")) }
+
+        then:
+        new PollingConditions(timeout: 5).eventually {
+            assert descriptions.last() == 'Task 100'
+        }
+        descriptions.first() == 'Task 1'
+        descriptions.size() < 100
+        listener.eventCount == 100
+    }
+
+    def "Coalesced events are forwarded when the operation finishes"() {
+        setup:
+        List<String> descriptions = [].asSynchronized()
+        IProgressMonitor monitor = Mock(IProgressMonitor)
+        monitor.subTask(_) >> { String description -> descriptions << description }
+        DelegatingProgressListener listener = new DelegatingProgressListener(monitor, Predicates.alwaysTrue(), ticker)
+        listener.statusChanged(event('Task 1'))
+        listener.statusChanged(event('Task 2'))
+
+        when:
+        listener.finish()
+        listener.statusChanged(event('Task 3'))
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(UPDATE_INTERVAL_NANOS) * 2)
+
+        then:
+        descriptions == ['Task 1', 'Task 2']
+    }
+
+    private ProgressEvent event(String description) {
+        ProgressEvent event = Mock(ProgressEvent)
+        event.description >> description
+        event
+    }
+
+    static class ManualTicker extends Ticker {
+
+        long nanos
+
+        void advance(long nanos) {
+            this.nanos += nanos
+        }
+
+        @Override
+        long read() {
+            nanos
+        }
+    }
+}
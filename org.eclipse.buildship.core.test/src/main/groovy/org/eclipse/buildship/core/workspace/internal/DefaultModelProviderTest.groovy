@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject
+import com.gradleware.tooling.toolingmodel.repository.FetchStrategy
+
+import org.eclipse.core.runtime.NullProgressMonitor
+
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class DefaultModelProviderTest extends WorkspaceSpecification {
+
+    def "Project-scoped fetch returns the requested projects and the projects they depend on"() {
+        setup:
+        File rootDir = dir('sample') {
+            file 'settings.gradle', "include 'a', 'b', 'c'"
+            file 'build.gradle', "subprojects { apply plugin: 'java' }"
+            dir('a') {
+                file 'build.gradle', "dependencies { compile project(':b') }"
+            }
+        }
+
+        when:
+        Set<OmniEclipseProject> projects = fetchEclipseGradleProjects(rootDir, [':a'] as Set)
+
+        then:
+        projects*.name as Set == ['a', 'b'] as Set
+    }
+
+    def "Project-scoped fetch returns the projects of included builds the requested projects depend on"() {
+        setup:
+        File rootDir = dir('sample') {
+            file 'settings.gradle', "include 'a'\nincludeBuild 'other'"
+            dir('a') {
+                file 'build.gradle', """
+                    apply plugin: 'java'
+                    dependencies { compile 'org.other:other:1.0' }
+                """
+            }
+            dir('other') {
+                file 'settings.gradle', "rootProject.name = 'other'"
+                file 'build.gradle', """
+                    apply plugin: 'java'
+                    group = 'org.other'
+                """
+            }
+        }
+
+        when:
+        Set<OmniEclipseProject> projects = fetchEclipseGradleProjects(rootDir, [':a'] as Set)
+
+        then:
+        projects*.name as Set == ['a', 'other'] as Set
+    }
+
+    def "Project-scoped fetch of an unknown project returns no projects"() {
+        setup:
+        File rootDir = dir('sample') {
+            file 'settings.gradle', "include 'a'"
+        }
+
+        expect:
+        fetchEclipseGradleProjects(rootDir, [':unknown'] as Set).empty
+    }
+
+    private Set<OmniEclipseProject> fetchEclipseGradleProjects(File rootDir, Set<String> projectPaths) {
+        DefaultModelProvider modelProvider = new DefaultModelProvider(createInheritingBuildConfiguration(rootDir))
+        modelProvider.fetchEclipseGradleProjects(projectPaths, FetchStrategy.FORCE_RELOAD, null, new NullProgressMonitor())
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import java.util.concurrent.TimeUnit
+
+import org.gradle.tooling.ProjectConnection
+
+import com.gradleware.tooling.toolingclient.GradleDistribution
+import com.gradleware.tooling.toolingmodel.repository.FetchStrategy
+
+import org.eclipse.core.runtime.NullProgressMonitor
+
+import org.eclipse.buildship.core.CorePlugin
+import org.eclipse.buildship.core.configuration.BuildConfiguration
+import org.eclipse.buildship.core.configuration.GradleArguments
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class DefaultProjectConnectionPoolTest extends WorkspaceSpecification {
+
+    static final long ONE_HOUR = TimeUnit.HOURS.toMillis(1)
+
+    DefaultProjectConnectionPool pool
+
+    def cleanup() {
+        pool?.close()
+    }
+
+    def "Clients of the same build share one connection"() {
+        setup:
+        pool = new DefaultProjectConnectionPool(2, ONE_HOUR)
+
+        when:
+        ProjectConnection first = pool.acquire(arguments('sample'))
+        ProjectConnection second = pool.acquire(arguments('sample', ['--offline']))
+
+        then:
+        first.is(second)
+    }
+
+    def "Clients of different builds get different connections"() {
+        setup:
+        pool = new DefaultProjectConnectionPool(2, ONE_HOUR)
+
+        expect:
+        !pool.acquire(arguments('first')).is(pool.acquire(arguments('second')))
+    }
+
+    def "Released connections are reused"() {
+        setup:
+        pool = new DefaultProjectConnectionPool(2, ONE_HOUR)
+        ProjectConnection connection = pool.acquire(arguments('sample'))
+
+        when:
+        pool.release(connection)
+
+        then:
+        pool.acquire(arguments('sample')).is(connection)
+    }
+
+    def "Connections not acquired from the pool are closed on release"() {
+        setup:
+        pool = new DefaultProjectConnectionPool(2, ONE_HOUR)
+        ProjectConnection connection = Mock(ProjectConnection)
+
+        when:
+        pool.release(connection)
+
+        then:
+        1 * connection.close()
+    }
+
+    def "Evicted connections are not reused"() {
+        setup:
+        pool = new DefaultProjectConnectionPool(2, ONE_HOUR)
+        ProjectConnection first = pool.acquire(arguments('first'))
+        ProjectConnection second = pool.acquire(arguments('second'))
+        pool.release(first)
+        pool.release(second)
+
+        when:
+        pool.evict(dir('first'))
+
+        then:
+        !pool.acquire(arguments('first')).is(first)
+        pool.acquire(arguments('second')).is(second)
+    }
+
+    def "Connections evicted while in use are not reused"() {
+        setup:
+        pool = new DefaultProjectConnectionPool(2, ONE_HOUR)
+        ProjectConnection connection = pool.acquire(arguments('sample'))
+
+        when:
+        pool.evictAll()
+        ProjectConnection newConnection = pool.acquire(arguments('sample'))
+        pool.release(connection)
+
+        then:
+        !newConnection.is(connection)
+        pool.acquire(arguments('sample')).is(newConnection)
+    }
+
+    def "Least recently used idle connections are closed when the pool is full"() {
+        setup:
+        pool = new DefaultProjectConnectionPool(1, ONE_HOUR)
+        ProjectConnection first = pool.acquire(arguments('first'))
+        ProjectConnection second = pool.acquire(arguments('second'))
+
+        when:
+        pool.release(first)
+        pool.release(second)
+
+        then:
+        pool.acquire(arguments('second')).is(second)
+        !pool.acquire(arguments('first')).is(first)
+    }
+
+    def "Connections in use are not closed when the pool is full"() {
+        setup:
+        pool = new DefaultProjectConnectionPool(0, ONE_HOUR)
+        ProjectConnection first = pool.acquire(arguments('first'))
+        ProjectConnection second = pool.acquire(arguments('second'))
+
+        when:
+        pool.release(second)
+
+        then:
+        pool.acquire(arguments('first')).is(first)
+        !pool.acquire(arguments('second')).is(second)
+    }
+
+    def "Idle connections are closed after the idle timeout"() {
+        setup:
+        pool = new DefaultProjectConnectionPool(2, 0)
+        ProjectConnection idle = pool.acquire(arguments('idle'))
+        ProjectConnection leased = pool.acquire(arguments('leased'))
+        pool.release(idle)
+
+        when:
+        long nextExpiration = pool.closeIdleConnections()
+
+        then:
+        nextExpiration == -1
+        !pool.acquire(arguments('idle')).is(idle)
+        pool.acquire(arguments('leased')).is(leased)
+    }
+
+    def "Idle connections are kept until the idle timeout"() {
+        setup:
+        pool = new DefaultProjectConnectionPool(2, ONE_HOUR)
+        ProjectConnection connection = pool.acquire(arguments('sample'))
+        pool.release(connection)
+
+        when:
+        long nextExpiration = pool.closeIdleConnections()
+
+        then:
+        nextExpiration > 0
+        nextExpiration <= ONE_HOUR
+        pool.acquire(arguments('sample')).is(connection)
+    }
+
+    def "Fetching cached models doesn't keep the connection leased"() {
+        setup:
+        File rootDir = dir('sample') {
+            file 'settings.gradle', ''
+        }
+        BuildConfiguration buildConfiguration = createInheritingBuildConfiguration(rootDir)
+        DefaultModelProvider modelProvider = new DefaultModelProvider(buildConfiguration)
+        modelProvider.fetchGradleBuild(FetchStrategy.LOAD_IF_NOT_CACHED, null, new NullProgressMonitor())
+
+        when:
+        modelProvider.fetchGradleBuild(FetchStrategy.LOAD_IF_NOT_CACHED, null, new NullProgressMonitor())
+        modelProvider.fetchGradleBuild(FetchStrategy.FROM_CACHE_ONLY, null, new NullProgressMonitor())
+        DefaultProjectConnectionPool sharedPool = CorePlugin.projectConnectionPool()
+        ProjectConnection connection = sharedPool.acquire(buildConfiguration.toGradleArguments())
+
+        then:
+        // the only lease is the one acquired by the test
+        sharedPool.leasedConnections[connection].leases == 1
+
+        cleanup:
+        if (connection != null) {
+            sharedPool.release(connection)
+        }
+    }
+
+    private GradleArguments arguments(String rootDirName, List<String> arguments = []) {
+        GradleArguments.from(dir(rootDirName), GradleDistribution.fromBuild(), null, null, false, false, arguments, [])
+    }
+}
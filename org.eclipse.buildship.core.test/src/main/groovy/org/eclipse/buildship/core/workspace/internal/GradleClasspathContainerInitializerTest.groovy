@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import com.google.common.collect.ImmutableList
+
+import org.eclipse.core.resources.IProject
+import org.eclipse.core.runtime.NullProgressMonitor
+import org.eclipse.core.runtime.Path
+import org.eclipse.jdt.core.IClasspathEntry
+import org.eclipse.jdt.core.IJavaProject
+import org.eclipse.jdt.core.JavaCore
+
+import org.eclipse.buildship.core.CorePlugin
+import org.eclipse.buildship.core.configuration.GradleProjectNature
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+import org.eclipse.buildship.core.workspace.GradleClasspathContainer
+import org.eclipse.buildship.core.workspace.WorkspaceOperations
+
+class GradleClasspathContainerInitializerTest extends WorkspaceSpecification {
+
+    GradleClasspathContainerInitializer initializer = new GradleClasspathContainerInitializer()
+    IJavaProject first
+    IJavaProject second
+
+    def setup() {
+        first = newGradleJavaProject('first')
+        second = newGradleJavaProject('second')
+    }
+
+    def "The containers of all Gradle projects are initialized in one batch"() {
+        when:
+        initializer.initialize(GradleClasspathContainer.CONTAINER_PATH, first)
+
+        then:
+        containerEntries(first) == [libraryPath('first')]
+        containerEntries(second) == [libraryPath('second')]
+    }
+
+    def "The project is initialized on its own if the batch fails"() {
+        setup:
+        FailingWorkspaceOperations workspaceOperations = new FailingWorkspaceOperations(failures: 1)
+        registerService(WorkspaceOperations, workspaceOperations)
+
+        when:
+        initializer.initialize(GradleClasspathContainer.CONTAINER_PATH, first)
+
+        then:
+        workspaceOperations.failures == 0
+        containerEntries(first) == [libraryPath('first')]
+        containerEntries(second) == []
+    }
+
+    def "The batch is retried after a failure"() {
+        setup:
+        registerService(WorkspaceOperations, new FailingWorkspaceOperations(failures: 1))
+        initializer.initialize(GradleClasspathContainer.CONTAINER_PATH, first)
+
+        when:
+        initializer.initialize(GradleClasspathContainer.CONTAINER_PATH, first)
+
+        then:
+        containerEntries(second) == [libraryPath('second')]
+    }
+
+    def "The batch is retried at most once"() {
+        setup:
+        IJavaProject third = newGradleJavaProject('third')
+        FailingWorkspaceOperations workspaceOperations = new FailingWorkspaceOperations(failures: 10)
+        registerService(WorkspaceOperations, workspaceOperations)
+
+        when:
+        initializer.initialize(GradleClasspathContainer.CONTAINER_PATH, first)
+        initializer.initialize(GradleClasspathContainer.CONTAINER_PATH, second)
+        initializer.initialize(GradleClasspathContainer.CONTAINER_PATH, third)
+
+        then:
+        workspaceOperations.failures == 8
+        containerEntries(first) == [libraryPath('first')]
+        containerEntries(second) == [libraryPath('second')]
+        containerEntries(third) == [libraryPath('third')]
+    }
+
+    private IJavaProject newGradleJavaProject(String name) {
+        IJavaProject javaProject = newJavaProject(name)
+        IProject project = javaProject.project
+        CorePlugin.workspaceOperations().addNature(project, GradleProjectNature.ID, new NullProgressMonitor())
+        javaProject.setRawClasspath([JavaCore.newContainerEntry(GradleClasspathContainer.CONTAINER_PATH)] as IClasspathEntry[], null)
+        List<IClasspathEntry> classpath = [JavaCore.newLibraryEntry(libraryPath(name), null, null)]
+        CorePlugin.modelPersistence().saveModel(persistentModelBuilder(project).classpath(classpath).build())
+        // set an empty container, so that querying it doesn't trigger the initializer
+        GradleClasspathContainerUpdater.clear(javaProject, null)
+        javaProject
+    }
+
+    private Path libraryPath(String projectName) {
+        new Path(dir("$projectName-lib").absolutePath)
+    }
+
+    private static List<Path> containerEntries(IJavaProject project) {
+        JavaCore.getClasspathContainer(GradleClasspathContainer.CONTAINER_PATH, project).classpathEntries*.path
+    }
+
+    static class FailingWorkspaceOperations {
+
+        @Delegate WorkspaceOperations delegate = new DefaultWorkspaceOperations()
+        int failures
+
+        ImmutableList<IProject> getAllProjects() {
+            if (failures > 0) {
+                failures--
+                throw new IllegalStateException('Cannot list the projects')
+            }
+            delegate.allProjects
+        }
+    }
+}
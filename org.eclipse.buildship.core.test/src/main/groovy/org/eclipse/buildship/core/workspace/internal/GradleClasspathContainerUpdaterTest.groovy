@@ -127,6 +127,24 @@ class GradleClasspathContainerUpdaterTest extends WorkspaceSpecification {
         modifiedContainer.is(gradleClasspathContainer)
     }
 
+    def "Container is updated if its content differs from the persisted entries"() {
+        given:
+        def gradleProject = gradleProjectWithClasspath(
+                externalDependency(dir("foo"))
+                )
+        PersistentModelBuilder persistentModel = persistentModelBuilder(project.project)
+        GradleClasspathContainerUpdater.updateFromModel(project, gradleProject, gradleProject.all.toSet(), persistentModel, null)
+        GradleClasspathContainerUpdater.clear(project, null)
+
+        when:
+        persistentModel = persistentModelBuilder(persistentModel.build())
+        GradleClasspathContainerUpdater.updateFromModel(project, gradleProject, gradleProject.all.toSet(), persistentModel, null)
+
+        then:
+        resolvedClasspath.length == 1
+        resolvedClasspath[0].path.toFile() == dir("foo")
+    }
+
     OmniEclipseProject gradleProjectWithClasspath(Object... dependencies) {
         Stub(OmniEclipseProject) {
             getExternalDependencies() >> dependencies.findAll { it instanceof OmniExternalDependency }
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import java.util.concurrent.Callable
+
+import spock.lang.Specification
+
+import com.gradleware.tooling.toolingclient.GradleDistribution
+
+import org.eclipse.buildship.core.GradlePluginsRuntimeException
+import org.eclipse.buildship.core.configuration.GradleArguments
+import org.eclipse.buildship.core.workspace.ModelCacheStatistics
+
+class ModelCacheTest extends Specification {
+
+    ModelCache cache = new ModelCache(10, 0)
+    GradleArguments arguments = GradleArguments.from(new File('.'), GradleDistribution.fromBuild(), null, null, false, false, [], [])
+
+    def "Models are loaded once per key"() {
+        setup:
+        Callable<String> loader = Mock(Callable)
+        ModelCache.Key key = ModelCache.singleBuildKey(String, arguments)
+
+        when:
+        String first = cache.get(key, loader)
+        String second = cache.get(key, loader)
+
+        then:
+        1 * loader.call() >> 'model'
+        first == 'model'
+        second == 'model'
+    }
+
+    def "Models are cached separately for single and composite builds"() {
+        setup:
+        ModelCache.Key singleBuildKey = ModelCache.singleBuildKey(String, arguments)
+        ModelCache.Key compositeKey = ModelCache.compositeKey(String, arguments)
+        ModelCache.Key projectScopedKey = ModelCache.projectScopedKey(String, [':a'] as Set, arguments)
+
+        when:
+        cache.get(singleBuildKey, { 'single' } as Callable)
+        cache.get(compositeKey, { 'composite' } as Callable)
+        cache.get(projectScopedKey, { 'scoped' } as Callable)
+
+        then:
+        cache.getIfPresent(singleBuildKey) == 'single'
+        cache.getIfPresent(compositeKey) == 'composite'
+        cache.getIfPresent(projectScopedKey) == 'scoped'
+        cache.getIfPresent(ModelCache.projectScopedKey(String, [':b'] as Set, arguments)) == null
+    }
+
+    def "Invalidated models are reloaded"() {
+        setup:
+        Callable<String> loader = Mock(Callable)
+        ModelCache.Key key = ModelCache.singleBuildKey(String, arguments)
+        cache.get(key, { 'stale' } as Callable)
+
+        when:
+        cache.invalidate(key)
+        String result = cache.get(key, loader)
+
+        then:
+        1 * loader.call() >> 'fresh'
+        result == 'fresh'
+    }
+
+    def "Invalidating the composite model invalidates the project-scoped models"() {
+        setup:
+        ModelCache.Key compositeKey = ModelCache.compositeKey(String, arguments)
+        ModelCache.Key projectScopedKey = ModelCache.projectScopedKey(String, [':a'] as Set, arguments)
+        ModelCache.Key otherTypeKey = ModelCache.projectScopedKey(Integer, [':a'] as Set, arguments)
+        ModelCache.Key singleBuildKey = ModelCache.singleBuildKey(String, arguments)
+        cache.get(compositeKey, { 'composite' } as Callable)
+        cache.get(projectScopedKey, { 'scoped' } as Callable)
+        cache.get(otherTypeKey, { 1 } as Callable)
+        cache.get(singleBuildKey, { 'single' } as Callable)
+
+        when:
+        cache.invalidate(compositeKey)
+
+        then:
+        cache.getIfPresent(compositeKey) == null
+        cache.getIfPresent(projectScopedKey) == null
+        cache.getIfPresent(otherTypeKey) == 1
+        cache.getIfPresent(singleBuildKey) == 'single'
+    }
+
+    def "Models are evicted when the weight of the cached models exceeds the limit"() {
+        setup:
+        ModelCache smallCache = new ModelCache(1, 0)
+        ModelCache.Key first = ModelCache.singleBuildKey(String, arguments)
+        ModelCache.Key second = ModelCache.compositeKey(String, arguments)
+
+        when:
+        smallCache.get(first, { 'first' } as Callable)
+        smallCache.get(second, { 'second' } as Callable)
+
+        then:
+        smallCache.getIfPresent(first) == null
+        smallCache.getIfPresent(second) == 'second'
+        smallCache.statistics.evictionCount == 1
+    }
+
+    def "Runtime exceptions of the loader are rethrown"() {
+        when:
+        cache.get(ModelCache.singleBuildKey(String, arguments), { throw new IllegalStateException() } as Callable)
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "Checked exceptions of the loader are wrapped"() {
+        when:
+        cache.get(ModelCache.singleBuildKey(String, arguments), { throw new IOException() } as Callable)
+
+        then:
+        GradlePluginsRuntimeException e = thrown()
+        e.cause.cause instanceof IOException
+    }
+
+    def "Statistics count the hits and misses"() {
+        setup:
+        ModelCache.Key key = ModelCache.singleBuildKey(String, arguments)
+
+        when:
+        cache.get(key, { 'model' } as Callable)
+        cache.get(key, { 'model' } as Callable)
+        cache.get(key, { 'model' } as Callable)
+        ModelCacheStatistics statistics = cache.statistics
+
+        then:
+        statistics.hitCount == 2
+        statistics.missCount == 1
+        statistics.evictionCount == 0
+        statistics.hitRate == 2.0d / 3.0d
+    }
+
+    def "Statistics of an unused cache have a hit rate of one"() {
+        expect:
+        cache.statistics == new ModelCacheStatistics(0, 0, 0, 0)
+        cache.statistics.hitRate == 1.0d
+    }
+}
@@ -0,0 +1,31 @@
+package org.eclipse.buildship.core.workspace.internal
+
+import spock.lang.Specification
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject
+
+import org.eclipse.core.runtime.Path
+
+class ProjectDirectoryTrieTest extends Specification {
+
+    def "Finds the projects located in or under a directory"() {
+        setup:
+        OmniEclipseProject root = project('/root')
+        OmniEclipseProject sub = project('/root/sub')
+        OmniEclipseProject nested = project('/root/sub/nested')
+        OmniEclipseProject sibling = project('/root-sibling')
+        ProjectDirectoryTrie trie = ProjectDirectoryTrie.create([root, sub, nested, sibling])
+
+        expect:
+        trie.getProjectsUnder(new Path('/root')) == [root, sub, nested]
+        trie.getProjectsUnder(new Path('/root/sub')) == [sub, nested]
+        trie.getProjectsUnder(new Path('/root/sub/nested/src')).empty
+        trie.getProjectsUnder(new Path('/other')).empty
+    }
+
+    private OmniEclipseProject project(String path) {
+        OmniEclipseProject project = Mock(OmniEclipseProject)
+        project.projectDirectory >> new File(path)
+        project
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import org.eclipse.core.resources.IProject
+import org.eclipse.core.resources.IProjectDescription
+import org.eclipse.core.resources.IResourceDelta
+import org.eclipse.core.resources.IWorkspaceRunnable
+import org.eclipse.core.runtime.IProgressMonitor
+import org.eclipse.core.runtime.NullProgressMonitor
+import org.eclipse.core.runtime.Path
+
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class ResourceDeltaDispatcherTest extends WorkspaceSpecification {
+
+    ResourceDeltaDispatcher dispatcher
+    ResourceDeltaDispatcher.Subscriber subscriber = Mock(ResourceDeltaDispatcher.Subscriber)
+
+    def setup() {
+        subscriber.getInterestingPaths(_) >> ([new Path('build.gradle')] as Set)
+        dispatcher = ResourceDeltaDispatcher.createAndRegister()
+        dispatcher.subscribe(subscriber)
+    }
+
+    def cleanup() {
+        dispatcher.close()
+    }
+
+    def "Changes of interesting resources are dispatched"() {
+        setup:
+        IProject project = newProject('sample')
+        project.getFile('build.gradle').create(new ByteArrayInputStream(new byte[0]), true, new NullProgressMonitor())
+
+        when:
+        project.getFile('build.gradle').setContents(new ByteArrayInputStream('apply plugin: "java"'.bytes), 0, new NullProgressMonitor())
+
+        then:
+        0 * subscriber.projectChanged(_)
+        1 * subscriber.resourcesChanged(project, { List<IResourceDelta> deltas -> deltas*.projectRelativePath == [new Path('build.gradle')] })
+    }
+
+    def "Description and resource changes of a project in one workspace operation are both dispatched"() {
+        setup:
+        IProject project = newProject('sample')
+        project.getFile('build.gradle').create(new ByteArrayInputStream(new byte[0]), true, new NullProgressMonitor())
+
+        when:
+        workspace.run({ IProgressMonitor monitor ->
+            IProjectDescription description = project.description
+            description.comment = 'changed'
+            project.setDescription(description, monitor)
+            project.getFile('build.gradle').setContents(new ByteArrayInputStream('apply plugin: "java"'.bytes), 0, monitor)
+        } as IWorkspaceRunnable, new NullProgressMonitor())
+
+        then:
+        1 * subscriber.projectChanged({ IResourceDelta delta -> delta.resource == project && (delta.flags & IResourceDelta.DESCRIPTION) != 0 })
+        1 * subscriber.resourcesChanged(project, { List<IResourceDelta> deltas -> deltas*.projectRelativePath == [new Path('build.gradle')] })
+    }
+}
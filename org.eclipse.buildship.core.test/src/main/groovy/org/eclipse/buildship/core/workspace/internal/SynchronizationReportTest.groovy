@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import org.eclipse.buildship.core.CorePlugin
+import org.eclipse.buildship.core.test.fixtures.ProjectSynchronizationSpecification
+
+class SynchronizationReportTest extends ProjectSynchronizationSpecification {
+
+    def "Steps of the same project are accumulated"() {
+        setup:
+        SynchronizationReport.BuildTimings timings = new SynchronizationReport().addBuild(new File('root'))
+        SynchronizationReport.ProjectTimer first = timings.startProject('sample')
+        SynchronizationReport.ProjectTimer second = timings.startProject('sample')
+
+        when:
+        first.lap('SourceFolderUpdater')
+        second.lap('SourceFolderUpdater')
+        second.lap('LibraryFilter')
+
+        then:
+        timings.getProjectSteps('sample').keySet() as List == ['SourceFolderUpdater', 'LibraryFilter']
+    }
+
+    def "Names are escaped in the JSON report"() {
+        setup:
+        SynchronizationReport report = new SynchronizationReport()
+        SynchronizationReport.BuildTimings timings = report.addBuild(new File('root'))
+        timings.startProject('quote"and\\backslash').lap('step')
+
+        expect:
+        report.toJson().contains('"quote\\"and\\\\backslash": {"step": ')
+    }
+
+    def "Model fetches of the same participant are accumulated"() {
+        setup:
+        SynchronizationReport.BuildTimings timings = new SynchronizationReport().addBuild(new File('root'))
+
+        when:
+        timings.recordModelFetch(new File('root'), 10)
+        timings.recordModelFetch(new File('included'), 5)
+        timings.recordModelFetch(new File('root'), 20)
+
+        then:
+        timings.modelFetches == [(new File('root').absolutePath): 30L, (new File('included').absolutePath): 5L]
+    }
+
+    def "Report is written after the synchronization"() {
+        setup:
+        File reportFile = CorePlugin.gradleWorkspaceManager().synchronizationReportFile
+        reportFile.delete()
+        File location = dir('sample-project') {
+            file 'build.gradle', "apply plugin: 'java'"
+            dir 'src/main/java'
+        }
+
+        when:
+        importAndWait(location)
+
+        then:
+        reportFile.isFile()
+        String report = reportFile.text
+        report.contains('"fetchModels"')
+        report.contains('"modelFetches": {"')
+        report.contains('"synchronizeProjects"')
+        report.contains('"sample-project"')
+        report.contains('"SourceFolderUpdater"')
+        report.contains('"updatedProjects": 1')
+    }
+}
@@ -2,8 +2,15 @@ package org.eclipse.buildship.core.workspace.internal
 
 import org.eclipse.core.resources.IProject
 import org.eclipse.core.runtime.NullProgressMonitor
+import org.eclipse.core.runtime.jobs.IJobChangeEvent
+import org.eclipse.core.runtime.jobs.IJobChangeListener
+import org.eclipse.core.runtime.jobs.Job
+import org.eclipse.core.runtime.jobs.JobChangeAdapter
+import org.eclipse.core.runtime.preferences.IEclipsePreferences
+import org.eclipse.core.runtime.preferences.InstanceScope
 import org.eclipse.jdt.core.JavaCore
 
+import org.eclipse.buildship.core.CorePlugin
 import org.eclipse.buildship.core.configuration.BuildConfiguration
 import org.eclipse.buildship.core.configuration.WorkspaceConfiguration
 import org.eclipse.buildship.core.test.fixtures.ProjectSynchronizationSpecification
@@ -11,6 +18,7 @@ import org.eclipse.buildship.core.test.fixtures.ProjectSynchronizationSpecificat
 class SynchronizingBuildScriptUpdateListenerTest extends ProjectSynchronizationSpecification {
 
     WorkspaceConfiguration workspaceConfig
+    IEclipsePreferences preferences = InstanceScope.INSTANCE.getNode(CorePlugin.PLUGIN_ID)
 
     def setup() {
         workspaceConfig = configurationManager.loadWorkspaceConfiguration()
@@ -127,6 +135,147 @@ class SynchronizingBuildScriptUpdateListenerTest extends ProjectSynchronizationS
         JavaCore.create(project).getResolvedClasspath(false).find { it.path.toPortableString().endsWith('spring-beans-1.2.8.jar') }
     }
 
+    def "Changes of multiple build scripts within the quiet period are synchronized once after the last change"() {
+        setup:
+        File projectDir = dir('auto-sync-test-project') {
+            file 'settings.gradle', "include 'sub1', 'sub2'"
+            dir('sub1') {
+                file 'build.gradle', ''
+            }
+            dir('sub2') {
+                file 'build.gradle', ''
+            }
+        }
+        importAndWait(projectDir)
+        IProject sub1 = findProject('sub1')
+        IProject sub2 = findProject('sub2')
+        enableProjectAutoSync(sub1)
+        preferences.putInt('autosync.quietPeriodMillis', 1000)
+
+        List<Long> synchronizationTimes = [].asSynchronized()
+        IJobChangeListener listener = new JobChangeAdapter() {
+            void scheduled(IJobChangeEvent event) {
+                if (event.job instanceof SynchronizeGradleBuildsJob) {
+                    synchronizationTimes << System.currentTimeMillis()
+                }
+            }
+        }
+        Job.jobManager.addJobChangeListener(listener)
+
+        when:
+        setContents(sub1, 'apply plugin: "java"')
+        sleep(200)
+        setContents(sub2, 'apply plugin: "java"')
+        sleep(200)
+        setContents(sub1, 'apply plugin: "java"\nsourceCompatibility = 1.7')
+        long lastChangeTime = System.currentTimeMillis()
+        waitForResourceChangeEvents()
+        waitForGradleJobsToFinish()
+
+        then:
+        synchronizationTimes.size() == 1
+        synchronizationTimes[0] >= lastChangeTime
+        JavaCore.create(sub1).exists()
+        JavaCore.create(sub2).exists()
+
+        cleanup:
+        Job.jobManager.removeJobChangeListener(listener)
+        preferences.remove('autosync.quietPeriodMillis')
+    }
+
+    def "Execute project synchronization when settings.gradle file changes"() {
+        setup:
+        File projectDir = dir('auto-sync-test-project') {
+            file 'settings.gradle', ''
+            dir('sub1') {
+                file 'build.gradle', 'apply plugin: "java"'
+            }
+        }
+        importAndWait(projectDir)
+        IProject project = findProject('auto-sync-test-project')
+        enableProjectAutoSync(project)
+
+        when:
+        project.getFile('settings.gradle').setContents(new ByteArrayInputStream("include 'sub1'".bytes), 0, new NullProgressMonitor())
+        waitForResourceChangeEvents()
+        waitForGradleJobsToFinish()
+
+        then:
+        findProject('sub1')
+    }
+
+    def "Project synchronization is not executed if only the comments of the build script change"() {
+        setup:
+        File projectDir = dir('auto-sync-test-project') {
+            file 'build.gradle', 'apply plugin: "java"'
+        }
+        importAndWait(projectDir)
+        IProject project = findProject('auto-sync-test-project')
+        enableProjectAutoSync(project)
+
+        int scheduledSynchronizations = 0
+        IJobChangeListener listener = new JobChangeAdapter() {
+            void scheduled(IJobChangeEvent event) {
+                if (event.job instanceof SynchronizeGradleBuildsJob) {
+                    scheduledSynchronizations++
+                }
+            }
+        }
+        Job.jobManager.addJobChangeListener(listener)
+
+        when:
+        String buildScript = """// a comment
+            apply  plugin: "java"   /* another comment */
+        """
+        project.getFile('build.gradle').setContents(new ByteArrayInputStream(buildScript.bytes), 0, new NullProgressMonitor())
+        waitForResourceChangeEvents()
+        waitForGradleJobsToFinish()
+
+        then:
+        scheduledSynchronizations == 0
+
+        cleanup:
+        Job.jobManager.removeJobChangeListener(listener)
+    }
+
+    def "Build script changes which don't change the model are synchronized only once"() {
+        setup:
+        File projectDir = dir('auto-sync-test-project') {
+            file 'build.gradle', 'apply plugin: "java"'
+        }
+        importAndWait(projectDir)
+        IProject project = findProject('auto-sync-test-project')
+        enableProjectAutoSync(project)
+
+        int scheduledSynchronizations = 0
+        IJobChangeListener listener = new JobChangeAdapter() {
+            void scheduled(IJobChangeEvent event) {
+                if (event.job instanceof SynchronizeGradleBuildsJob) {
+                    scheduledSynchronizations++
+                }
+            }
+        }
+        Job.jobManager.addJobChangeListener(listener)
+
+        when:
+        String buildScript = """
+            apply plugin: "java"
+            task hello
+        """
+        setContents(project, buildScript)
+        waitForResourceChangeEvents()
+        waitForGradleJobsToFinish()
+        setContents(project, buildScript)
+        waitForResourceChangeEvents()
+        waitForGradleJobsToFinish()
+
+        then:
+        scheduledSynchronizations == 1
+
+        cleanup:
+        Job.jobManager.removeJobChangeListener(listener)
+    }
+
     def "Synchronization can be disabled for the entire workspace"() {
         setup:
         File projectDir = dir('auto-sync-test-project') {
@@ -178,6 +327,10 @@ class SynchronizingBuildScriptUpdateListenerTest extends ProjectSynchronizationS
         !JavaCore.create(project).getResolvedClasspath(false).find { it.path.toPortableString().endsWith('spring-beans-1.2.8.jar') }
     }
 
+    private static void setContents(IProject project, String buildScript) {
+        project.getFile('build.gradle').setContents(new ByteArrayInputStream(buildScript.bytes), 0, new NullProgressMonitor())
+    }
+
     private void disableWorkspaceAutoSync() {
         setWorkspaceAutoSync(false)
     }
@@ -54,6 +54,30 @@ class SynchronizingExistingWorkspaceProject extends SingleProjectSynchronization
         javaProject.getResolvedClasspath(false).find{ it.path.toPortableString().endsWith('spring-beans-1.2.8.jar') }
     }
 
+    def "Only the resources used by the synchronization are refreshed"() {
+        setup:
+        IJavaProject javaProject = newJavaProject('sample-project')
+        def projectDir = dir('sample-project') {
+            file 'build.gradle', 'apply plugin: "java"'
+            dir('src/main/java') {
+                file 'Foo.java', 'class Foo {}'
+            }
+            dir('build/classes') {
+                file 'Foo.class'
+            }
+        }
+
+        when:
+        synchronizeAndWait(projectDir)
+        IProject project = javaProject.project
+
+        then:
+        project.getFile('src/main/java/Foo.java').exists()
+        project.getFolder('build').exists()
+        project.getFolder('build').derived
+        !project.getFolder('build/classes').exists()
+    }
+
     @Override
     protected void prepareProject(String name) {
         newProject(name)
@@ -0,0 +1,94 @@
+package org.eclipse.buildship.core.workspace.internal
+
+import org.eclipse.core.runtime.preferences.IEclipsePreferences
+import org.eclipse.core.runtime.preferences.InstanceScope
+import org.eclipse.jdt.core.IClasspathEntry
+import org.eclipse.jdt.core.IJavaProject
+
+import org.eclipse.buildship.core.CorePlugin
+import org.eclipse.buildship.core.configuration.GradleProjectNature
+import org.eclipse.buildship.core.notification.UserNotification
+import org.eclipse.buildship.core.test.fixtures.ProjectSynchronizationSpecification
+
+class SynchronizingInParallel extends ProjectSynchronizationSpecification {
+
+    IEclipsePreferences preferences = InstanceScope.INSTANCE.getNode(CorePlugin.PLUGIN_ID)
+
+    def setup() {
+        preferences.putInt('sync.parallelism', 4)
+    }
+
+    def cleanup() {
+        preferences.remove('sync.parallelism')
+    }
+
+    def "All projects of a multi-project build are synchronized"() {
+        setup:
+        File rootDir = multiProjectBuild('sample', ['a', 'b', 'c', 'd', 'e'])
+
+        when:
+        importAndWait(rootDir)
+
+        then:
+        ['sample', 'a', 'b', 'c', 'd', 'e'].each { assert GradleProjectNature.isPresentOn(findProject(it)) }
+        ['a', 'b', 'c', 'd', 'e'].each { assert sourceFolders(findJavaProject(it)) == ['src/main/java'] }
+        projectDependencies(findJavaProject('a')) == ['/b']
+        projectDependencies(findJavaProject('b')) == []
+    }
+
+    def "Several builds are synchronized"() {
+        setup:
+        File first = multiProjectBuild('first', ['first-a', 'first-b'])
+        File second = multiProjectBuild('second', ['second-a', 'second-b'])
+
+        when:
+        importAndWait(first)
+        importAndWait(second)
+        synchronizeAndWait(findProject('first'), findProject('second'))
+
+        then:
+        ['first-a', 'first-b', 'second-a', 'second-b'].each { assert sourceFolders(findJavaProject(it)) == ['src/main/java'] }
+        projectDependencies(findJavaProject('first-a')) == ['/first-b']
+        projectDependencies(findJavaProject('second-a')) == ['/second-b']
+    }
+
+    def "Failure of a project synchronization is reported"() {
+        setup:
+        UserNotification notification = Mock(UserNotification)
+        environment.registerService(UserNotification, notification)
+        File rootDir = multiProjectBuild('sample', ['a', 'b', 'c'])
+        new File(rootDir, 'c/build.gradle') << """
+            apply plugin: 'eclipse'
+            eclipse.project.linkedResource name: 'unsupported', type: '3', location: '${testDir.absolutePath.replace('\\', '/')}'
+        """
+
+        when:
+        importAndWait(rootDir)
+
+        then:
+        1 * notification.errorOccurred(*_)
+        ['sample', 'a', 'b', 'c'].each { assert findProject(it) != null }
+    }
+
+    private File multiProjectBuild(String name, List<String> subprojects) {
+        dir(name) {
+            file 'settings.gradle', subprojects.collect { "include '$it'" }.join('\n')
+            file 'build.gradle', ''
+            subprojects.eachWithIndex { String subproject, int index ->
+                String dependency = index == 0 && subprojects.size() > 1 ? "dependencies { compile project(':${subprojects[1]}') }" : ''
+                dir(subproject) {
+                    file 'build.gradle', "apply plugin: 'java'\n$dependency"
+                    dir 'src/main/java'
+                }
+            }
+        }
+    }
+
+    private static List<String> sourceFolders(IJavaProject project) {
+        project.rawClasspath.findAll { it.entryKind == IClasspathEntry.CPE_SOURCE }.collect { it.path.removeFirstSegments(1).toPortableString() }
+    }
+
+    private static List<String> projectDependencies(IJavaProject project) {
+        project.getResolvedClasspath(true).findAll { it.entryKind == IClasspathEntry.CPE_PROJECT }.collect { it.path.toPortableString() }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import org.eclipse.core.resources.IProject
+import org.eclipse.jdt.core.IClasspathEntry
+import org.eclipse.jdt.core.IJavaProject
+import org.eclipse.jdt.core.JavaCore
+
+import org.eclipse.buildship.core.CorePlugin
+import org.eclipse.buildship.core.test.fixtures.ProjectSynchronizationSpecification
+
+class SynchronizingUnchangedProject extends ProjectSynchronizationSpecification {
+
+    def "Fingerprint is stored after the synchronization"() {
+        setup:
+        File location = dir('sample-project') {
+            file 'build.gradle', "apply plugin: 'java'"
+            dir 'src/main/java'
+        }
+
+        when:
+        importAndWait(location)
+        IProject project = findProject('sample-project')
+
+        then:
+        CorePlugin.modelPersistence().loadModel(project).fingerprint.present
+    }
+
+    def "Unchanged project is not modified"() {
+        setup:
+        File location = dir('sample-project') {
+            file 'build.gradle', "apply plugin: 'java'"
+            dir 'src/main/java'
+        }
+        importAndWait(location)
+        IProject project = findProject('sample-project')
+        long projectFileStamp = project.getFile('.project').modificationStamp
+        long classpathFileStamp = project.getFile('.classpath').modificationStamp
+        String fingerprint = CorePlugin.modelPersistence().loadModel(project).fingerprint.get()
+
+        when:
+        synchronizeAndWait(location)
+
+        then:
+        project.getFile('.project').modificationStamp == projectFileStamp
+        project.getFile('.classpath').modificationStamp == classpathFileStamp
+        CorePlugin.modelPersistence().loadModel(project).fingerprint.get() == fingerprint
+    }
+
+    def "Project modified outside of the synchronization is updated even if the Gradle model is unchanged"() {
+        setup:
+        File location = dir('sample-project') {
+            file 'build.gradle', "apply plugin: 'java'"
+            dir 'src/main/java'
+        }
+        importAndWait(location)
+        IJavaProject javaProject = JavaCore.create(findProject('sample-project'))
+
+        when:
+        IClasspathEntry[] entries = javaProject.rawClasspath.findAll { it.entryKind != IClasspathEntry.CPE_SOURCE }
+        javaProject.setRawClasspath(entries, null)
+        synchronizeAndWait(location)
+
+        then:
+        javaProject.rawClasspath.find { it.entryKind == IClasspathEntry.CPE_SOURCE && it.path.lastSegment() == 'java' }
+    }
+}
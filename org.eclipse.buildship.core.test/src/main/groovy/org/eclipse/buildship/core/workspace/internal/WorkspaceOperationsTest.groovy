@@ -16,7 +16,10 @@ import com.gradleware.tooling.toolingmodel.OmniGradleProject
 import com.gradleware.tooling.toolingmodel.util.Maybe
 
 import org.eclipse.core.resources.IProject
+import org.eclipse.core.resources.IProjectDescription
+import org.eclipse.core.resources.IWorkspaceRunnable
 import org.eclipse.core.runtime.NullProgressMonitor
+import org.eclipse.core.runtime.Path
 import org.eclipse.jdt.core.JavaCore
 
 import org.eclipse.buildship.core.CorePlugin
@@ -425,6 +428,56 @@ class WorkspaceOperationsTest extends WorkspaceSpecification {
         thrown(GradlePluginsRuntimeException)
     }
 
+    def "Can find projects by name and by location"() {
+        setup:
+        IProject project = createSampleProject()
+
+        expect:
+        workspaceOperations.findProjectByName('sample-project').get() == project
+        workspaceOperations.findProjectByLocation(project.location.toFile()).get() == project
+        !workspaceOperations.findProjectByName('other-project').present
+        !workspaceOperations.findProjectByLocation(dir('other-project')).present
+    }
+
+    def "Project lookups reflect the workspace changes made in the same workspace operation"() {
+        setup:
+        IProject project = createSampleProject()
+        File location = project.location.toFile()
+        workspaceOperations.findProjectByName('sample-project')
+
+        when:
+        def foundProjects = []
+        workspace.run({ monitor ->
+            project.delete(false, true, null)
+            foundProjects << workspaceOperations.findProjectByName('sample-project').orNull()
+            foundProjects << workspaceOperations.findProjectByLocation(location).orNull()
+            IProject createdProject = newProject('new-project')
+            foundProjects << workspaceOperations.findProjectByName('new-project').orNull()
+            foundProjects << workspaceOperations.findProjectByLocation(createdProject.location.toFile()).orNull()
+        } as IWorkspaceRunnable, null)
+
+        then:
+        foundProjects == [null, null, findProject('new-project'), findProject('new-project')]
+    }
+
+    def "Project lookups reflect a location change without a rename"() {
+        setup:
+        IProject project = createSampleProject()
+        File oldLocation = project.location.toFile()
+        File newLocation = new File(dir('moved'), 'sample-project')
+        workspaceOperations.findProjectByLocation(oldLocation)
+
+        when:
+        IProjectDescription description = project.description
+        description.location = new Path(newLocation.absolutePath)
+        project.move(description, true, null)
+
+        then:
+        workspaceOperations.findProjectByName('sample-project').get() == project
+        workspaceOperations.findProjectByLocation(newLocation).get() == project
+        !workspaceOperations.findProjectByLocation(oldLocation).present
+    }
+
     private IProject createSampleProject() {
         newProject("sample-project")
     }
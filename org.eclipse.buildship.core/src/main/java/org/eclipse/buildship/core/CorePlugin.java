@@ -40,6 +40,7 @@ import org.eclipse.buildship.core.launch.ExternalLaunchConfigurationManager;
 import org.eclipse.buildship.core.launch.GradleLaunchConfigurationManager;
 import org.eclipse.buildship.core.launch.internal.DefaultExternalLaunchConfigurationManager;
 import org.eclipse.buildship.core.launch.internal.DefaultGradleLaunchConfigurationManager;
+import org.eclipse.buildship.core.launch.internal.LaunchConfigurationScopeCache;
 import org.eclipse.buildship.core.notification.UserNotification;
 import org.eclipse.buildship.core.notification.internal.ConsoleUserNotification;
 import org.eclipse.buildship.core.preferences.ModelPersistence;
@@ -48,11 +49,15 @@ import org.eclipse.buildship.core.util.extension.InvocationCustomizerCollector;
 import org.eclipse.buildship.core.util.gradle.PublishedGradleVersionsWrapper;
 import org.eclipse.buildship.core.util.logging.EclipseLogger;
 import org.eclipse.buildship.core.workspace.GradleWorkspaceManager;
+import org.eclipse.buildship.core.workspace.ProjectConnectionPool;
 import org.eclipse.buildship.core.workspace.WorkspaceOperations;
 import org.eclipse.buildship.core.workspace.internal.DefaultGradleWorkspaceManager;
+import org.eclipse.buildship.core.workspace.internal.DefaultProjectConnectionPool;
 import org.eclipse.buildship.core.workspace.internal.DefaultWorkspaceOperations;
 import org.eclipse.buildship.core.workspace.internal.ProjectChangeListener;
+import org.eclipse.buildship.core.workspace.internal.ResourceDeltaDispatcher;
 import org.eclipse.buildship.core.workspace.internal.SynchronizingBuildScriptUpdateListener;
+import org.eclipse.buildship.core.workspace.internal.WorkspaceProjectIndex;
 
 /**
  * The plug-in runtime class for the Gradle integration plugin containing the non-UI elements.
@@ -103,11 +108,16 @@ public final class CorePlugin extends Plugin {
     private ServiceTracker userNotificationServiceTracker;
 
     private DefaultModelPersistence modelPersistence;
+    private ResourceDeltaDispatcher resourceDeltaDispatcher;
     private ProjectChangeListener projectChangeListener;
+    private WorkspaceProjectIndex workspaceProjectIndex;
     private SynchronizingBuildScriptUpdateListener buildScriptUpdateListener;
     private InvocationCustomizer invocationCustomizer;
-    private ConfigurationManager configurationManager;
+    private DefaultConfigurationManager configurationManager;
+    private DefaultGradleWorkspaceManager gradleWorkspaceManager;
     private DefaultExternalLaunchConfigurationManager externalLaunchConfigurationManager;
+    private LaunchConfigurationScopeCache launchConfigurationScopeCache;
+    private DefaultProjectConnectionPool projectConnectionPool;
 
     @Override
     public void start(BundleContext bundleContext) throws Exception {
@@ -153,19 +163,24 @@ public final class CorePlugin extends Plugin {
         this.publishedGradleVersionsService = registerService(context, PublishedGradleVersionsWrapper.class, createPublishedGradleVersions(), preferences);
         this.toolingClientService = registerService(context, ToolingClient.class, createToolingClient(), preferences);
         this.modelRepositoryProviderService = registerService(context, ModelRepositoryProvider.class, createModelRepositoryProvider(), preferences);
+        this.listenerRegistryService = registerService(context, ListenerRegistry.class, createListenerRegistry(), preferences);
+        this.resourceDeltaDispatcher = ResourceDeltaDispatcher.createAndRegister();
+        this.workspaceProjectIndex = WorkspaceProjectIndex.createAndRegister(this.resourceDeltaDispatcher);
         this.workspaceOperationsService = registerService(context, WorkspaceOperations.class, createWorkspaceOperations(), preferences);
         this.gradleWorkspaceManagerService = registerService(context, GradleWorkspaceManager.class, createGradleWorkspaceManager(), preferences);
         this.processStreamsProviderService = registerService(context, ProcessStreamsProvider.class, createProcessStreamsProvider(), preferences);
         this.gradleLaunchConfigurationService = registerService(context, GradleLaunchConfigurationManager.class, createGradleLaunchConfigurationManager(), preferences);
-        this.listenerRegistryService = registerService(context, ListenerRegistry.class, createListenerRegistry(), preferences);
         this.userNotificationService = registerService(context, UserNotification.class, createUserNotification(), preferences);
 
         this.modelPersistence = DefaultModelPersistence.createAndRegister();
-        this.projectChangeListener = ProjectChangeListener.createAndRegister();
-        this.buildScriptUpdateListener = SynchronizingBuildScriptUpdateListener.createAndRegister();
+        // the configuration cache subscribes first to be invalidated before the other subscribers are notified
+        this.configurationManager = DefaultConfigurationManager.createAndRegister(this.resourceDeltaDispatcher);
+        this.projectChangeListener = ProjectChangeListener.createAndRegister(this.resourceDeltaDispatcher);
+        this.buildScriptUpdateListener = SynchronizingBuildScriptUpdateListener.createAndRegister(this.resourceDeltaDispatcher);
         this.invocationCustomizer = new InvocationCustomizerCollector();
-        this.configurationManager = new DefaultConfigurationManager();
         this.externalLaunchConfigurationManager = DefaultExternalLaunchConfigurationManager.createAndRegister();
+        this.launchConfigurationScopeCache = LaunchConfigurationScopeCache.createAndRegister();
+        this.projectConnectionPool = DefaultProjectConnectionPool.create();
     }
 
     private ServiceTracker createServiceTracker(BundleContext context, Class<?> clazz) {
@@ -196,11 +211,12 @@ public final class CorePlugin extends Plugin {
     }
 
     private WorkspaceOperations createWorkspaceOperations() {
-        return new DefaultWorkspaceOperations();
+        return new DefaultWorkspaceOperations(this.workspaceProjectIndex);
     }
 
     private GradleWorkspaceManager createGradleWorkspaceManager() {
-        return new DefaultGradleWorkspaceManager();
+        this.gradleWorkspaceManager = DefaultGradleWorkspaceManager.createAndRegister();
+        return this.gradleWorkspaceManager;
     }
 
     private ProcessStreamsProvider createProcessStreamsProvider() {
@@ -220,16 +236,22 @@ public final class CorePlugin extends Plugin {
     }
 
     private void unregisterServices() {
+        this.projectConnectionPool.close();
+        this.launchConfigurationScopeCache.close();
         this.externalLaunchConfigurationManager.unregister();
         this.buildScriptUpdateListener.close();
         this.projectChangeListener.close();
+        this.configurationManager.close();
         this.modelPersistence.close();
         this.userNotificationService.unregister();
-        this.listenerRegistryService.unregister();
         this.gradleLaunchConfigurationService.unregister();
         this.processStreamsProviderService.unregister();
+        this.gradleWorkspaceManager.close();
         this.gradleWorkspaceManagerService.unregister();
         this.workspaceOperationsService.unregister();
+        this.workspaceProjectIndex.close();
+        this.resourceDeltaDispatcher.close();
+        this.listenerRegistryService.unregister();
         this.modelRepositoryProviderService.unregister();
         this.toolingClientService.unregister();
         this.publishedGradleVersionsService.unregister();
@@ -306,4 +328,12 @@ public final class CorePlugin extends Plugin {
     public static ExternalLaunchConfigurationManager externalLaunchConfigurationManager() {
         return getInstance().externalLaunchConfigurationManager;
     }
+
+    public static ProjectConnectionPool projectConnectionPool() {
+        return getInstance().projectConnectionPool;
+    }
+
+    public static LaunchConfigurationScopeCache launchConfigurationScopeCache() {
+        return getInstance().launchConfigurationScopeCache;
+    }
 }
@@ -20,6 +20,7 @@ import org.gradle.tooling.model.build.GradleEnvironment;
 import org.gradle.tooling.model.build.JavaEnvironment;
 import org.gradle.util.GradleVersion;
 
+import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
@@ -60,6 +61,18 @@ public final class GradleArguments {
         this.jvmArguments = ImmutableList.copyOf(jvmArguments);
     }
 
+    public File getRootDir() {
+        return this.rootDir;
+    }
+
+    public GradleDistribution getGradleDistribution() {
+        return this.gradleDistribution;
+    }
+
+    public File getGradleUserHome() {
+        return this.gradleUserHome;
+    }
+
     public void describe(Writer writer, BuildEnvironment buildEnvironment) {
         try {
             GradleEnvironment gradleEnv = buildEnvironment.getGradle();
@@ -102,6 +115,27 @@ public final class GradleArguments {
         operation.setJvmArguments(this.jvmArguments);
     }
 
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof GradleArguments) {
+            GradleArguments other = (GradleArguments) obj;
+            return Objects.equal(this.rootDir, other.rootDir)
+                    && Objects.equal(this.gradleDistribution, other.gradleDistribution)
+                    && Objects.equal(this.gradleUserHome, other.gradleUserHome)
+                    && Objects.equal(this.javaHome, other.javaHome)
+                    && this.buildScansEnabled == other.buildScansEnabled
+                    && this.offlineMode == other.offlineMode
+                    && Objects.equal(this.arguments, other.arguments)
+                    && Objects.equal(this.jvmArguments, other.jvmArguments);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.rootDir, this.gradleDistribution, this.gradleUserHome, this.javaHome, this.buildScansEnabled, this.offlineMode, this.arguments, this.jvmArguments);
+    }
+
     public static GradleArguments from(File rootDir, GradleDistribution gradleDistribution,
                                        File gradleUserHome, File javaHome,
                                        boolean buildScansEnabled,
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.configuration.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.collect.ImmutableSet;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.PreferenceChangeEvent;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.configuration.WorkspaceConfiguration;
+import org.eclipse.buildship.core.workspace.internal.ResourceDeltaDispatcher;
+
+/**
+ * Caches the configuration values read by the {@link DefaultConfigurationManager}.
+ * <p/>
+ * The cache holds the root directory of the projects, the build configuration properties of the
+ * root projects, and the workspace configuration. The entries of a project are discarded when its
+ * {@code .settings/org.eclipse.buildship.core.prefs} file changes, and all entries are discarded
+ * when a project is added, removed, opened or closed. The workspace configuration is discarded
+ * when the workspace preferences of the plugin change.
+ * <p/>
+ * To avoid storing values read before a concurrent invalidation, the values can only be stored
+ * if no invalidation happened since the {@link #generation()} passed to the put methods.
+ */
+final class ConfigurationCache implements ResourceDeltaDispatcher.Subscriber, IPreferenceChangeListener {
+
+    private static final IPath PREFERENCES_FILE_PATH = new Path(".settings/" + CorePlugin.PLUGIN_ID + ".prefs");
+    private static final Set<IPath> INTERESTING_PATHS = ImmutableSet.of(PREFERENCES_FILE_PATH);
+
+    private final ResourceDeltaDispatcher dispatcher;
+    private final Map<File, File> rootDirs;
+    private final Map<File, DefaultBuildConfigurationProperties> buildConfigurationProperties;
+    private final AtomicLong generation;
+    private volatile WorkspaceConfiguration workspaceConfiguration;
+
+    private ConfigurationCache(ResourceDeltaDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        this.rootDirs = new ConcurrentHashMap<File, File>();
+        this.buildConfigurationProperties = new ConcurrentHashMap<File, DefaultBuildConfigurationProperties>();
+        this.generation = new AtomicLong();
+    }
+
+    long generation() {
+        return this.generation.get();
+    }
+
+    File getRootDir(File projectDir) {
+        return this.rootDirs.get(projectDir);
+    }
+
+    void putRootDir(File projectDir, File rootDir, long generation) {
+        synchronized (this.generation) {
+            if (generation == this.generation.get()) {
+                this.rootDirs.put(projectDir, rootDir);
+            }
+        }
+    }
+
+    DefaultBuildConfigurationProperties getBuildConfigurationProperties(File rootDir) {
+        return this.buildConfigurationProperties.get(rootDir);
+    }
+
+    void putBuildConfigurationProperties(File rootDir, DefaultBuildConfigurationProperties properties, long generation) {
+        synchronized (this.generation) {
+            if (generation == this.generation.get()) {
+                this.buildConfigurationProperties.put(rootDir, properties);
+            }
+        }
+    }
+
+    WorkspaceConfiguration getWorkspaceConfiguration() {
+        return this.workspaceConfiguration;
+    }
+
+    void putWorkspaceConfiguration(WorkspaceConfiguration configuration, long generation) {
+        synchronized (this.generation) {
+            if (generation == this.generation.get()) {
+                this.workspaceConfiguration = configuration;
+            }
+        }
+    }
+
+    /**
+     * Discards the entries of the project located in the given directory.
+     *
+     * @param projectDir the project directory
+     */
+    void invalidate(File projectDir) {
+        synchronized (this.generation) {
+            this.generation.incrementAndGet();
+            for (File dir : new File[] { projectDir, canonicalize(projectDir) }) {
+                this.rootDirs.remove(dir);
+                this.buildConfigurationProperties.remove(dir);
+            }
+        }
+    }
+
+    void invalidateAll() {
+        synchronized (this.generation) {
+            this.generation.incrementAndGet();
+            this.rootDirs.clear();
+            this.buildConfigurationProperties.clear();
+            this.workspaceConfiguration = null;
+        }
+    }
+
+    void invalidateWorkspaceConfiguration() {
+        synchronized (this.generation) {
+            this.generation.incrementAndGet();
+            this.workspaceConfiguration = null;
+        }
+    }
+
+    @Override
+    public void projectChanged(IResourceDelta projectDelta) {
+        invalidateAll();
+    }
+
+    @Override
+    public Set<IPath> getInterestingPaths(IProject project) {
+        return INTERESTING_PATHS;
+    }
+
+    @Override
+    public void resourcesChanged(IProject project, List<IResourceDelta> deltas) {
+        IPath location = project.getLocation();
+        if (location != null) {
+            invalidate(location.toFile());
+        } else {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void preferenceChange(PreferenceChangeEvent event) {
+        invalidateWorkspaceConfiguration();
+    }
+
+    private static File canonicalize(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file;
+        }
+    }
+
+    static ConfigurationCache createAndRegister(ResourceDeltaDispatcher dispatcher) {
+        ConfigurationCache cache = new ConfigurationCache(dispatcher);
+        dispatcher.subscribe(cache);
+        InstanceScope.INSTANCE.getNode(CorePlugin.PLUGIN_ID).addPreferenceChangeListener(cache);
+        return cache;
+    }
+
+    void close() {
+        InstanceScope.INSTANCE.getNode(CorePlugin.PLUGIN_ID).removePreferenceChangeListener(this);
+        this.dispatcher.unsubscribe(this);
+    }
+}
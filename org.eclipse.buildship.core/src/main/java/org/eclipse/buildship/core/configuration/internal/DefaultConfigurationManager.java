@@ -31,23 +31,41 @@ import org.eclipse.buildship.core.configuration.RunConfiguration;
 import org.eclipse.buildship.core.configuration.WorkspaceConfiguration;
 import org.eclipse.buildship.core.launch.GradleRunConfigurationAttributes;
 import org.eclipse.buildship.core.util.file.RelativePathUtils;
+import org.eclipse.buildship.core.workspace.internal.ResourceDeltaDispatcher;
 
 /**
  * Default implementation for {@link ConfigurationManager}.
+ * <p/>
+ * The configurations of the workspace projects are kept in a {@link ConfigurationCache}, so
+ * repeated lookups don't read the preference files. Configurations of locations outside of the
+ * workspace are always read from the disk, as there are no resource deltas to invalidate them.
  */
 public class DefaultConfigurationManager implements ConfigurationManager {
 
     WorkspaceConfigurationPersistence workspaceConfigurationPersistence = new WorkspaceConfigurationPersistence();
     BuildConfigurationPersistence buildConfigurationPersistence = new BuildConfigurationPersistence();
+    private final ConfigurationCache cache;
+
+    private DefaultConfigurationManager(ConfigurationCache cache) {
+        this.cache = Preconditions.checkNotNull(cache);
+    }
 
     @Override
     public WorkspaceConfiguration loadWorkspaceConfiguration() {
-        return this.workspaceConfigurationPersistence.readWorkspaceConfig();
+        WorkspaceConfiguration configuration = this.cache.getWorkspaceConfiguration();
+        if (configuration == null) {
+            long generation = this.cache.generation();
+            configuration = this.workspaceConfigurationPersistence.readWorkspaceConfig();
+            this.cache.putWorkspaceConfiguration(configuration, generation);
+        }
+        return configuration;
     }
 
     @Override
     public void saveWorkspaceConfiguration(WorkspaceConfiguration config) {
         this.workspaceConfigurationPersistence.saveWorkspaceConfiguration(config);
+        this.cache.invalidateWorkspaceConfiguration();
+        CorePlugin.projectConnectionPool().evictAll();
     }
 
     @Override
@@ -67,10 +85,19 @@ public class DefaultConfigurationManager implements ConfigurationManager {
     public BuildConfiguration loadBuildConfiguration(File rootDir) {
         Preconditions.checkNotNull(rootDir);
         Preconditions.checkArgument(rootDir.exists());
+        DefaultBuildConfigurationProperties buildConfigProperties = this.cache.getBuildConfigurationProperties(rootDir);
+        if (buildConfigProperties == null) {
+            buildConfigProperties = readBuildConfigurationProperties(rootDir);
+        }
+        return new DefaultBuildConfiguration(buildConfigProperties, loadWorkspaceConfiguration());
+    }
+
+    private DefaultBuildConfigurationProperties readBuildConfigurationProperties(File rootDir) {
         Optional<IProject> projectCandidate = CorePlugin.workspaceOperations().findProjectByLocation(rootDir);
-        DefaultBuildConfigurationProperties buildConfigProperties;
         if (projectCandidate.isPresent() && projectCandidate.get().isAccessible()) {
             IProject project = projectCandidate.get();
+            long generation = this.cache.generation();
+            DefaultBuildConfigurationProperties buildConfigProperties;
             try {
                 buildConfigProperties = this.buildConfigurationPersistence.readBuildConfiguratonProperties(project);
             } catch (Exception e) {
@@ -80,10 +107,11 @@ public class DefaultConfigurationManager implements ConfigurationManager {
                 // see org.eclipse.jdt.internal.core.JavaProject.readFileEntriesWithException(Map)
                 buildConfigProperties = this.buildConfigurationPersistence.readBuildConfiguratonProperties(project.getLocation().toFile());
             }
+            this.cache.putBuildConfigurationProperties(rootDir, buildConfigProperties, generation);
+            return buildConfigProperties;
         } else {
-            buildConfigProperties = this.buildConfigurationPersistence.readBuildConfiguratonProperties(rootDir);
+            return this.buildConfigurationPersistence.readBuildConfiguratonProperties(rootDir);
         }
-        return new DefaultBuildConfiguration(buildConfigProperties, loadWorkspaceConfiguration());
     }
 
     @Override
@@ -97,6 +125,8 @@ public class DefaultConfigurationManager implements ConfigurationManager {
         } else {
             this.buildConfigurationPersistence.saveBuildConfiguration(rootDir, properties);
         }
+        this.cache.invalidate(rootDir);
+        CorePlugin.projectConnectionPool().evict(rootDir);
     }
 
     @Override
@@ -106,10 +136,19 @@ public class DefaultConfigurationManager implements ConfigurationManager {
 
     @Override
     public ProjectConfiguration loadProjectConfiguration(IProject project) {
-        String pathToRoot = this.buildConfigurationPersistence.readPathToRoot(project.getLocation().toFile());
-        File rootDir = relativePathToProjectRoot(project.getLocation(), pathToRoot);
+        File projectDir = project.getLocation().toFile();
+        File rootDir = this.cache.getRootDir(projectDir);
+        if (rootDir == null) {
+            long generation = this.cache.generation();
+            String pathToRoot = this.buildConfigurationPersistence.readPathToRoot(projectDir);
+            rootDir = relativePathToProjectRoot(project.getLocation(), pathToRoot);
+            // closed projects don't receive resource deltas
+            if (project.isAccessible()) {
+                this.cache.putRootDir(projectDir, rootDir, generation);
+            }
+        }
         BuildConfiguration buildConfig = loadBuildConfiguration(rootDir);
-        return new DefaultProjectConfiguration(project.getLocation().toFile(), buildConfig);
+        return new DefaultProjectConfiguration(projectDir, buildConfig);
     }
 
     @Override
@@ -142,6 +181,7 @@ public class DefaultConfigurationManager implements ConfigurationManager {
         } else {
             this.buildConfigurationPersistence.savePathToRoot(projectDir, pathToRoot);
         }
+        this.cache.invalidate(projectDir);
         saveBuildConfiguration(buildConfiguration);
     }
 
@@ -152,6 +192,7 @@ public class DefaultConfigurationManager implements ConfigurationManager {
         } else {
             this.buildConfigurationPersistence.deletePathToRoot(project.getLocation().toFile());
         }
+        this.cache.invalidate(project.getLocation().toFile());
     }
 
     @Override
@@ -221,6 +262,14 @@ public class DefaultConfigurationManager implements ConfigurationManager {
         return new DefaultRunConfiguration(projectConfiguration, runConfig);
     }
 
+    public void close() {
+        this.cache.close();
+    }
+
+    public static DefaultConfigurationManager createAndRegister(ResourceDeltaDispatcher dispatcher) {
+        return new DefaultConfigurationManager(ConfigurationCache.createAndRegister(dispatcher));
+    }
+
     private static File relativePathToProjectRoot(IPath projectPath, String path) {
         IPath pathToRoot = new Path(path);
         IPath absolutePathToRoot = pathToRoot.isAbsolute() ? pathToRoot : RelativePathUtils.getAbsolutePath(projectPath, pathToRoot);
@@ -70,7 +70,8 @@ final class GradleProjectValidationResourceDeltaVisitor implements IResourceDelt
             }
         }
 
-        return true;
+        // only descend into the folders leading to the preferences file, as nothing else is validated
+        return delta.getProjectRelativePath().isPrefixOf(preferencesFileProjectRelativePath);
     }
 
     /**
@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.event;
+
+/**
+ * Defines on which thread the events are delivered to an {@link EventListener}.
+ */
+public enum EventDelivery {
+
+    /**
+     * The events are delivered on the thread calling {@link ListenerRegistry#dispatch(Event)},
+     * before the dispatch returns. Exceptions thrown by the listener are propagated to the caller.
+     */
+    SYNCHRONOUS,
+
+    /**
+     * The events are delivered on a dedicated thread shared by all asynchronous listeners, in the
+     * order they were dispatched. Exceptions thrown by the listener are logged.
+     */
+    ASYNCHRONOUS
+}
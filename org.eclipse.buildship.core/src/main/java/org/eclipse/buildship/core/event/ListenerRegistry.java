@@ -11,20 +11,33 @@
 
 package org.eclipse.buildship.core.event;
 
+import java.util.Set;
+
 /**
  * Dispatches {@link Event} instances to all registered {@link EventListener} instances.
  */
 public interface ListenerRegistry {
 
     /**
-     * Registers the given event listener.
+     * Registers the given event listener for all events. The events are delivered synchronously.
      *
      * @param listener the listener to register
      */
     void addEventListener(EventListener listener);
 
     /**
-     * Unregisters the given event listener.
+     * Registers the given event listener for the given event types. The listener only receives the
+     * events which are instances of at least one of the types.
+     *
+     * @param listener the listener to register
+     * @param eventTypes the types of the events to deliver to the listener, must not be empty
+     * @param delivery defines on which thread the events are delivered
+     */
+    void addEventListener(EventListener listener, Set<Class<? extends Event>> eventTypes, EventDelivery delivery);
+
+    /**
+     * Unregisters the given event listener. Asynchronous events which are not yet delivered to the
+     * listener are discarded.
      *
      * @param listener the listener to unregister
      */
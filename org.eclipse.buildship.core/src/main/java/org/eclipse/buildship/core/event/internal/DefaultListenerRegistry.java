@@ -11,47 +11,168 @@
 
 package org.eclipse.buildship.core.event.internal;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.event.Event;
+import org.eclipse.buildship.core.event.EventDelivery;
 import org.eclipse.buildship.core.event.EventListener;
 import org.eclipse.buildship.core.event.ListenerRegistry;
 
-import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Set;
-
 /**
  * Default implementation of {@link ListenerRegistry}.
+ * <p/>
+ * The registrations are kept in an immutable snapshot which is only replaced when a listener is
+ * added or removed, so dispatching an event doesn't need to lock or copy anything. Each snapshot
+ * indexes the matching registrations by the concrete event class the first time such an event is
+ * dispatched. The asynchronous events are delivered by a single daemon thread, which is stopped
+ * while no events are pending.
  */
 public final class DefaultListenerRegistry implements ListenerRegistry {
 
     private final Object LOCK = new Object();
-    private final Set<EventListener> listeners = new LinkedHashSet<EventListener>();
+    private final Map<EventListener, Registration> registrations = Maps.newLinkedHashMap();
+    private final ExecutorService asyncExecutor;
+    private volatile Snapshot snapshot = new Snapshot(ImmutableList.<Registration>of());
+
+    public DefaultListenerRegistry() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactoryBuilder().setNameFormat("Buildship event delivery").setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        this.asyncExecutor = executor;
+    }
 
     @Override
     public void addEventListener(EventListener listener) {
+        register(new Registration(listener, ImmutableSet.<Class<? extends Event>>of(Event.class), EventDelivery.SYNCHRONOUS));
+    }
+
+    @Override
+    public void addEventListener(EventListener listener, Set<Class<? extends Event>> eventTypes, EventDelivery delivery) {
+        Preconditions.checkArgument(!eventTypes.isEmpty(), "At least one event type must be specified.");
+        register(new Registration(listener, ImmutableSet.copyOf(eventTypes), delivery));
+    }
+
+    private void register(Registration registration) {
         synchronized (this.LOCK) {
-            this.listeners.add(listener);
+            Registration previous = this.registrations.put(registration.listener, registration);
+            if (previous != null) {
+                previous.active = false;
+            }
+            updateSnapshot();
         }
     }
 
     @Override
     public void removeEventListener(EventListener listener) {
         synchronized (this.LOCK) {
-            this.listeners.remove(listener);
+            Registration registration = this.registrations.remove(listener);
+            if (registration != null) {
+                registration.active = false;
+                updateSnapshot();
+            }
         }
     }
 
+    private void updateSnapshot() {
+        this.snapshot = new Snapshot(ImmutableList.copyOf(this.registrations.values()));
+    }
+
     @Override
-    public void dispatch(Event event) {
-        List<EventListener> listeners;
-        synchronized (this.LOCK) {
-            listeners = ImmutableList.copyOf(this.listeners);
+    public void dispatch(final Event event) {
+        for (final Registration registration : this.snapshot.getRegistrations(event.getClass())) {
+            if (registration.delivery == EventDelivery.SYNCHRONOUS) {
+                registration.listener.onEvent(event);
+            } else {
+                this.asyncExecutor.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        deliverAsynchronously(registration, event);
+                    }
+                });
+            }
         }
-        for (EventListener listener : listeners) {
-            listener.onEvent(event);
+    }
+
+    private static void deliverAsynchronously(Registration registration, Event event) {
+        // the listener could have been removed since the event was dispatched
+        if (!registration.active) {
+            return;
+        }
+        try {
+            registration.listener.onEvent(event);
+        } catch (RuntimeException e) {
+            CorePlugin.logger().error(String.format("Failed to deliver %s to %s", event.getClass().getSimpleName(), registration.listener), e);
+        }
+    }
+
+    /**
+     * A registered listener, with the event types it's interested in.
+     */
+    private static final class Registration {
+
+        private final EventListener listener;
+        private final ImmutableSet<Class<? extends Event>> eventTypes;
+        private final EventDelivery delivery;
+        private volatile boolean active;
+
+        private Registration(EventListener listener, ImmutableSet<Class<? extends Event>> eventTypes, EventDelivery delivery) {
+            this.listener = Preconditions.checkNotNull(listener);
+            this.eventTypes = eventTypes;
+            this.delivery = Preconditions.checkNotNull(delivery);
+            this.active = true;
+        }
+
+        private boolean accepts(Class<?> eventClass) {
+            for (Class<? extends Event> eventType : this.eventTypes) {
+                if (eventType.isAssignableFrom(eventClass)) {
+                    return true;
+                }
+            }
+            return false;
         }
     }
 
+    /**
+     * The registrations at a given point in time, indexed lazily by the dispatched event classes.
+     */
+    private static final class Snapshot {
+
+        private final ImmutableList<Registration> registrations;
+        private final ConcurrentMap<Class<?>, List<Registration>> registrationsByEventClass;
+
+        private Snapshot(ImmutableList<Registration> registrations) {
+            this.registrations = registrations;
+            this.registrationsByEventClass = Maps.newConcurrentMap();
+        }
+
+        private List<Registration> getRegistrations(Class<?> eventClass) {
+            List<Registration> result = this.registrationsByEventClass.get(eventClass);
+            if (result == null) {
+                ImmutableList.Builder<Registration> matching = ImmutableList.builder();
+                for (Registration registration : this.registrations) {
+                    if (registration.accepts(eventClass)) {
+                        matching.add(registration);
+                    }
+                }
+                result = matching.build();
+                this.registrationsByEventClass.put(eventClass, result);
+            }
+            return result;
+        }
+    }
 }
@@ -62,7 +62,8 @@ public abstract class BaseLaunchRequestJob<T extends LongRunningOperation> exten
         ProcessStreams processStreams = CorePlugin.processStreamsProvider().createProcessStreams(processDescription);
 
         RunConfiguration runConfig = getRunConfig();
-        List<ProgressListener> listeners = ImmutableList.<ProgressListener>of(DelegatingProgressListener.withFullOutput(monitor));
+        DelegatingProgressListener progressListener = DelegatingProgressListener.withFullOutput(monitor);
+        List<ProgressListener> listeners = ImmutableList.<ProgressListener>of(progressListener);
         TransientRequestAttributes transientAttributes = new TransientRequestAttributes(false, processStreams.getOutput(), processStreams.getError(), processStreams.getInput(),
                 listeners, Collections.<org.gradle.tooling.events.ProgressListener>emptyList(), getToken());
 
@@ -79,7 +80,13 @@ public abstract class BaseLaunchRequestJob<T extends LongRunningOperation> exten
         Event event = new DefaultExecuteLaunchRequestEvent(processDescription, launcher);
         CorePlugin.listenerRegistry().dispatch(event);
 
-        executeLaunch(launcher);
+        try {
+            executeLaunch(launcher);
+        } finally {
+            progressListener.finish();
+            CorePlugin.logger().debug(String.format("Received %d progress events (%.1f per second) while executing %s",
+                    progressListener.getEventCount(), progressListener.getEventRate(), processDescription.getName()));
+        }
     }
 
     /**
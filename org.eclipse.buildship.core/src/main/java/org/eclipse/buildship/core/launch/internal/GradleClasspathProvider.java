@@ -87,14 +87,18 @@ public final class GradleClasspathProvider extends StandardClasspathProvider imp
 
     @Override
     public IRuntimeClasspathEntry[] resolveClasspath(IRuntimeClasspathEntry[] entries, ILaunchConfiguration configuration) throws CoreException {
+        return resolveClasspath(entries, configuration, LaunchConfigurationScope.from(configuration));
+    }
+
+    private IRuntimeClasspathEntry[] resolveClasspath(IRuntimeClasspathEntry[] entries, ILaunchConfiguration configuration, LaunchConfigurationScope configurationScopes) throws CoreException {
         Set<IRuntimeClasspathEntry> result = new LinkedHashSet<>(entries.length);
         for (IRuntimeClasspathEntry entry : entries) {
             switch (entry.getType()) {
                 case IRuntimeClasspathEntry.OTHER:
-                    Collections.addAll(result, resolveOther(entry, configuration));
+                    Collections.addAll(result, resolveOther(entry, configuration, configurationScopes));
                     break;
                 case IRuntimeClasspathEntry.PROJECT:
-                    Collections.addAll(result, resolveProject(entry, configuration));
+                    Collections.addAll(result, resolveProject(entry, configurationScopes));
                     break;
                 default:
                     Collections.addAll(result, JavaRuntime.resolveRuntimeClasspathEntry(entry, configuration));
@@ -105,7 +109,7 @@ public final class GradleClasspathProvider extends StandardClasspathProvider imp
         return result.toArray(new IRuntimeClasspathEntry[result.size()]);
     }
 
-    private IRuntimeClasspathEntry[] resolveOther(IRuntimeClasspathEntry entry, ILaunchConfiguration configuration) throws CoreException {
+    private IRuntimeClasspathEntry[] resolveOther(IRuntimeClasspathEntry entry, ILaunchConfiguration configuration, LaunchConfigurationScope configurationScopes) throws CoreException {
         // The project dependency entries are represented with nonstandard IRuntimeClasspathEntry
         // and resolved by DefaultEntryResolver. The code below is a copy-paste of the
         // DefaultEntryResolver except that the inner resolveRuntimeClasspathEntry() method call is
@@ -114,7 +118,7 @@ public final class GradleClasspathProvider extends StandardClasspathProvider imp
         if (entry instanceof DefaultProjectClasspathEntry) {
             List<IRuntimeClasspathEntry> result = new ArrayList<IRuntimeClasspathEntry>();
             for (IRuntimeClasspathEntry e : ((IRuntimeClasspathEntry2) entry).getRuntimeClasspathEntries(configuration)) {
-                Collections.addAll(result, resolveClasspath(new IRuntimeClasspathEntry[] { e }, configuration));
+                Collections.addAll(result, resolveClasspath(new IRuntimeClasspathEntry[] { e }, configuration, configurationScopes));
             }
             return result.toArray(new IRuntimeClasspathEntry[result.size()]);
         } else {
@@ -122,16 +126,16 @@ public final class GradleClasspathProvider extends StandardClasspathProvider imp
         }
     }
 
-    private IRuntimeClasspathEntry[] resolveProject(IRuntimeClasspathEntry entry, ILaunchConfiguration configuration) throws CoreException {
+    private IRuntimeClasspathEntry[] resolveProject(IRuntimeClasspathEntry entry, LaunchConfigurationScope configurationScopes) throws CoreException {
         IResource resource = entry.getResource();
         if (resource instanceof IProject) {
-            return resolveProject(entry, (IProject) resource, configuration);
+            return resolveProject(entry, (IProject) resource, configurationScopes);
         } else {
             return resolveOptional(entry);
         }
     }
 
-    private IRuntimeClasspathEntry[] resolveProject(IRuntimeClasspathEntry projectEntry, IProject project, ILaunchConfiguration configuration) throws CoreException {
+    private IRuntimeClasspathEntry[] resolveProject(IRuntimeClasspathEntry projectEntry, IProject project, LaunchConfigurationScope configurationScopes) throws CoreException {
         if (!project.isOpen()) {
             return EMPTY_RESULT;
         }
@@ -141,7 +145,6 @@ public final class GradleClasspathProvider extends StandardClasspathProvider imp
             return EMPTY_RESULT;
         }
 
-        LaunchConfigurationScope configurationScopes = LaunchConfigurationScope.from(configuration);
         return resolveOutputLocations(projectEntry, javaProject, configurationScopes);
     }
 
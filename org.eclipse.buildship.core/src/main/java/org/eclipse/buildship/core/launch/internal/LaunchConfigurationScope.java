@@ -8,9 +8,12 @@
 
 package org.eclipse.buildship.core.launch.internal;
 
+import java.util.BitSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
-import com.google.common.collect.Sets;
+import com.google.common.collect.Maps;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.debug.core.ILaunchConfiguration;
@@ -22,6 +25,11 @@ import org.eclipse.buildship.core.CorePlugin;
 
 /**
  * Represents the scope associated with the current launch configuration.
+ * <p/>
+ * Calculating the scope can be expensive, as it has to find the source folders of the launched
+ * types. During a launch, the scope is requested by the classpath provider and the container
+ * resolver for every project and container on the classpath, so it is calculated once per launch
+ * and memoized by the {@link LaunchConfigurationScopeCache}.
  *
  * @author Donat Csikos
  */
@@ -32,6 +40,9 @@ public abstract class LaunchConfigurationScope {
      */
     public static final LaunchConfigurationScope INCLUDE_ALL = new IncludeAllLaunchConfigurationScope();
 
+    private static final String SCOPE_ATTRIBUTE = "gradle_scope";
+    private static final String USED_BY_SCOPE_ATTRIBUTE = "gradle_used_by_scope";
+
     /**
      * Returns {@code true} if the classpath entry is part of this scope.
      *
@@ -45,20 +56,26 @@ public abstract class LaunchConfigurationScope {
     /**
      * Creates a launch configuration scope from the target launch configuration. If the scope
      * information cannot be calculated then the result scope doesn't filter any entries.
+     * <p/>
+     * While the configuration instance is being launched, the scope is only calculated once.
      *
      * @param configuration the target launch configuration
      * @return the created scope
      */
     public static LaunchConfigurationScope from(ILaunchConfiguration configuration) {
-        Set<String> result = Sets.newHashSet();
+        return CorePlugin.launchConfigurationScopeCache().get(configuration);
+    }
+
+    static LaunchConfigurationScope calculate(ILaunchConfiguration configuration) {
+        ScopeMask result = ScopeMask.EMPTY;
         try {
             Set<IPackageFragmentRoot> soureFolders = SupportedLaunchConfigType.collectSourceFolders(configuration);
             for (IPackageFragmentRoot sourceFolder : soureFolders) {
-                Set<String> scope = scopesFor(sourceFolder.getRawClasspathEntry());
+                ScopeMask scope = ScopeMask.of(sourceFolder.getRawClasspathEntry(), SCOPE_ATTRIBUTE);
                 if (scope == null) {
                     return INCLUDE_ALL;
                 }
-                result.addAll(scope);
+                result = result.union(scope);
             }
             return new FilteringLaunchConfigurationScope(result);
         } catch (CoreException e) {
@@ -67,24 +84,6 @@ public abstract class LaunchConfigurationScope {
         }
     }
 
-    private static Set<String> scopesFor(IClasspathEntry entry) {
-        for (IClasspathAttribute attribute : entry.getExtraAttributes()) {
-            if (attribute.getName().equals("gradle_scope")) {
-                return Sets.newHashSet(attribute.getValue().split(","));
-            }
-        }
-        return null;
-    }
-
-    private static Set<String> usedByScopesFor(IClasspathEntry entry) {
-        for (IClasspathAttribute attribute : entry.getExtraAttributes()) {
-            if (attribute.getName().equals("gradle_used_by_scope")) {
-                return Sets.newHashSet(attribute.getValue().split(","));
-            }
-        }
-        return null;
-    }
-
     /**
      * Doesn't filter any entries.
      */
@@ -101,24 +100,93 @@ public abstract class LaunchConfigurationScope {
      */
     private static final class FilteringLaunchConfigurationScope extends LaunchConfigurationScope {
 
-        private final Set<String> scopes;
+        private final ScopeMask scopes;
 
-        public FilteringLaunchConfigurationScope(Set<String> scopes) {
+        public FilteringLaunchConfigurationScope(ScopeMask scopes) {
             this.scopes = scopes;
         }
 
         @Override
         public boolean isEntryIncluded(IClasspathEntry entry) {
-            if (this.scopes == null || this.scopes.isEmpty()) {
+            if (this.scopes.isEmpty()) {
                 return true;
             }
 
-            Set<String> entryUsedByScopes = usedByScopesFor(entry);
+            ScopeMask entryUsedByScopes = ScopeMask.of(entry, USED_BY_SCOPE_ATTRIBUTE);
             if (entryUsedByScopes == null || entryUsedByScopes.isEmpty()) {
                 return true;
             }
 
-            return !Sets.intersection(this.scopes, entryUsedByScopes).isEmpty();
+            return this.scopes.intersects(entryUsedByScopes);
+        }
+    }
+
+    /**
+     * A set of scope names stored as a bit set. Each scope name is assigned a bit index the first
+     * time it's seen, and the masks are cached by the comma-separated attribute values they are
+     * parsed from, so the same attribute value is only split once.
+     */
+    private static final class ScopeMask {
+
+        private static final ScopeMask EMPTY = new ScopeMask(new BitSet());
+        private static final Map<String, Integer> SCOPE_INDICES = Maps.newHashMap();
+        private static final ConcurrentMap<String, ScopeMask> PARSED_MASKS = Maps.newConcurrentMap();
+
+        private final BitSet bits;
+
+        private ScopeMask(BitSet bits) {
+            this.bits = bits;
+        }
+
+        private boolean isEmpty() {
+            return this.bits.isEmpty();
+        }
+
+        private boolean intersects(ScopeMask other) {
+            return this.bits.intersects(other.bits);
+        }
+
+        private ScopeMask union(ScopeMask other) {
+            BitSet bits = (BitSet) this.bits.clone();
+            bits.or(other.bits);
+            return new ScopeMask(bits);
+        }
+
+        /*
+         * Returns the scopes listed in the given attribute of the entry, or null if the entry
+         * doesn't have such an attribute.
+         */
+        private static ScopeMask of(IClasspathEntry entry, String attributeName) {
+            for (IClasspathAttribute attribute : entry.getExtraAttributes()) {
+                if (attribute.getName().equals(attributeName)) {
+                    return parse(attribute.getValue());
+                }
+            }
+            return null;
+        }
+
+        private static ScopeMask parse(String attributeValue) {
+            ScopeMask mask = PARSED_MASKS.get(attributeValue);
+            if (mask == null) {
+                BitSet bits = new BitSet();
+                for (String scope : attributeValue.split(",")) {
+                    bits.set(indexOf(scope));
+                }
+                mask = new ScopeMask(bits);
+                PARSED_MASKS.putIfAbsent(attributeValue, mask);
+            }
+            return mask;
+        }
+
+        private static int indexOf(String scope) {
+            synchronized (SCOPE_INDICES) {
+                Integer index = SCOPE_INDICES.get(scope);
+                if (index == null) {
+                    index = SCOPE_INDICES.size();
+                    SCOPE_INDICES.put(scope, index);
+                }
+                return index;
+            }
         }
     }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.launch.internal;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchesListener2;
+
+/**
+ * Memoizes the {@link LaunchConfigurationScope} of the launch configurations which are being
+ * launched.
+ * <p/>
+ * The launches are registered before the launch delegate computes the classpath, so the scope of
+ * a launch is calculated once and reused by all classpath computations until the launch is
+ * terminated or removed. The scopes are keyed by the launch configuration instance, outside of a
+ * launch they are always calculated.
+ */
+public final class LaunchConfigurationScopeCache implements ILaunchesListener2 {
+
+    private final Map<ILaunchConfiguration, LaunchedConfiguration> launchedConfigurations;
+
+    private LaunchConfigurationScopeCache() {
+        this.launchedConfigurations = new IdentityHashMap<ILaunchConfiguration, LaunchedConfiguration>();
+    }
+
+    /**
+     * Returns the scope of the given launch configuration. If the configuration is being launched
+     * then the scope is only calculated once for the launch.
+     *
+     * @param configuration the target launch configuration
+     * @return the scope of the configuration
+     */
+    LaunchConfigurationScope get(ILaunchConfiguration configuration) {
+        LaunchedConfiguration launchedConfiguration;
+        synchronized (this) {
+            launchedConfiguration = this.launchedConfigurations.get(configuration);
+            if (launchedConfiguration == null) {
+                return LaunchConfigurationScope.calculate(configuration);
+            } else if (launchedConfiguration.scope != null) {
+                return launchedConfiguration.scope;
+            }
+        }
+
+        // the calculation queries the Java model, hence it's done outside of the synchronized blocks
+        LaunchConfigurationScope scope = LaunchConfigurationScope.calculate(configuration);
+        synchronized (this) {
+            if (launchedConfiguration.scope == null) {
+                launchedConfiguration.scope = scope;
+            }
+            return launchedConfiguration.scope;
+        }
+    }
+
+    @Override
+    public synchronized void launchesAdded(ILaunch[] launches) {
+        for (ILaunch launch : launches) {
+            ILaunchConfiguration configuration = launch.getLaunchConfiguration();
+            if (configuration != null) {
+                LaunchedConfiguration launchedConfiguration = this.launchedConfigurations.get(configuration);
+                if (launchedConfiguration == null) {
+                    launchedConfiguration = new LaunchedConfiguration();
+                    this.launchedConfigurations.put(configuration, launchedConfiguration);
+                }
+                launchedConfiguration.launches.add(launch);
+            }
+        }
+    }
+
+    @Override
+    public void launchesChanged(ILaunch[] launches) {
+    }
+
+    @Override
+    public void launchesTerminated(ILaunch[] launches) {
+        removeLaunches(launches);
+    }
+
+    @Override
+    public void launchesRemoved(ILaunch[] launches) {
+        removeLaunches(launches);
+    }
+
+    private synchronized void removeLaunches(ILaunch[] launches) {
+        for (ILaunch launch : launches) {
+            ILaunchConfiguration configuration = launch.getLaunchConfiguration();
+            LaunchedConfiguration launchedConfiguration = this.launchedConfigurations.get(configuration);
+            if (launchedConfiguration != null) {
+                launchedConfiguration.launches.remove(launch);
+                if (launchedConfiguration.launches.isEmpty()) {
+                    this.launchedConfigurations.remove(configuration);
+                }
+            }
+        }
+    }
+
+    public static LaunchConfigurationScopeCache createAndRegister() {
+        LaunchConfigurationScopeCache cache = new LaunchConfigurationScopeCache();
+        DebugPlugin.getDefault().getLaunchManager().addLaunchListener(cache);
+        return cache;
+    }
+
+    public void close() {
+        DebugPlugin.getDefault().getLaunchManager().removeLaunchListener(this);
+        synchronized (this) {
+            this.launchedConfigurations.clear();
+        }
+    }
+
+    /**
+     * The running launches of a launch configuration along with its memoized scope.
+     */
+    private static final class LaunchedConfiguration {
+
+        private final Set<ILaunch> launches = Sets.newHashSet();
+        private LaunchConfigurationScope scope;
+    }
+}
@@ -8,6 +8,8 @@
 
 package org.eclipse.buildship.core.preferences;
 
+import java.util.Collection;
+
 import org.eclipse.core.resources.IProject;
 
 /**
@@ -30,6 +32,14 @@ public interface ModelPersistence {
      */
     PersistentModel loadModel(IProject project);
 
+    /**
+     * Hints that the models of the given projects will be requested soon. If the models are still
+     * being loaded after startup, then these projects are loaded before the other ones.
+     *
+     * @param projects the projects to load first
+     */
+    void prefetchModels(Collection<IProject> projects);
+
     /**
      * Saves the project model.
      *
@@ -10,6 +10,9 @@ package org.eclipse.buildship.core.preferences;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Optional;
 
 import org.eclipse.core.resources.ICommand;
 import org.eclipse.core.resources.IProject;
@@ -41,4 +44,21 @@ public interface PersistentModel {
     List<String> getManagedNatures();
 
     List<ICommand> getManagedBuilders();
+
+    /**
+     * Returns the fingerprint of the Gradle model and the workspace project state recorded by the
+     * last full synchronization of the project.
+     *
+     * @return the fingerprint or {@link Optional#absent()} if the project has to be fully synchronized
+     */
+    Optional<String> getFingerprint();
+
+    /**
+     * Returns the content hashes of the files defining the Gradle build of the project, like the
+     * build script or the settings file, mapped by their project-relative paths. Missing files
+     * have no entries.
+     *
+     * @return the hashes or {@link Optional#absent()} if they weren't recorded
+     */
+    Optional<Map<IPath, String>> getBuildInputHashes();
 }
@@ -10,7 +10,9 @@ package org.eclipse.buildship.core.preferences.internal;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 
 import org.eclipse.core.resources.ICommand;
@@ -82,4 +84,14 @@ public final class AbsentPersistentModel implements PersistentModel {
     public List<ICommand> getManagedBuilders() {
         throw new IllegalStateException("Absent persistent model");
     }
+
+    @Override
+    public Optional<String> getFingerprint() {
+        throw new IllegalStateException("Absent persistent model");
+    }
+
+    @Override
+    public Optional<Map<IPath, String>> getBuildInputHashes() {
+        throw new IllegalStateException("Absent persistent model");
+    }
 }
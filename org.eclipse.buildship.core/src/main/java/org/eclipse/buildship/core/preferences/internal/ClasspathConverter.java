@@ -39,7 +39,7 @@ import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.buildship.core.CorePlugin;
 
 /**
- * Transforms classpath entries to XML format and vica versa.
+ * Reads classpath entries from the XML format used by earlier Buildship versions.
  */
 final class ClasspathConverter {
 
@@ -49,17 +49,6 @@ final class ClasspathConverter {
         this.javaProject = Preconditions.checkNotNull(javaProject);
     }
 
-    public String toXml(List<IClasspathEntry> classpath) {
-        StringBuilder content = new StringBuilder();
-        content.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-        content.append("<classpath>\n");
-        for (IClasspathEntry entry : classpath) {
-            content.append(this.javaProject.encodeClasspathEntry(entry));
-        }
-        content.append("</classpath>\n");
-        return content.toString();
-    }
-
     public List<IClasspathEntry> toEntries(String classpath) {
         try {
             Element classpathNode = readClasspathNode(classpath);
@@ -106,10 +95,6 @@ final class ClasspathConverter {
         return writer.toString();
     }
 
-    static String toXml(IJavaProject javaProject, List<IClasspathEntry> classpath) {
-        return new ClasspathConverter(javaProject).toXml(classpath);
-    }
-
     static List<IClasspathEntry> toEntries(IJavaProject javaProject, String classpath) {
         return new ClasspathConverter(javaProject).toEntries(classpath);
     }
@@ -8,19 +8,23 @@
 
 package org.eclipse.buildship.core.preferences.internal;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
 import java.io.Reader;
-import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Properties;
-import java.util.concurrent.ExecutionException;
+import java.util.Set;
 
 import org.gradle.internal.UncheckedException;
 
@@ -28,6 +32,10 @@ import com.google.common.base.Charsets;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.io.Files;
 
 import org.eclipse.core.resources.IProject;
@@ -37,25 +45,48 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.buildship.core.CorePlugin;
-import org.eclipse.buildship.core.configuration.GradleProjectNature;
 import org.eclipse.buildship.core.event.Event;
+import org.eclipse.buildship.core.event.EventDelivery;
 import org.eclipse.buildship.core.event.EventListener;
 import org.eclipse.buildship.core.preferences.ModelPersistence;
 import org.eclipse.buildship.core.preferences.PersistentModel;
+import org.eclipse.buildship.core.util.preference.AdvancedPreferences;
 import org.eclipse.buildship.core.workspace.ProjectDeletedEvent;
 import org.eclipse.buildship.core.workspace.ProjectMovedEvent;
 import org.eclipse.buildship.core.workspace.WorkbenchShutdownEvent;
 
 /**
  * Default implementation for {@link MutablePersistentModel}.
+ * <p/>
+ * The models are stored in the binary format defined by {@link PersistentModelSerializer}. Models
+ * stored in the properties format of earlier versions are still loaded, and they are migrated to
+ * the binary format the next time the models are persisted.
+ * <p/>
+ * Saved models are written to the disk asynchronously. A saved model that differs from the
+ * previous one is marked as dirty, and the dirty models are written in a batch by a background job
+ * scheduled with a fixed delay after the first modification. Saving more models in the meantime
+ * doesn't postpone the write. When the workbench shuts down, only the pending models are written.
  *
  * @author Donat Csikos
  */
 public final class DefaultModelPersistence implements ModelPersistence, EventListener {
 
     private final LoadingCache<IProject, PersistentModel> modelCache;
+    private final Set<IProject> dirtyProjects;
+    private final PersistDirtyModelsJob persistJob;
+    private final long persistDelay;
+    private final ModelPrefetcher prefetcher;
 
-    private DefaultModelPersistence() {
+    // guards the dirty projects and the scheduled flag, it is never held during disk I/O
+    private final Object lock = new Object();
+    // guards the model files, it is acquired before the lock above when both are needed
+    private final Object fileLock = new Object();
+    private boolean persistJobScheduled;
+
+    private DefaultModelPersistence(long persistDelay) {
+        this.dirtyProjects = Sets.newLinkedHashSet();
+        this.persistJob = new PersistDirtyModelsJob();
+        this.persistDelay = persistDelay;
         this.modelCache = CacheBuilder.newBuilder().build(new CacheLoader<IProject, PersistentModel>() {
 
             @Override
@@ -63,6 +94,7 @@ public final class DefaultModelPersistence implements ModelPersistence, EventLis
                 return doLoadModel(project);
             }
         });
+        this.prefetcher = new ModelPrefetcher(this.modelCache, AdvancedPreferences.getModelPrefetchParallelism());
     }
 
     @Override
@@ -70,15 +102,30 @@ public final class DefaultModelPersistence implements ModelPersistence, EventLis
         return this.modelCache.getUnchecked(project);
     }
 
+    @Override
+    public void prefetchModels(Collection<IProject> projects) {
+        this.prefetcher.prioritize(projects);
+    }
+
     @Override
     public void saveModel(PersistentModel model) {
-        this.modelCache.put(model.getProject(), model);
+        IProject project = model.getProject();
+        PersistentModel previous = this.modelCache.asMap().put(project, model);
+        if (model != previous && !model.equals(previous)) {
+            markDirty(project);
+        }
     }
 
     @Override
     public void deleteModel(IProject project) {
-        preferencesFile(project).delete();
-        this.modelCache.invalidate(project);
+        synchronized (this.fileLock) {
+            synchronized (this.lock) {
+                this.dirtyProjects.remove(project);
+            }
+            modelFile(project.getName()).delete();
+            legacyPreferencesFile(project.getName()).delete();
+            this.modelCache.invalidate(project);
+        }
     }
 
     @Override
@@ -89,7 +136,8 @@ public final class DefaultModelPersistence implements ModelPersistence, EventLis
             } else if (event instanceof ProjectDeletedEvent) {
                 deleteProjectPreferences((ProjectDeletedEvent) event);
             } else if (event instanceof WorkbenchShutdownEvent) {
-                persistAllProjectPrefs();
+                cancelPersistJob();
+                persistDirtyModels();
             }
         } catch (IOException e) {
             throw new UncheckedException(e);
@@ -98,17 +146,34 @@ public final class DefaultModelPersistence implements ModelPersistence, EventLis
 
     private void movePreferencesFile(ProjectMovedEvent event) throws IOException {
         String previousName = event.getPreviousName();
-        for (IProject cached : this.modelCache.asMap().keySet()) {
-            if (cached.getName().equals(previousName)) {
-                PersistentModel model = this.modelCache.getUnchecked(cached);
-                this.modelCache.put(event.getProject(), model);
-                this.modelCache.invalidate(cached);
+        // only the already loaded models are moved, a model isn't loaded while holding the lock
+        Map<IProject, PersistentModel> movedModels = Maps.newHashMap();
+        for (Map.Entry<IProject, PersistentModel> cached : this.modelCache.asMap().entrySet()) {
+            if (cached.getKey().getName().equals(previousName)) {
+                movedModels.put(cached.getKey(), cached.getValue());
             }
         }
 
-        File preferencesFile = preferencesFile(event.getPreviousName());
-        if (preferencesFile.exists()) {
-            Files.move(preferencesFile, preferencesFile(event.getProject().getName()));
+        synchronized (this.fileLock) {
+            synchronized (this.lock) {
+                for (Map.Entry<IProject, PersistentModel> moved : movedModels.entrySet()) {
+                    this.modelCache.put(event.getProject(), moved.getValue());
+                    this.modelCache.invalidate(moved.getKey());
+                    if (this.dirtyProjects.remove(moved.getKey())) {
+                        this.dirtyProjects.add(event.getProject());
+                    }
+                }
+            }
+
+            File modelFile = modelFile(previousName);
+            if (modelFile.exists()) {
+                Files.move(modelFile, modelFile(event.getProject().getName()));
+            }
+
+            File legacyPreferencesFile = legacyPreferencesFile(previousName);
+            if (legacyPreferencesFile.exists()) {
+                Files.move(legacyPreferencesFile, legacyPreferencesFile(event.getProject().getName()));
+            }
         }
     }
 
@@ -116,26 +181,74 @@ public final class DefaultModelPersistence implements ModelPersistence, EventLis
         deleteModel(event.getProject());
     }
 
-    private static PersistentModel doLoadModel(IProject project) throws IOException, FileNotFoundException {
+    private PersistentModel doLoadModel(IProject project) throws IOException {
         String projectName = project.getName();
-        File preferencesFile = preferencesFile(projectName);
-        if (preferencesFile.exists()) {
-            try (Reader reader = new InputStreamReader(new FileInputStream(preferencesFile(projectName)), Charsets.UTF_8)) {
+        File modelFile = modelFile(projectName);
+        if (modelFile.exists()) {
+            try (InputStream input = new BufferedInputStream(new FileInputStream(modelFile))) {
+                return PersistentModelSerializer.read(project, input, modelFile.length());
+            } catch (IOException e) {
+                // an unreadable model only means that the next synchronization has to do a full update
+                CorePlugin.logger().warn("Can't read persistent model for project " + projectName, e);
+                return new AbsentPersistentModel(project);
+            }
+        }
+
+        File legacyPreferencesFile = legacyPreferencesFile(projectName);
+        if (legacyPreferencesFile.exists()) {
+            try (Reader reader = new InputStreamReader(new FileInputStream(legacyPreferencesFile), Charsets.UTF_8)) {
                 Properties props = new Properties();
                 props.load(reader);
-                return PersistentModelConverter.toModel(project, props);
+                PersistentModel model = PersistentModelConverter.toModel(project, props);
+                // write the model in the binary format
+                markDirty(project);
+                return model;
             }
-        } else {
-            return new AbsentPersistentModel(project);
         }
+
+        return new AbsentPersistentModel(project);
     }
 
-    private void persistAllProjectPrefs() {
-        Map<IProject, PersistentModel> modelCacheMap = this.modelCache.asMap();
-        for (Entry<IProject, PersistentModel> entry : modelCacheMap.entrySet()) {
-            PersistentModel model = entry.getValue();
-            if (model.isPresent()) {
-                persistPrefs(entry.getKey(), model);
+    private void markDirty(IProject project) {
+        synchronized (this.lock) {
+            // the job clears the flag before it starts, so the projects marked dirty while the job runs schedule it again
+            if (this.dirtyProjects.add(project) && !this.persistJobScheduled) {
+                this.persistJobScheduled = true;
+                this.persistJob.schedule(this.persistDelay);
+            }
+        }
+    }
+
+    private void cancelPersistJob() {
+        synchronized (this.lock) {
+            this.persistJob.cancel();
+            this.persistJobScheduled = false;
+        }
+    }
+
+    private void persistDirtyModels() {
+        List<IProject> projects;
+        synchronized (this.lock) {
+            projects = ImmutableList.copyOf(this.dirtyProjects);
+        }
+
+        for (IProject project : projects) {
+            // the file lock keeps the model from being deleted or moved while it's written, but
+            // saving, loading and marking the models dirty can proceed during the write
+            synchronized (this.fileLock) {
+                PersistentModel model;
+                synchronized (this.lock) {
+                    // the model could have been persisted, deleted or moved in the meantime
+                    if (!this.dirtyProjects.remove(project)) {
+                        continue;
+                    }
+                    model = this.modelCache.getIfPresent(project);
+                }
+
+                // a model saved during the write marks the project dirty again, so it's written by the next run
+                if (model != null && model.isPresent()) {
+                    persistPrefs(project, model);
+                }
             }
         }
     }
@@ -149,57 +262,75 @@ public final class DefaultModelPersistence implements ModelPersistence, EventLis
     }
 
     private static void persistPrefsChecked(IProject project, PersistentModel model) throws IOException {
-        File preferencesFile = preferencesFile(project);
+        File modelFile = modelFile(project.getName());
+        Files.createParentDirs(modelFile);
 
-        if (!preferencesFile.exists()) {
-            Files.createParentDirs(preferencesFile);
-            Files.touch(preferencesFile);
+        // the model is written to a temporary file first, so that a failed write doesn't leave a truncated model behind;
+        // the file is created outside of the model folder, as its name could clash with the name of a project
+        File tempFile = File.createTempFile("project-model", ".tmp", modelFile.getParentFile().getParentFile());
+        try {
+            try (OutputStream output = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+                PersistentModelSerializer.write(model, output);
+            }
+            replace(tempFile, modelFile);
+        } finally {
+            tempFile.delete();
         }
 
-        Properties props = PersistentModelConverter.toProperties(model);
+        // the model is migrated to the binary format
+        legacyPreferencesFile(project.getName()).delete();
+    }
 
-        try (Writer writer = new OutputStreamWriter(new FileOutputStream(preferencesFile), Charsets.UTF_8)) {
-            props.store(writer, "");
+    private static void replace(File source, File target) throws IOException {
+        try {
+            java.nio.file.Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            java.nio.file.Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
-    private static File preferencesFile(IProject project) {
-        return preferencesFile(project.getName());
+    private static File modelFile(String projectName) {
+        return CorePlugin.getInstance().getStateLocation().append("project-models").append(projectName).toFile();
     }
 
-    private static File preferencesFile(String projectName) {
+    private static File legacyPreferencesFile(String projectName) {
         return CorePlugin.getInstance().getStateLocation().append("project-preferences").append(projectName).toFile();
     }
 
     public static DefaultModelPersistence createAndRegister() {
-        DefaultModelPersistence persistence = new DefaultModelPersistence();
-        CorePlugin.listenerRegistry().addEventListener(persistence);
-        persistence.prefetchCacheAsync();
+        DefaultModelPersistence persistence = new DefaultModelPersistence(AdvancedPreferences.getModelPersistenceDelayMillis());
+        // the events are handled synchronously, so that loadModel() never sees the model of a
+        // moved or deleted project under its old location
+        Set<Class<? extends Event>> eventTypes = ImmutableSet.<Class<? extends Event>>of(ProjectMovedEvent.class, ProjectDeletedEvent.class, WorkbenchShutdownEvent.class);
+        CorePlugin.listenerRegistry().addEventListener(persistence, eventTypes, EventDelivery.SYNCHRONOUS);
+        persistence.prefetcher.start();
         return persistence;
     }
 
-    private void prefetchCacheAsync() {
-        Job job = new Job("Load persistent model for all projects") {
-
-            @Override
-            protected IStatus run(IProgressMonitor monitor) {
-                for (IProject project : CorePlugin.workspaceOperations().getAllProjects()) {
-                    if (GradleProjectNature.isPresentOn(project)) {
-                        try {
-                            DefaultModelPersistence.this.modelCache.get(project);
-                        } catch (ExecutionException e) {
-                            CorePlugin.logger().warn("Can't load persistent model for project " + project.getName(), e);
-                        }
-                    }
-                }
-                return Status.OK_STATUS;
-            }
-        };
-        job.setSystem(true);
-        job.schedule();
-    }
-
     public void close() {
         CorePlugin.listenerRegistry().removeEventListener(this);
+        this.prefetcher.cancel();
+        cancelPersistJob();
+        persistDirtyModels();
+    }
+
+    /**
+     * Writes the dirty models to the disk.
+     */
+    private final class PersistDirtyModelsJob extends Job {
+
+        public PersistDirtyModelsJob() {
+            super("Save persistent model of modified projects");
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            synchronized (DefaultModelPersistence.this.lock) {
+                DefaultModelPersistence.this.persistJobScheduled = false;
+            }
+            persistDirtyModels();
+            return Status.OK_STATUS;
+        }
     }
 }
@@ -10,15 +10,19 @@ package org.eclipse.buildship.core.preferences.internal;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.google.common.base.Objects;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import org.eclipse.core.resources.ICommand;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.JavaCore;
 
 import org.eclipse.buildship.core.preferences.PersistentModel;
 
@@ -33,25 +37,46 @@ public final class DefaultPersistentModel implements PersistentModel {
     private final IPath buildDir;
     private final IPath buildScriptPath;
     private final Collection<IPath> subprojectPaths;
-    private final List<IClasspathEntry> classpath;
+    private final LazyClasspath classpath;
     private final Collection<IPath> derivedResources;
     private final Collection<IPath> linkedResources;
     private final List<String> managedNatures;
     private final List<ICommand> managedBuilders;
+    private final Optional<String> fingerprint;
+    private final Optional<Map<IPath, String>> buildInputHashes;
 
     public DefaultPersistentModel(IProject project, IPath buildDir, IPath buildScriptPath,
                                   Collection<IPath> subprojectPaths, List<IClasspathEntry> classpath,
                                   Collection<IPath> derivedResources, Collection<IPath> linkedResources,
                                   Collection<String> managedNatures, Collection<ICommand> managedBuilders) {
+        this(project, buildDir, buildScriptPath, subprojectPaths, classpath, derivedResources, linkedResources, managedNatures, managedBuilders, null, null);
+    }
+
+    public DefaultPersistentModel(IProject project, IPath buildDir, IPath buildScriptPath,
+                                  Collection<IPath> subprojectPaths, List<IClasspathEntry> classpath,
+                                  Collection<IPath> derivedResources, Collection<IPath> linkedResources,
+                                  Collection<String> managedNatures, Collection<ICommand> managedBuilders, String fingerprint,
+                                  Map<IPath, String> buildInputHashes) {
+        this(project, buildDir, buildScriptPath, subprojectPaths, LazyClasspath.fromEntries(JavaCore.create(project), classpath), derivedResources, linkedResources,
+                managedNatures, managedBuilders, fingerprint, buildInputHashes);
+    }
+
+    DefaultPersistentModel(IProject project, IPath buildDir, IPath buildScriptPath,
+                           Collection<IPath> subprojectPaths, LazyClasspath classpath,
+                           Collection<IPath> derivedResources, Collection<IPath> linkedResources,
+                           Collection<String> managedNatures, Collection<ICommand> managedBuilders, String fingerprint,
+                           Map<IPath, String> buildInputHashes) {
         this.project = Preconditions.checkNotNull(project);
         this.buildDir = Preconditions.checkNotNull(buildDir);
         this.buildScriptPath = Preconditions.checkNotNull(buildScriptPath);
         this.subprojectPaths = ImmutableList.copyOf(subprojectPaths);
-        this.classpath = ImmutableList.copyOf(classpath);
+        this.classpath = Preconditions.checkNotNull(classpath);
         this.derivedResources = ImmutableList.copyOf(derivedResources);
         this.linkedResources = ImmutableList.copyOf(linkedResources);
         this.managedNatures = ImmutableList.copyOf(managedNatures);
         this.managedBuilders = ImmutableList.copyOf(managedBuilders);
+        this.fingerprint = Optional.fromNullable(fingerprint);
+        this.buildInputHashes = buildInputHashes == null ? Optional.<Map<IPath, String>>absent() : Optional.<Map<IPath, String>>of(ImmutableMap.copyOf(buildInputHashes));
     }
 
     @Override
@@ -81,7 +106,11 @@ public final class DefaultPersistentModel implements PersistentModel {
 
     @Override
     public List<IClasspathEntry> getClasspath() {
-        return this.classpath;
+        return this.classpath.getEntries();
+    }
+
+    List<String> getEncodedClasspath() {
+        return this.classpath.getEncodedEntries();
     }
 
     @Override
@@ -104,6 +133,16 @@ public final class DefaultPersistentModel implements PersistentModel {
         return this.managedBuilders;
     }
 
+    @Override
+    public Optional<String> getFingerprint() {
+        return this.fingerprint;
+    }
+
+    @Override
+    public Optional<Map<IPath, String>> getBuildInputHashes() {
+        return this.buildInputHashes;
+    }
+
     @Override
     public boolean equals(final Object obj) {
         if (!(obj instanceof DefaultPersistentModel)) {
@@ -112,17 +151,20 @@ public final class DefaultPersistentModel implements PersistentModel {
         DefaultPersistentModel that = (DefaultPersistentModel) obj;
         return Objects.equal(this.project, that.project)
                 && Objects.equal(this.buildDir, that.buildDir)
+                && Objects.equal(this.buildScriptPath, that.buildScriptPath)
                 && Objects.equal(this.subprojectPaths, that.subprojectPaths)
-                && Objects.equal(this.classpath, that.classpath)
+                && LazyClasspath.haveSameEntries(this.classpath, that.classpath)
                 && Objects.equal(this.derivedResources, that.derivedResources)
                 && Objects.equal(this.linkedResources, that.linkedResources)
                 && Objects.equal(this.managedNatures, that.managedNatures)
-                && Objects.equal(this.managedBuilders, that.managedBuilders);
+                && Objects.equal(this.managedBuilders, that.managedBuilders)
+                && Objects.equal(this.fingerprint, that.fingerprint)
+                && Objects.equal(this.buildInputHashes, that.buildInputHashes);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(this.project, this.buildDir, this.subprojectPaths, this.classpath, this.derivedResources, this.linkedResources, this.managedNatures, this.managedBuilders);
+        return Objects.hashCode(this.project, this.buildDir, this.buildScriptPath, this.subprojectPaths, getEncodedClasspath(), this.derivedResources, this.linkedResources, this.managedNatures, this.managedBuilders, this.fingerprint, this.buildInputHashes);
     }
 
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.preferences.internal;
+
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+
+import org.eclipse.buildship.core.CorePlugin;
+
+/**
+ * Classpath of a persisted model that is converted between the entry objects and their encoded
+ * form only when needed.
+ * <p/>
+ * A classpath loaded from the disk is decoded when the entries are first requested, and if
+ * that never happens, the original encoded form is written back when the model is persisted
+ * again.
+ */
+final class LazyClasspath {
+
+    private final IJavaProject javaProject;
+    private List<String> encodedEntries;
+    private List<IClasspathEntry> entries;
+
+    private LazyClasspath(IJavaProject javaProject, List<String> encodedEntries, List<IClasspathEntry> entries) {
+        this.javaProject = Preconditions.checkNotNull(javaProject);
+        this.encodedEntries = encodedEntries;
+        this.entries = entries;
+    }
+
+    synchronized List<IClasspathEntry> getEntries() {
+        if (this.entries == null) {
+            this.entries = decode(this.javaProject, this.encodedEntries);
+        }
+        return this.entries;
+    }
+
+    private synchronized List<IClasspathEntry> getEntriesIfDecoded() {
+        return this.entries;
+    }
+
+    synchronized List<String> getEncodedEntries() {
+        if (this.encodedEntries == null) {
+            this.encodedEntries = encode(this.javaProject, this.entries);
+        }
+        return this.encodedEntries;
+    }
+
+    /**
+     * Returns whether the two classpaths contain the same entries. The entries are compared in
+     * their encoded form unless both classpaths are already decoded, so the comparison never
+     * decodes a classpath loaded from the disk.
+     */
+    static boolean haveSameEntries(LazyClasspath first, LazyClasspath second) {
+        if (first == second) {
+            return true;
+        }
+        List<IClasspathEntry> firstEntries = first.getEntriesIfDecoded();
+        List<IClasspathEntry> secondEntries = second.getEntriesIfDecoded();
+        if (firstEntries != null && secondEntries != null) {
+            return firstEntries.equals(secondEntries);
+        }
+        return first.getEncodedEntries().equals(second.getEncodedEntries());
+    }
+
+    private static List<IClasspathEntry> decode(IJavaProject javaProject, List<String> encodedEntries) {
+        ImmutableList.Builder<IClasspathEntry> result = ImmutableList.builder();
+        for (String encodedEntry : encodedEntries) {
+            IClasspathEntry entry = javaProject.decodeClasspathEntry(encodedEntry);
+            if (entry == null) {
+                CorePlugin.logger().error(String.format("Could not read persisted classpath for project %s.", javaProject.getProject().getName()));
+                return ImmutableList.of();
+            }
+            result.add(entry);
+        }
+        return result.build();
+    }
+
+    private static List<String> encode(IJavaProject javaProject, List<IClasspathEntry> entries) {
+        ImmutableList.Builder<String> result = ImmutableList.builder();
+        for (IClasspathEntry entry : entries) {
+            result.add(javaProject.encodeClasspathEntry(entry));
+        }
+        return result.build();
+    }
+
+    static LazyClasspath fromEntries(IJavaProject javaProject, List<IClasspathEntry> entries) {
+        return new LazyClasspath(javaProject, null, ImmutableList.copyOf(entries));
+    }
+
+    static LazyClasspath fromEncodedEntries(IJavaProject javaProject, List<String> encodedEntries) {
+        return new LazyClasspath(javaProject, ImmutableList.copyOf(encodedEntries), null);
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.preferences.internal;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.configuration.GradleProjectNature;
+import org.eclipse.buildship.core.preferences.PersistentModel;
+
+/**
+ * Loads the persistent models of all Gradle projects into the model cache after startup.
+ * <p/>
+ * The models are loaded by a small thread pool. The projects passed to {@link #prioritize(Collection)}
+ * are loaded before the remaining ones, and the projects requested directly from the cache - e.g.
+ * by the classpath container initializer - are loaded by the requesting thread, so neither of them
+ * has to wait for the whole workspace to be loaded. The total time of the prefetch is reported
+ * in the debug log.
+ */
+final class ModelPrefetcher {
+
+    private final LoadingCache<IProject, PersistentModel> modelCache;
+    private final int parallelism;
+    private final BlockingDeque<IProject> pendingProjects;
+    private final Set<IProject> queuedProjects;
+    private final PrefetchJob job;
+    private boolean finished;
+
+    ModelPrefetcher(LoadingCache<IProject, PersistentModel> modelCache, int parallelism) {
+        this.modelCache = Preconditions.checkNotNull(modelCache);
+        this.parallelism = Math.max(parallelism, 1);
+        this.pendingProjects = new LinkedBlockingDeque<IProject>();
+        this.queuedProjects = Sets.newHashSet();
+        this.job = new PrefetchJob();
+    }
+
+    void start() {
+        this.job.schedule();
+    }
+
+    void cancel() {
+        this.job.cancel();
+    }
+
+    /**
+     * Moves the given projects to the front of the prefetch queue. Has no effect after the prefetch
+     * has finished.
+     *
+     * @param projects the projects to load first
+     */
+    synchronized void prioritize(Collection<IProject> projects) {
+        if (this.finished) {
+            return;
+        }
+
+        // the projects are added to the front in reverse order to keep their order
+        for (IProject project : ImmutableList.copyOf(projects).reverse()) {
+            if (!this.queuedProjects.add(project)) {
+                this.pendingProjects.remove(project);
+            }
+            this.pendingProjects.addFirst(project);
+        }
+    }
+
+    private synchronized void enqueue(IProject project) {
+        if (this.queuedProjects.add(project)) {
+            this.pendingProjects.addLast(project);
+        }
+    }
+
+    private synchronized void finish() {
+        this.finished = true;
+        this.pendingProjects.clear();
+        this.queuedProjects.clear();
+    }
+
+    private int loadPendingModels(IProgressMonitor monitor) {
+        int loadedModels = 0;
+        IProject project;
+        while (!monitor.isCanceled() && (project = this.pendingProjects.pollFirst()) != null) {
+            try {
+                this.modelCache.get(project);
+                loadedModels++;
+            } catch (Exception e) {
+                CorePlugin.logger().warn("Can't load persistent model for project " + project.getName(), e);
+            }
+        }
+        return loadedModels;
+    }
+
+    /**
+     * Collects the Gradle projects and loads their models on the thread pool.
+     */
+    private final class PrefetchJob extends Job {
+
+        public PrefetchJob() {
+            super("Load persistent model for all projects");
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(final IProgressMonitor monitor) {
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            for (IProject project : CorePlugin.workspaceOperations().getAllProjects()) {
+                if (GradleProjectNature.isPresentOn(project)) {
+                    enqueue(project);
+                }
+            }
+
+            final AtomicInteger loadedModels = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(ModelPrefetcher.this.parallelism,
+                    new ThreadFactoryBuilder().setNameFormat("buildship-model-prefetch-%d").setDaemon(true).build());
+            try {
+                for (int i = 0; i < ModelPrefetcher.this.parallelism; i++) {
+                    executor.execute(new Runnable() {
+
+                        @Override
+                        public void run() {
+                            loadedModels.addAndGet(loadPendingModels(monitor));
+                        }
+                    });
+                }
+                executor.shutdown();
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                executor.shutdownNow();
+                finish();
+            }
+
+            CorePlugin.logger().debug(String.format("Loaded persistent models of %d projects in %d ms", loadedModels.get(), stopwatch.elapsed(TimeUnit.MILLISECONDS)));
+            return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+        }
+    }
+}
@@ -15,7 +15,6 @@ import java.util.Properties;
 
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
-import com.google.common.base.Joiner;
 import com.google.common.base.Predicates;
 import com.google.common.base.Splitter;
 import com.google.common.collect.FluentIterable;
@@ -32,7 +31,8 @@ import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.buildship.core.preferences.PersistentModel;
 
 /**
- * Contains helper methods for the {@link PersistentModel} <-> {@link Properties} conversion.
+ * Reads {@link PersistentModel} instances from the {@link Properties} files written by earlier
+ * Buildship versions.
  */
 final class PersistentModelConverter {
 
@@ -45,67 +45,6 @@ final class PersistentModelConverter {
     private static final String PROPERTY_MANAGED_NATURES = "managedNatures";
     private static final String PROPERTY_MANAGED_BUILDERS = "managedBuilders";
 
-    public static Properties toProperties(final PersistentModel model) {
-        Properties properties = new Properties();
-
-        storeValue(properties, PROPERTY_BUILD_DIR, model.getBuildDir(), new Function<IPath, String>() {
-
-            @Override
-            public String apply(IPath path) {
-                return path.toPortableString();
-            }
-        });
-        storeValue(properties, PROPERTY_BUILD_SCRIPT_PATH, model.getbuildScriptPath(), new Function<IPath, String>() {
-
-            @Override
-            public String apply(IPath path) {
-                return path.toPortableString();
-            }
-        });
-        storeList(properties, PROPERTY_SUBPROJECTS, model.getSubprojectPaths(), new Function<IPath, String>() {
-
-            @Override
-            public String apply(IPath path) {
-                return path.toPortableString();
-            }
-        });
-        storeValue(properties, PROPERTY_CLASSPATH, model.getClasspath(), new Function<List<IClasspathEntry>, String>() {
-
-            @Override
-            public String apply(List<IClasspathEntry> classpath) {
-                IJavaProject javaProject = JavaCore.create(model.getProject());
-                return ClasspathConverter.toXml(javaProject, classpath);
-            }
-        });
-        storeList(properties, PROPERTY_DERIVED_RESOURCES, model.getDerivedResources(), new Function<IPath, String>() {
-
-            @Override
-            public String apply(IPath path) {
-                return path.toPortableString();
-            }
-        });
-
-        storeList(properties, PROPERTY_LINKED_RESOURCES, model.getLinkedResources(), new Function<IPath, String>() {
-
-            @Override
-            public String apply(IPath linkedResource) {
-                return linkedResource.toPortableString();
-            }
-        });
-
-        storeList(properties, PROPERTY_MANAGED_NATURES, model.getManagedNatures(), Functions.<String>identity());
-
-        storeValue(properties, PROPERTY_MANAGED_BUILDERS, model.getManagedBuilders(), new Function<List<ICommand>, String>(){
-
-            @Override
-            public String apply(List<ICommand> commands) {
-                return BuildCommandConverter.toXml(model.getProject(), commands);
-            }
-        });
-
-        return properties;
-    }
-
     public static PersistentModel toModel(final IProject project, Properties properties) {
         IPath buildDir = loadValue(properties, PROPERTY_BUILD_DIR, new Path("build"), new Function<String, IPath>() {
 
@@ -181,13 +120,4 @@ final class PersistentModelConverter {
             return FluentIterable.from(collection).transform(conversion).filter(Predicates.notNull()).toList();
         }
     }
-
-    private static <T> void storeValue(Properties properties, String key, T value, Function<T, String> conversion) {
-        properties.put(key, conversion.apply(value));
-    }
-
-    private static <T> void storeList(Properties properties, String key, Collection<T> values, Function<T, String> conversion) {
-        List<String> stringList = FluentIterable.from(values).transform(conversion).filter(Predicates.notNull()).toList();
-        properties.put(key, Joiner.on(File.pathSeparator).join(stringList));
-    }
 }
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.preferences.internal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.io.CountingInputStream;
+
+import org.eclipse.core.resources.ICommand;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.buildship.core.preferences.PersistentModel;
+
+/**
+ * Reads and writes {@link PersistentModel} instances in a compact binary format.
+ * <p/>
+ * The content starts with a magic number and a format version. Paths and strings are stored as
+ * length-prefixed UTF-8 bytes, the classpath entries in the encoded form used by the
+ * {@code .classpath} file. The classpath is not decoded when the model is read, it's only done
+ * when {@link PersistentModel#getClasspath()} is first called. The optional fingerprint of the
+ * project and the optional hashes of its build inputs are stored after a flag indicating their
+ * presence.
+ */
+final class PersistentModelSerializer {
+
+    private static final int MAGIC = 0x4253504D; // 'BSPM'
+    private static final int FORMAT_VERSION = 1;
+
+    private PersistentModelSerializer() {
+    }
+
+    static void write(PersistentModel model, OutputStream outputStream) throws IOException {
+        DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        writePath(output, model.getBuildDir());
+        writePath(output, model.getbuildScriptPath());
+        writePaths(output, model.getSubprojectPaths());
+        writeStrings(output, encodedClasspath(model));
+        writePaths(output, model.getDerivedResources());
+        writePaths(output, model.getLinkedResources());
+        writeStrings(output, model.getManagedNatures());
+        writeCommands(output, model.getManagedBuilders());
+        Optional<String> fingerprint = model.getFingerprint();
+        output.writeBoolean(fingerprint.isPresent());
+        if (fingerprint.isPresent()) {
+            writeString(output, fingerprint.get());
+        }
+        Optional<Map<IPath, String>> buildInputHashes = model.getBuildInputHashes();
+        output.writeBoolean(buildInputHashes.isPresent());
+        if (buildInputHashes.isPresent()) {
+            writeHashes(output, buildInputHashes.get());
+        }
+        output.flush();
+    }
+
+    static PersistentModel read(IProject project, InputStream inputStream, long size) throws IOException {
+        ModelInput input = new ModelInput(new CountingInputStream(inputStream), size);
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a persistent model file");
+        }
+        int version = input.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported persistent model format version: " + version);
+        }
+
+        IPath buildDir = readPath(input);
+        IPath buildScriptPath = readPath(input);
+        List<IPath> subprojectPaths = readPaths(input);
+        LazyClasspath classpath = LazyClasspath.fromEncodedEntries(JavaCore.create(project), readStrings(input));
+        List<IPath> derivedResources = readPaths(input);
+        List<IPath> linkedResources = readPaths(input);
+        List<String> managedNatures = readStrings(input);
+        List<ICommand> managedBuilders = readCommands(project, input);
+        String fingerprint = input.readBoolean() ? readString(input) : null;
+        Map<IPath, String> buildInputHashes = input.readBoolean() ? readHashes(input) : null;
+        return new DefaultPersistentModel(project, buildDir, buildScriptPath, subprojectPaths, classpath, derivedResources, linkedResources, managedNatures, managedBuilders, fingerprint,
+                buildInputHashes);
+    }
+
+    private static List<String> encodedClasspath(PersistentModel model) {
+        if (model instanceof DefaultPersistentModel) {
+            return ((DefaultPersistentModel) model).getEncodedClasspath();
+        } else {
+            IJavaProject javaProject = JavaCore.create(model.getProject());
+            ImmutableList.Builder<String> result = ImmutableList.builder();
+            for (IClasspathEntry entry : model.getClasspath()) {
+                result.add(javaProject.encodeClasspathEntry(entry));
+            }
+            return result.build();
+        }
+    }
+
+    private static void writeCommands(DataOutputStream output, List<ICommand> commands) throws IOException {
+        output.writeInt(commands.size());
+        for (ICommand command : commands) {
+            writeString(output, command.getBuilderName());
+            Map<String, String> arguments = command.getArguments();
+            output.writeInt(arguments.size());
+            for (Map.Entry<String, String> argument : arguments.entrySet()) {
+                writeString(output, argument.getKey());
+                writeString(output, Strings.nullToEmpty(argument.getValue()));
+            }
+        }
+    }
+
+    private static List<ICommand> readCommands(IProject project, ModelInput input) throws IOException {
+        int size = input.readLength();
+        if (size == 0) {
+            return ImmutableList.of();
+        }
+
+        ImmutableList.Builder<ICommand> result = ImmutableList.builder();
+        for (int i = 0; i < size; i++) {
+            ICommand command = newCommand(project);
+            command.setBuilderName(readString(input));
+            int argumentCount = input.readLength();
+            Map<String, String> arguments = Maps.newHashMapWithExpectedSize(argumentCount);
+            for (int j = 0; j < argumentCount; j++) {
+                arguments.put(readString(input), readString(input));
+            }
+            command.setArguments(arguments);
+            result.add(command);
+        }
+        return result.build();
+    }
+
+    private static ICommand newCommand(IProject project) throws IOException {
+        try {
+            return project.getDescription().newCommand();
+        } catch (CoreException e) {
+            throw new IOException("Cannot create build command for project " + project.getName(), e);
+        }
+    }
+
+    private static void writeHashes(DataOutputStream output, Map<IPath, String> hashes) throws IOException {
+        output.writeInt(hashes.size());
+        for (Map.Entry<IPath, String> hash : hashes.entrySet()) {
+            writePath(output, hash.getKey());
+            writeString(output, hash.getValue());
+        }
+    }
+
+    private static Map<IPath, String> readHashes(ModelInput input) throws IOException {
+        int size = input.readLength();
+        Map<IPath, String> result = Maps.newLinkedHashMap();
+        for (int i = 0; i < size; i++) {
+            result.put(readPath(input), readString(input));
+        }
+        return result;
+    }
+
+    private static void writePaths(DataOutputStream output, Collection<IPath> paths) throws IOException {
+        output.writeInt(paths.size());
+        for (IPath path : paths) {
+            writePath(output, path);
+        }
+    }
+
+    private static List<IPath> readPaths(ModelInput input) throws IOException {
+        int size = input.readLength();
+        ImmutableList.Builder<IPath> result = ImmutableList.builder();
+        for (int i = 0; i < size; i++) {
+            result.add(readPath(input));
+        }
+        return result.build();
+    }
+
+    private static void writePath(DataOutputStream output, IPath path) throws IOException {
+        writeString(output, path.toPortableString());
+    }
+
+    private static IPath readPath(ModelInput input) throws IOException {
+        return Path.fromPortableString(readString(input));
+    }
+
+    private static void writeStrings(DataOutputStream output, Collection<String> strings) throws IOException {
+        output.writeInt(strings.size());
+        for (String string : strings) {
+            writeString(output, string);
+        }
+    }
+
+    private static List<String> readStrings(ModelInput input) throws IOException {
+        int size = input.readLength();
+        ImmutableList.Builder<String> result = ImmutableList.builder();
+        for (int i = 0; i < size; i++) {
+            result.add(readString(input));
+        }
+        return result.build();
+    }
+
+    private static void writeString(DataOutputStream output, String string) throws IOException {
+        // DataOutput.writeUTF() is limited to 64KB, which an encoded classpath entry can exceed
+        byte[] bytes = string.getBytes(Charsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ModelInput input) throws IOException {
+        byte[] bytes = new byte[input.readLength()];
+        input.readFully(bytes);
+        return new String(bytes, Charsets.UTF_8);
+    }
+
+    /**
+     * Reads the content of a model file of a known size.
+     * <p/>
+     * Every length and element count is checked against the number of remaining bytes before
+     * anything is allocated for it, so a corrupt file results in an {@link IOException} instead of
+     * a huge allocation.
+     */
+    private static final class ModelInput extends DataInputStream {
+
+        private final CountingInputStream counter;
+        private final long size;
+
+        private ModelInput(CountingInputStream counter, long size) {
+            super(counter);
+            this.counter = counter;
+            this.size = size;
+        }
+
+        private int readLength() throws IOException {
+            int length = readInt();
+            long remaining = this.size - this.counter.getCount();
+            if (length < 0 || length > remaining) {
+                throw new IOException(String.format("Invalid length %d, only %d bytes remaining", length, remaining));
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.util.preference;
+
+import org.eclipse.core.runtime.Platform;
+
+import org.eclipse.buildship.core.CorePlugin;
+
+/**
+ * Provides access to advanced Buildship settings that are not exposed on the UI.
+ * <p/>
+ * The settings are looked up in the instance, configuration and default preference scopes of the
+ * core plugin. This way they can be specified in the {@code plugin_customization.ini} file of an
+ * Eclipse product, e.g. {@code org.eclipse.buildship.core/sync.parallelism=4}.
+ */
+public final class AdvancedPreferences {
+
+    private static final String SYNC_PARALLELISM = "sync.parallelism";
+    private static final String SYNC_FULL_REFRESH = "sync.fullRefresh";
+    private static final String AUTO_SYNC_QUIET_PERIOD_MILLIS = "autosync.quietPeriodMillis";
+    private static final String MODEL_CACHE_MAXIMUM_WEIGHT = "model.cache.maximumWeight";
+    private static final String MODEL_CACHE_EXPIRATION_MINUTES = "model.cache.expirationMinutes";
+    private static final String MODEL_PREFETCH_PARALLELISM = "model.prefetch.parallelism";
+    private static final String MODEL_PERSISTENCE_DELAY_MILLIS = "model.persistence.delayMillis";
+    private static final String CONNECTION_POOL_MAXIMUM_SIZE = "connection.pool.maximumSize";
+    private static final String CONNECTION_POOL_IDLE_TIMEOUT_SECONDS = "connection.pool.idleTimeoutSeconds";
+
+    private AdvancedPreferences() {
+    }
+
+    /**
+     * Returns the number of threads the project synchronization can use to synchronize the
+     * projects of a Gradle build. Values less than or equal to 1 mean that the projects are
+     * synchronized one after the other, holding the workspace root scheduling rule.
+     *
+     * @return the number of synchronization threads, by default 1
+     */
+    public static int getSynchronizationParallelism() {
+        return getInt(SYNC_PARALLELISM, 1);
+    }
+
+    /**
+     * Returns whether the project synchronization refreshes the whole content of the workspace
+     * projects. If disabled, only the resources read or modified by the synchronization are
+     * refreshed, i.e. the project files, the {@code .settings} folder, the source folders, the
+     * build folders and the linked resources.
+     *
+     * @return {@code true} if the projects are fully refreshed, by default {@code false}
+     */
+    public static boolean isSynchronizationFullRefreshEnabled() {
+        return getBoolean(SYNC_FULL_REFRESH, false);
+    }
+
+    /**
+     * Returns the number of milliseconds the automatic synchronization waits for further build
+     * script changes before synchronizing the affected Gradle builds.
+     *
+     * @return the quiet period of the automatic synchronization, by default 500
+     */
+    public static int getAutoSyncQuietPeriodMillis() {
+        return getInt(AUTO_SYNC_QUIET_PERIOD_MILLIS, 500);
+    }
+
+    /**
+     * Returns the maximum weight of the Gradle models kept in memory. The weight of a model is
+     * the number of Gradle projects it describes.
+     *
+     * @return the maximum weight of the cached models, by default 10000
+     */
+    public static int getModelCacheMaximumWeight() {
+        return getInt(MODEL_CACHE_MAXIMUM_WEIGHT, 10000);
+    }
+
+    /**
+     * Returns the number of minutes after which a cached Gradle model is discarded if it's not
+     * accessed. Values less than or equal to 0 mean that the models don't expire.
+     *
+     * @return the expiration time of the cached models in minutes, by default 0
+     */
+    public static int getModelCacheExpirationMinutes() {
+        return getInt(MODEL_CACHE_EXPIRATION_MINUTES, 0);
+    }
+
+    /**
+     * Returns the number of threads loading the persistent models of the workspace projects after
+     * startup.
+     *
+     * @return the number of prefetch threads, by default the number of processors but at most 4
+     */
+    public static int getModelPrefetchParallelism() {
+        return getInt(MODEL_PREFETCH_PARALLELISM, Math.min(Runtime.getRuntime().availableProcessors(), 4));
+    }
+
+    /**
+     * Returns the number of milliseconds after which the modified persistent models are written to
+     * the disk.
+     *
+     * @return the delay of writing the persistent models, by default 2000
+     */
+    public static int getModelPersistenceDelayMillis() {
+        return getInt(MODEL_PERSISTENCE_DELAY_MILLIS, 2000);
+    }
+
+    /**
+     * Returns the maximum number of idle Tooling API connections kept open. Connections in use are
+     * not counted against this limit.
+     *
+     * @return the maximum number of pooled connections, by default 10
+     */
+    public static int getConnectionPoolMaximumSize() {
+        return getInt(CONNECTION_POOL_MAXIMUM_SIZE, 10);
+    }
+
+    /**
+     * Returns the number of seconds after which an unused Tooling API connection is closed.
+     *
+     * @return the idle timeout of the pooled connections in seconds, by default 60
+     */
+    public static int getConnectionPoolIdleTimeoutSeconds() {
+        return getInt(CONNECTION_POOL_IDLE_TIMEOUT_SECONDS, 60);
+    }
+
+    private static int getInt(String key, int defaultValue) {
+        return Platform.getPreferencesService().getInt(CorePlugin.PLUGIN_ID, key, defaultValue, null);
+    }
+
+    private static boolean getBoolean(String key, boolean defaultValue) {
+        return Platform.getPreferencesService().getBoolean(CorePlugin.PLUGIN_ID, key, defaultValue, null);
+    }
+}
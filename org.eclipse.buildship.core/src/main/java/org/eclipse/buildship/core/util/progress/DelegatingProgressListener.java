@@ -11,15 +11,18 @@
 
 package org.eclipse.buildship.core.util.progress;
 
-import java.util.Queue;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
-import com.google.common.base.Preconditions;
 import org.gradle.tooling.ProgressEvent;
 import org.gradle.tooling.ProgressListener;
 
+import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
-import com.google.common.collect.EvictingQueue;
+import com.google.common.base.Ticker;
+import com.google.common.collect.Maps;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SubMonitor;
@@ -30,15 +33,42 @@ import org.eclipse.core.runtime.SubMonitor;
  * many work units will be needed. To give the user some perceived progress, this class will use a
  * logarithmic approach. Every new message will lead to 1/100 of the remaining progress to be consumed.
  * As a result, the bar will start out reasonably fast and slow down towards the end for bigger projects.
+ * <p/>
+ * Large builds emit tens of thousands of events, so the monitor is updated at most
+ * {@link #MAX_UPDATES_PER_SECOND} times per second. The events received in between are coalesced:
+ * their progress is consumed with the next update and only the most recent description is shown.
+ * If no further event arrives, the coalesced events are flushed once the update interval has passed,
+ * on the scheduler shared with {@link RateLimitingProgressMonitor}. Once the Gradle operation returns,
+ * {@link #finish()} flushes the remaining events on the calling thread, so that no update reaches
+ * the monitor after the caller moved on.
+ * The number of received events is counted, so that the amount of progress events produced by an
+ * operation can be reported.
  */
 public final class DelegatingProgressListener implements ProgressListener {
 
+    /**
+     * The maximum number of times per second the target monitor is updated.
+     */
+    public static final int MAX_UPDATES_PER_SECOND = 10;
+
+    private static final long MIN_UPDATE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1) / MAX_UPDATES_PER_SECOND;
+
     private final SubMonitor monitor;
     private final Predicate<? super ProgressEvent> eventFilter;
+    private final Ticker ticker;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean finished;
+    private long firstEventNanos;
+    private long lastEventNanos;
+    private long lastUpdateNanos;
+    private int eventCount;
+    private int pendingEvents;
+    private String pendingDescription;
 
-    private DelegatingProgressListener(IProgressMonitor monitor, Predicate<? super ProgressEvent> eventFilter) {
+    private DelegatingProgressListener(IProgressMonitor monitor, Predicate<? super ProgressEvent> eventFilter, Ticker ticker) {
         this.monitor = SubMonitor.convert(monitor);
         this.eventFilter = Preconditions.checkNotNull(eventFilter);
+        this.ticker = Preconditions.checkNotNull(ticker);
     }
 
     /**
@@ -47,16 +77,92 @@ public final class DelegatingProgressListener implements ProgressListener {
      * @param event the event to delegate
      */
     @Override
-    public void statusChanged(ProgressEvent event) {
-        if (this.monitor.isCanceled()) {
+    public synchronized void statusChanged(ProgressEvent event) {
+        long now = this.ticker.read();
+        if (this.eventCount++ == 0) {
+            this.firstEventNanos = now;
+            // let the first update through immediately
+            this.lastUpdateNanos = now - MIN_UPDATE_INTERVAL_NANOS;
+        }
+        this.lastEventNanos = now;
+
+        if (this.finished || this.monitor.isCanceled()) {
             return;
         }
         if (!this.eventFilter.apply(event)) {
             return;
         }
-        this.monitor.setWorkRemaining(100);
-        this.monitor.worked(1);
-        this.monitor.subTask(event.getDescription());
+
+        this.pendingEvents++;
+        this.pendingDescription = event.getDescription();
+        long sinceLastUpdateNanos = now - this.lastUpdateNanos;
+        if (sinceLastUpdateNanos >= MIN_UPDATE_INTERVAL_NANOS) {
+            updateMonitor(now);
+        } else if (this.scheduledFlush == null) {
+            this.scheduledFlush = RateLimitingProgressMonitor.scheduler().schedule(new Runnable() {
+
+                @Override
+                public void run() {
+                    flushPendingUpdate();
+                }
+            }, MIN_UPDATE_INTERVAL_NANOS - sinceLastUpdateNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Forwards the coalesced events to the target monitor and stops forwarding any further
+     * events. Must be called on the thread which executed the Gradle operation, once the
+     * operation has returned.
+     */
+    public synchronized void finish() {
+        if (this.scheduledFlush != null) {
+            this.scheduledFlush.cancel(false);
+        }
+        flushPendingUpdate();
+        this.finished = true;
+    }
+
+    private synchronized void flushPendingUpdate() {
+        this.scheduledFlush = null;
+        if (!this.finished && this.pendingEvents > 0 && !this.monitor.isCanceled()) {
+            updateMonitor(this.ticker.read());
+        }
+    }
+
+    private void updateMonitor(long now) {
+        // consume 1/100 of the remaining work for a single event, and a bit less than 1/100 per
+        // event for coalesced ones, so the monitor never runs out of work
+        this.monitor.setWorkRemaining(99 + this.pendingEvents);
+        this.monitor.worked(this.pendingEvents);
+        this.monitor.subTask(this.pendingDescription);
+        this.pendingEvents = 0;
+        this.pendingDescription = null;
+        this.lastUpdateNanos = now;
+    }
+
+    /**
+     * Returns the number of progress events received by this listener, including the filtered and
+     * the coalesced ones.
+     *
+     * @return the number of received events
+     */
+    public synchronized int getEventCount() {
+        return this.eventCount;
+    }
+
+    /**
+     * Returns the average number of progress events received per second, measured between the
+     * first and the last event.
+     *
+     * @return the number of events per second, or the number of events if they were all received
+     *         within a second
+     */
+    public synchronized double getEventRate() {
+        long elapsedNanos = this.lastEventNanos - this.firstEventNanos;
+        if (elapsedNanos < TimeUnit.SECONDS.toNanos(1)) {
+            return this.eventCount;
+        }
+        return this.eventCount / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
     }
 
     /**
@@ -66,8 +172,8 @@ public final class DelegatingProgressListener implements ProgressListener {
      * @param monitor the monitor to delegate to, may be null
      * @return the progress listener, never null
      */
-    public static ProgressListener withFullOutput(IProgressMonitor monitor) {
-        return new DelegatingProgressListener(monitor, Predicates.alwaysTrue());
+    public static DelegatingProgressListener withFullOutput(IProgressMonitor monitor) {
+        return new DelegatingProgressListener(monitor, Predicates.alwaysTrue(), Ticker.systemTicker());
     }
 
     /**
@@ -84,19 +190,47 @@ public final class DelegatingProgressListener implements ProgressListener {
      * @return the progress listener, never null
      *
      */
-    public static ProgressListener withoutDuplicateLifecycleEvents(IProgressMonitor monitor) {
-        Predicate<ProgressEvent> withoutDuplicates = new Predicate<ProgressEvent>() {
-            final Queue<String> recentlySeen = EvictingQueue.create(10);
-
-            @Override
-            public boolean apply(ProgressEvent event) {
-                String description = event.getDescription();
-                boolean shouldShow = !this.recentlySeen.contains(description);
-                this.recentlySeen.add(description);
-                return shouldShow;
-            }
-        };
-        return new DelegatingProgressListener(monitor, withoutDuplicates);
+    public static DelegatingProgressListener withoutDuplicateLifecycleEvents(IProgressMonitor monitor) {
+        return new DelegatingProgressListener(monitor, new RecentDuplicateFilter(10), Ticker.systemTicker());
     }
 
+    /**
+     * Rejects the events with a description that was among the most recently seen ones.
+     * <p/>
+     * The recent descriptions are kept in a ring buffer, and the number of their occurrences in the
+     * buffer in a hash map, so each event is checked in constant time.
+     */
+    private static final class RecentDuplicateFilter implements Predicate<ProgressEvent> {
+
+        private final String[] recentlySeen;
+        private final Map<String, Integer> occurrences;
+        private int next;
+
+        private RecentDuplicateFilter(int size) {
+            this.recentlySeen = new String[size];
+            this.occurrences = Maps.newHashMapWithExpectedSize(size);
+        }
+
+        @Override
+        public boolean apply(ProgressEvent event) {
+            String description = event.getDescription();
+            boolean shouldShow = !this.occurrences.containsKey(description);
+
+            String evicted = this.recentlySeen[this.next];
+            if (evicted != null) {
+                int count = this.occurrences.get(evicted);
+                if (count == 1) {
+                    this.occurrences.remove(evicted);
+                } else {
+                    this.occurrences.put(evicted, count - 1);
+                }
+            }
+            this.recentlySeen[this.next] = description;
+            Integer count = this.occurrences.get(description);
+            this.occurrences.put(description, count == null ? 1 : count + 1);
+            this.next = (this.next + 1) % this.recentlySeen.length;
+
+            return shouldShow;
+        }
+    }
 }
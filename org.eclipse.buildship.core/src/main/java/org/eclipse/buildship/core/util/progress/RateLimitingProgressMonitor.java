@@ -8,11 +8,14 @@
 
 package org.eclipse.buildship.core.util.progress;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.ProgressMonitorWrapper;
 
@@ -20,20 +23,25 @@ import org.eclipse.core.runtime.ProgressMonitorWrapper;
  * A progress monitor that only publishes the most recent task and sub task at a given rate. Can be used to
  * reduce pressure on the UI thread if an operation produces a lot of progress messages in a short
  * amount of time, without loosing the benefit of informing the user.
+ * <p/>
+ * All instances share a single scheduler thread, which is only alive while there are monitors
+ * between {@link #beginTask(String, int)} and {@link #done()}. The scheduler is also used by
+ * {@link DelegatingProgressListener} to flush its coalesced updates.
  *
  * @author Stefan Oehme
  */
 public final class RateLimitingProgressMonitor extends ProgressMonitorWrapper {
 
-    private final Timer timer;
+    private static final ScheduledThreadPoolExecutor SCHEDULER = createScheduler();
+
     private final AtomicReference<String> lastTask;
     private final AtomicReference<String> lastSubTask;
     private final long rate;
     private final TimeUnit rateUnit;
+    private ScheduledFuture<?> forwarding;
 
     public RateLimitingProgressMonitor(IProgressMonitor monitor, long rate, TimeUnit rateUnit) {
         super(monitor);
-        this.timer = new Timer();
         this.lastTask = new AtomicReference<String>();
         this.lastSubTask = new AtomicReference<String>();
         this.rate = rate;
@@ -42,7 +50,11 @@ public final class RateLimitingProgressMonitor extends ProgressMonitorWrapper {
 
     @Override
     public void beginTask(String name, int totalWork) {
-        this.timer.scheduleAtFixedRate(forwardMostRecentMessage(), 0, this.rateUnit.toMillis(this.rate));
+        synchronized (this) {
+            if (this.forwarding == null) {
+                this.forwarding = SCHEDULER.scheduleAtFixedRate(forwardMostRecentMessage(), 0, this.rate, this.rateUnit);
+            }
+        }
         super.beginTask(name, totalWork);
     }
 
@@ -58,12 +70,17 @@ public final class RateLimitingProgressMonitor extends ProgressMonitorWrapper {
 
     @Override
     public void done() {
-        this.timer.cancel();
+        synchronized (this) {
+            if (this.forwarding != null) {
+                this.forwarding.cancel(false);
+                this.forwarding = null;
+            }
+        }
         super.done();
     }
 
-    private TimerTask forwardMostRecentMessage() {
-        return new TimerTask() {
+    private Runnable forwardMostRecentMessage() {
+        return new Runnable() {
 
             @Override
             public void run() {
@@ -79,4 +96,21 @@ public final class RateLimitingProgressMonitor extends ProgressMonitorWrapper {
         };
     }
 
+    /**
+     * Returns the scheduler shared by the progress reporting classes of this package.
+     *
+     * @return the shared scheduler
+     */
+    static ScheduledExecutorService scheduler() {
+        return SCHEDULER;
+    }
+
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setNameFormat("Buildship progress forwarder").setDaemon(true).build());
+        // drop the cancelled tasks immediately and stop the thread if no monitor is active
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.setKeepAliveTime(10, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+        return scheduler;
+    }
 }
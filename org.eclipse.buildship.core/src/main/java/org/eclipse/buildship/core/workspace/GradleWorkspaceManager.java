@@ -8,6 +8,7 @@
 
 package org.eclipse.buildship.core.workspace;
 
+import java.io.File;
 import java.util.Set;
 
 import com.google.common.base.Optional;
@@ -74,4 +75,20 @@ public interface GradleWorkspaceManager {
      * @return the build aggregate, never null
      */
     public GradleBuilds getGradleBuilds(Set<IProject> projects);
+
+    /**
+     * Returns the hit, miss, eviction and load time statistics of the cache storing the models
+     * fetched via the {@link ModelProvider} of the Gradle builds.
+     *
+     * @return the model cache statistics, never null
+     */
+    public ModelCacheStatistics getModelCacheStatistics();
+
+    /**
+     * Returns the location of the JSON report containing the time spent in the phases and in the
+     * project updaters of the last workspace synchronization.
+     *
+     * @return the report file, never null; the file doesn't exist if no synchronization has run yet
+     */
+    public File getSynchronizationReportFile();
 }
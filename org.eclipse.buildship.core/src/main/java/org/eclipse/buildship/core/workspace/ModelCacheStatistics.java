@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace;
+
+import com.google.common.base.Objects;
+
+/**
+ * Snapshot of the statistics of the cache storing the models fetched via the
+ * {@link ModelProvider} of the Gradle builds.
+ */
+public final class ModelCacheStatistics {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long totalLoadTimeNanos;
+
+    public ModelCacheStatistics(long hitCount, long missCount, long evictionCount, long totalLoadTimeNanos) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.totalLoadTimeNanos = totalLoadTimeNanos;
+    }
+
+    /**
+     * Returns the number of model requests served from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Returns the number of model requests for which the model had to be loaded.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Returns the number of models removed from the cache to keep it below its size limit or
+     * because they expired.
+     *
+     * @return the number of evicted models
+     */
+    public long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    /**
+     * Returns the total time spent loading the models, in nanoseconds.
+     *
+     * @return the total load time
+     */
+    public long getTotalLoadTimeNanos() {
+        return this.totalLoadTimeNanos;
+    }
+
+    /**
+     * Returns the ratio of the model requests served from the cache, or {@code 1.0} if there
+     * were no requests yet.
+     *
+     * @return the hit rate
+     */
+    public double getHitRate() {
+        long requestCount = this.hitCount + this.missCount;
+        return requestCount == 0 ? 1.0 : (double) this.hitCount / requestCount;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof ModelCacheStatistics) {
+            ModelCacheStatistics other = (ModelCacheStatistics) obj;
+            return this.hitCount == other.hitCount && this.missCount == other.missCount && this.evictionCount == other.evictionCount
+                    && this.totalLoadTimeNanos == other.totalLoadTimeNanos;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.hitCount, this.missCount, this.evictionCount, this.totalLoadTimeNanos);
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this).add("hitCount", this.hitCount).add("missCount", this.missCount).add("evictionCount", this.evictionCount)
+                .add("totalLoadTimeNanos", this.totalLoadTimeNanos).toString();
+    }
+}
@@ -78,4 +78,21 @@ public interface ModelProvider {
      * @return the returned model
      */
     Set<OmniEclipseProject> fetchEclipseGradleProjects(FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor);
+
+    /**
+     * Synchronously queries the {@link OmniEclipseProject} models of the projects with the given
+     * Gradle paths from this build and from all included builds.
+     * <p/>
+     * The returned set contains the requested projects and the projects they depend on. The
+     * included builds which don't contain any of the requested projects are not queried, unless
+     * the models of all projects are already cached or the requested projects depend on projects
+     * of other included builds.
+     *
+     * @param projectPaths the Gradle paths of the requested projects, e.g. {@code :sub}
+     * @param strategy the fetch strategy
+     * @param token the cancellation token
+     * @param monitor the monitor to report the progress on
+     * @return the returned models
+     */
+    Set<OmniEclipseProject> fetchEclipseGradleProjects(Set<String> projectPaths, FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor);
 }
\ No newline at end of file
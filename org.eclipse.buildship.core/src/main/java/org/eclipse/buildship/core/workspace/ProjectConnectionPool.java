@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace;
+
+import java.io.File;
+
+import org.gradle.tooling.ProjectConnection;
+
+import org.eclipse.buildship.core.configuration.GradleArguments;
+
+/**
+ * Shares Tooling API project connections between the clients connecting to the same Gradle build.
+ * <p/>
+ * The connections are pooled by the connection settings of the {@link GradleArguments}: the root
+ * directory, the Gradle distribution and the Gradle user home. A connection acquired from the pool
+ * must not be closed by the client, it must be returned to the pool via
+ * {@link #release(ProjectConnection)} once the executed operation is finished.
+ */
+public interface ProjectConnectionPool {
+
+    /**
+     * Returns a connection matching the connection settings of the given arguments. The returned
+     * connection can be in use by other clients at the same time.
+     *
+     * @param gradleArguments the arguments to connect with, must not be null
+     * @return the connection, never null
+     */
+    ProjectConnection acquire(GradleArguments gradleArguments);
+
+    /**
+     * Returns a connection to the pool. The connection is closed if it was evicted while in use.
+     *
+     * @param connection the connection previously returned by {@link #acquire(GradleArguments)}
+     */
+    void release(ProjectConnection connection);
+
+    /**
+     * Evicts all connections to the Gradle build located in the given root directory. Connections
+     * in use are closed once they are released.
+     *
+     * @param rootDir the root directory of the Gradle build, must not be null
+     */
+    void evict(File rootDir);
+
+    /**
+     * Evicts all connections from the pool. Connections in use are closed once they are released.
+     */
+    void evictAll();
+}
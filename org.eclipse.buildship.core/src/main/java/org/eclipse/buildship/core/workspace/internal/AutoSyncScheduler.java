@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.util.preference.AdvancedPreferences;
+import org.eclipse.buildship.core.workspace.GradleBuild;
+
+/**
+ * Collects the Gradle builds to be synchronized automatically and synchronizes them once no new
+ * request arrived for the quiet period specified by
+ * {@link AdvancedPreferences#getAutoSyncQuietPeriodMillis()}.
+ * <p/>
+ * The pending requests are merged per root project directory, and each new request restarts the
+ * quiet period. This way a change touching many build scripts at once, like switching to another
+ * branch, results in a single synchronization per affected Gradle build.
+ * <p/>
+ * The build inputs of the changed projects are hashed by the job, after the quiet period, and the
+ * build is only synchronized if the hashes differ from the ones recorded by the previous
+ * synchronization.
+ */
+final class AutoSyncScheduler {
+
+    private final Map<File, PendingSynchronization> pendingSynchronizations;
+    private final SynchronizePendingBuildsJob job;
+
+    AutoSyncScheduler() {
+        this.pendingSynchronizations = Maps.newLinkedHashMap();
+        this.job = new SynchronizePendingBuildsJob();
+    }
+
+    /**
+     * Requests the synchronization of the given build after the quiet period, in case the build
+     * inputs of the given project have changed. If the build is already waiting for its
+     * synchronization then the requests are merged.
+     *
+     * @param build the build to synchronize
+     * @param project the project whose build inputs were modified
+     * @param buildInputs the build inputs of the project
+     */
+    synchronized void schedule(GradleBuild build, IProject project, BuildInputs buildInputs) {
+        File rootDir = build.getBuildConfig().getRootProjectDirectory();
+        PendingSynchronization pendingSynchronization = this.pendingSynchronizations.get(rootDir);
+        if (pendingSynchronization == null) {
+            pendingSynchronization = new PendingSynchronization(build);
+            this.pendingSynchronizations.put(rootDir, pendingSynchronization);
+        }
+        pendingSynchronization.modifiedProjects.put(project, buildInputs);
+        // restart the quiet period; a running job is rescheduled once it's finished
+        if (this.job.getState() != Job.RUNNING) {
+            this.job.cancel();
+        }
+        this.job.schedule(Math.max(AdvancedPreferences.getAutoSyncQuietPeriodMillis(), 0));
+    }
+
+    synchronized void close() {
+        this.job.cancel();
+        this.pendingSynchronizations.clear();
+    }
+
+    private synchronized List<PendingSynchronization> removePendingSynchronizations() {
+        List<PendingSynchronization> result = ImmutableList.copyOf(this.pendingSynchronizations.values());
+        this.pendingSynchronizations.clear();
+        return result;
+    }
+
+    /**
+     * A Gradle build waiting for its synchronization, along with the build inputs of its modified
+     * projects.
+     */
+    private static final class PendingSynchronization {
+
+        private final GradleBuild build;
+        private final Map<IProject, BuildInputs> modifiedProjects;
+
+        private PendingSynchronization(GradleBuild build) {
+            this.build = build;
+            this.modifiedProjects = Maps.newLinkedHashMap();
+        }
+
+        private boolean haveBuildInputsChanged() {
+            for (Map.Entry<IProject, BuildInputs> entry : this.modifiedProjects.entrySet()) {
+                if (haveBuildInputsChanged(entry.getKey(), entry.getValue())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean haveBuildInputsChanged(IProject project, BuildInputs buildInputs) {
+            // models stored by older versions don't contain the hashes
+            Optional<Map<IPath, String>> previousHashes = CorePlugin.modelPersistence().loadModel(project).getBuildInputHashes();
+            if (!previousHashes.isPresent()) {
+                return true;
+            }
+
+            try {
+                return !previousHashes.get().equals(buildInputs.hash());
+            } catch (IOException e) {
+                CorePlugin.logger().warn("Failed to calculate the hashes of the build inputs of project " + project.getName(), e);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Schedules a synchronization for each pending build.
+     */
+    private final class SynchronizePendingBuildsJob extends Job {
+
+        public SynchronizePendingBuildsJob() {
+            super("Schedule automatic synchronization of Gradle builds");
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            // already scheduled synchronizations of the same build are not duplicated, see SynchronizeGradleBuildsJob#shouldSchedule()
+            for (PendingSynchronization pendingSynchronization : removePendingSynchronizations()) {
+                if (pendingSynchronization.haveBuildInputsChanged()) {
+                    pendingSynchronization.build.synchronize();
+                }
+            }
+            return Status.OK_STATUS;
+        }
+
+        @Override
+        public boolean belongsTo(Object family) {
+            return CorePlugin.GRADLE_JOB_FAMILY.equals(family);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+
+import org.gradle.tooling.ModelBuilder;
+import org.gradle.tooling.ProgressListener;
+import org.gradle.tooling.ProjectConnection;
+import org.gradle.tooling.model.build.BuildEnvironment;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import com.gradleware.tooling.toolingmodel.repository.TransientRequestAttributes;
+
+import org.eclipse.buildship.core.configuration.GradleArguments;
+
+/**
+ * Caches the {@link BuildEnvironment} of the Gradle builds, so that it doesn't have to be queried
+ * before every Tooling API operation.
+ * <p/>
+ * The environments are keyed by the {@link GradleArguments}, hence changing the Gradle
+ * distribution, the Gradle user home or the Java home of a build results in a new query. An
+ * entry is also discarded if the wrapper properties file of the build changed since the
+ * environment was loaded, as it can point to a different Gradle version.
+ */
+final class BuildEnvironmentCache {
+
+    private static final String WRAPPER_PROPERTIES_PATH = "gradle/wrapper/gradle-wrapper.properties";
+
+    // the environments are small, the limit only prevents leaking them for removed builds
+    private final Cache<GradleArguments, Entry> cache = CacheBuilder.newBuilder().maximumSize(100).build();
+
+    /**
+     * Returns the cached build environment of the build, or {@code null} if it's not cached or if
+     * the cached value is outdated.
+     *
+     * @param gradleArguments the arguments of the target build
+     * @return the build environment or {@code null}
+     */
+    BuildEnvironment getIfPresent(GradleArguments gradleArguments) {
+        Entry entry = this.cache.getIfPresent(gradleArguments);
+        if (entry != null && entry.wrapperState.equals(WrapperState.of(gradleArguments.getRootDir()))) {
+            return entry.buildEnvironment;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the build environment of the build, querying it via the given connection if it's not
+     * cached or if the cached value is outdated. The query uses the cancellation token and the
+     * progress listeners of the given request attributes.
+     *
+     * @param gradleArguments the arguments of the target build
+     * @param connection the connection to the target build
+     * @param transientAttributes the attributes of the request the environment is needed for
+     * @return the build environment
+     */
+    BuildEnvironment get(GradleArguments gradleArguments, ProjectConnection connection, TransientRequestAttributes transientAttributes) {
+        WrapperState wrapperState = WrapperState.of(gradleArguments.getRootDir());
+        Entry entry = this.cache.getIfPresent(gradleArguments);
+        if (entry != null && entry.wrapperState.equals(wrapperState)) {
+            return entry.buildEnvironment;
+        }
+
+        ModelBuilder<BuildEnvironment> builder = connection.model(BuildEnvironment.class);
+        for (ProgressListener listener : transientAttributes.getProgressListeners()) {
+            builder.addProgressListener(listener);
+        }
+        builder.withCancellationToken(transientAttributes.getCancellationToken());
+        BuildEnvironment buildEnvironment = builder.get();
+        this.cache.put(gradleArguments, new Entry(buildEnvironment, wrapperState));
+        return buildEnvironment;
+    }
+
+    /**
+     * Discards the cached build environment of the build.
+     *
+     * @param gradleArguments the arguments of the target build
+     */
+    void invalidate(GradleArguments gradleArguments) {
+        this.cache.invalidate(gradleArguments);
+    }
+
+    /**
+     * A cached build environment along with the state of the wrapper properties at the time it was loaded.
+     */
+    private static final class Entry {
+
+        private final BuildEnvironment buildEnvironment;
+        private final WrapperState wrapperState;
+
+        private Entry(BuildEnvironment buildEnvironment, WrapperState wrapperState) {
+            this.buildEnvironment = Preconditions.checkNotNull(buildEnvironment);
+            this.wrapperState = Preconditions.checkNotNull(wrapperState);
+        }
+    }
+
+    /**
+     * The modification time and the size of the wrapper properties file.
+     */
+    private static final class WrapperState {
+
+        private final long lastModified;
+        private final long length;
+
+        private WrapperState(long lastModified, long length) {
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof WrapperState) {
+                WrapperState other = (WrapperState) obj;
+                return this.lastModified == other.lastModified && this.length == other.length;
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (this.lastModified ^ this.length);
+        }
+
+        private static WrapperState of(File rootDir) {
+            // both values are 0 if the file doesn't exist
+            File wrapperProperties = new File(rootDir, WRAPPER_PROPERTIES_PATH);
+            return new WrapperState(wrapperProperties.lastModified(), wrapperProperties.length());
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+
+import org.eclipse.buildship.core.configuration.ProjectConfiguration;
+
+/**
+ * The files of a Gradle project which influence the result of the project synchronization.
+ * <p/>
+ * For every project these are the build script and the {@code gradle.properties} file. For the
+ * root project of a build also the settings script, the version catalogs in the {@code gradle}
+ * folder and the content of the {@code buildSrc} folder.
+ * <p/>
+ * The hashes of the files are calculated from their content. For scripts and sources the comments
+ * and the insignificant whitespace are ignored, for properties and TOML files the comment and blank
+ * lines. This way saving a file without modifications or editing only its comments doesn't count
+ * as a change.
+ */
+final class BuildInputs {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.md5();
+    private static final IPath GRADLE_PROPERTIES_PATH = new Path("gradle.properties");
+    private static final List<IPath> SETTINGS_SCRIPT_PATHS = ImmutableList.<IPath>of(new Path("settings.gradle"), new Path("settings.gradle.kts"));
+    private static final String VERSION_CATALOG_FOLDER = "gradle";
+    private static final String VERSION_CATALOG_SUFFIX = ".versions.toml";
+    private static final String BUILD_SRC_FOLDER = "buildSrc";
+    private static final List<String> BUILD_SRC_OUTPUT_FOLDERS = ImmutableList.of("build", ".gradle");
+    private static final List<String> SOURCE_SUFFIXES = ImmutableList.of(".gradle", ".kts", ".groovy", ".java", ".kt");
+    private static final List<String> PROPERTIES_SUFFIXES = ImmutableList.of(".properties", ".toml");
+
+    private final File projectDir;
+    private final IPath buildScriptPath;
+    private final boolean rootProject;
+
+    private BuildInputs(File projectDir, IPath buildScriptPath, boolean rootProject) {
+        this.projectDir = Preconditions.checkNotNull(projectDir);
+        this.buildScriptPath = Preconditions.checkNotNull(buildScriptPath);
+        this.rootProject = rootProject;
+    }
+
+    /**
+     * Returns whether any of the given project-relative paths denotes a build input.
+     *
+     * @param paths the paths of the changed resources
+     * @return {@code true} if a build input may have changed
+     */
+    boolean isAffectedBy(Collection<IPath> paths) {
+        for (IPath path : paths) {
+            if (isBuildInput(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the project-relative paths of the files and folders which contain the build inputs.
+     *
+     * @return the paths to watch for changes
+     */
+    Set<IPath> getWatchedPaths() {
+        ImmutableSet.Builder<IPath> result = ImmutableSet.builder();
+        result.add(this.buildScriptPath, GRADLE_PROPERTIES_PATH);
+        if (this.rootProject) {
+            result.addAll(SETTINGS_SCRIPT_PATHS);
+            result.add(new Path(VERSION_CATALOG_FOLDER), new Path(BUILD_SRC_FOLDER));
+        }
+        return result.build();
+    }
+
+    private boolean isBuildInput(IPath path) {
+        if (path.equals(this.buildScriptPath) || path.equals(GRADLE_PROPERTIES_PATH)) {
+            return true;
+        } else if (!this.rootProject || path.isEmpty()) {
+            return false;
+        } else if (SETTINGS_SCRIPT_PATHS.contains(path)) {
+            return true;
+        } else if (path.segmentCount() == 2 && path.segment(0).equals(VERSION_CATALOG_FOLDER)) {
+            return path.lastSegment().endsWith(VERSION_CATALOG_SUFFIX);
+        } else if (path.segment(0).equals(BUILD_SRC_FOLDER)) {
+            return path.segmentCount() == 1 || !BUILD_SRC_OUTPUT_FOLDERS.contains(path.segment(1));
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Calculates the hashes of the existing build inputs.
+     *
+     * @return the hashes mapped by the project-relative path of the inputs
+     * @throws IOException if a build input can't be read
+     */
+    Map<IPath, String> hash() throws IOException {
+        Map<IPath, String> result = Maps.newLinkedHashMap();
+        putFileHash(result, this.buildScriptPath);
+        putFileHash(result, GRADLE_PROPERTIES_PATH);
+        if (this.rootProject) {
+            for (IPath settingsScriptPath : SETTINGS_SCRIPT_PATHS) {
+                putFileHash(result, settingsScriptPath);
+            }
+            for (File versionCatalog : listFiles(new File(this.projectDir, VERSION_CATALOG_FOLDER))) {
+                if (versionCatalog.isFile() && versionCatalog.getName().endsWith(VERSION_CATALOG_SUFFIX)) {
+                    putFileHash(result, new Path(VERSION_CATALOG_FOLDER).append(versionCatalog.getName()));
+                }
+            }
+            File buildSrc = new File(this.projectDir, BUILD_SRC_FOLDER);
+            if (buildSrc.isDirectory()) {
+                Hasher hasher = HASH_FUNCTION.newHasher();
+                for (File child : listFiles(buildSrc)) {
+                    if (!BUILD_SRC_OUTPUT_FOLDERS.contains(child.getName())) {
+                        hashRecursively(child, child.getName(), hasher);
+                    }
+                }
+                result.put(new Path(BUILD_SRC_FOLDER), hasher.hash().toString());
+            }
+        }
+        return result;
+    }
+
+    private void putFileHash(Map<IPath, String> result, IPath path) throws IOException {
+        File file = new File(this.projectDir, path.toOSString());
+        if (file.isFile()) {
+            result.put(path, hashFile(file));
+        }
+    }
+
+    private static void hashRecursively(File file, String relativePath, Hasher hasher) throws IOException {
+        if (file.isDirectory()) {
+            for (File child : listFiles(file)) {
+                hashRecursively(child, relativePath + '/' + child.getName(), hasher);
+            }
+        } else if (file.isFile()) {
+            hasher.putString(relativePath, Charsets.UTF_8);
+            hasher.putString(hashFile(file), Charsets.UTF_8);
+        }
+    }
+
+    private static String hashFile(File file) throws IOException {
+        String name = file.getName();
+        if (endsWithAny(name, SOURCE_SUFFIXES)) {
+            return HASH_FUNCTION.hashString(normalizeSource(Files.toString(file, Charsets.UTF_8)), Charsets.UTF_8).toString();
+        } else if (endsWithAny(name, PROPERTIES_SUFFIXES)) {
+            return HASH_FUNCTION.hashString(normalizeProperties(Files.readLines(file, Charsets.UTF_8)), Charsets.UTF_8).toString();
+        } else {
+            return Files.hash(file, HASH_FUNCTION).toString();
+        }
+    }
+
+    private static boolean endsWithAny(String name, List<String> suffixes) {
+        for (String suffix : suffixes) {
+            if (name.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static File[] listFiles(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+        Arrays.sort(files);
+        return files;
+    }
+
+    /*
+     * Removes the comments and the leading, trailing and repeated whitespace of the lines as well
+     * as the blank lines of a Groovy, Kotlin or Java source. The string literals are kept as-is.
+     */
+    private static String normalizeSource(String source) {
+        StringBuilder result = new StringBuilder(source.length());
+        boolean pendingSpace = false;
+        int length = source.length();
+        int i = 0;
+        while (i < length) {
+            char c = source.charAt(i);
+            if (source.startsWith("//", i)) {
+                while (i < length && source.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (source.startsWith("/*", i)) {
+                int end = source.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                pendingSpace = true;
+            } else if (c == '\n') {
+                if (result.length() > 0 && result.charAt(result.length() - 1) != '\n') {
+                    result.append('\n');
+                }
+                pendingSpace = false;
+                i++;
+            } else if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+            } else {
+                if (pendingSpace && result.length() > 0 && result.charAt(result.length() - 1) != '\n') {
+                    result.append(' ');
+                }
+                pendingSpace = false;
+                if (c == '\'' || c == '"') {
+                    i = copyStringLiteral(source, i, result);
+                } else if (c == '\\' && i + 1 < length) {
+                    // escaped characters, e.g. in slashy strings, can't start a comment
+                    result.append(c).append(source.charAt(i + 1));
+                    i += 2;
+                } else {
+                    result.append(c);
+                    i++;
+                }
+            }
+        }
+        return result.toString();
+    }
+
+    private static int copyStringLiteral(String source, int start, StringBuilder result) {
+        char quote = source.charAt(start);
+        String tripleQuote = Strings.repeat(String.valueOf(quote), 3);
+        String delimiter = source.startsWith(tripleQuote, start) ? tripleQuote : String.valueOf(quote);
+        result.append(delimiter);
+        int i = start + delimiter.length();
+        while (i < source.length()) {
+            if (source.charAt(i) == '\\' && i + 1 < source.length()) {
+                result.append(source, i, i + 2);
+                i += 2;
+            } else if (source.startsWith(delimiter, i)) {
+                result.append(delimiter);
+                return i + delimiter.length();
+            } else {
+                result.append(source.charAt(i));
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private static String normalizeProperties(List<String> lines) {
+        StringBuilder result = new StringBuilder();
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#") && !trimmed.startsWith("!")) {
+                result.append(trimmed).append('\n');
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns the build inputs of the project described by the given configuration.
+     *
+     * @param projectConfiguration the configuration of the project
+     * @param buildScriptPath the project-relative path of the build script
+     * @return the build inputs
+     */
+    static BuildInputs of(ProjectConfiguration projectConfiguration, IPath buildScriptPath) {
+        File projectDir = projectConfiguration.getProjectDir();
+        File rootDir = projectConfiguration.getBuildConfiguration().getRootProjectDirectory();
+        return new BuildInputs(projectDir, buildScriptPath, canonicalize(projectDir).equals(canonicalize(rootDir)));
+    }
+
+    private static File canonicalize(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+}
@@ -28,6 +28,10 @@ import org.eclipse.buildship.core.util.file.RelativePathUtils;
 final class BuildScriptLocationUpdater {
 
     public static void update(OmniEclipseProject eclipseProject, PersistentModelBuilder persistentModel, IProgressMonitor monitor) {
+        persistentModel.buildScriptPath(getBuildScriptPath(eclipseProject));
+    }
+
+    static IPath getBuildScriptPath(OmniEclipseProject eclipseProject) {
         Maybe<OmniGradleScript> buildScript = eclipseProject.getGradleProject().getBuildScript();
         if (buildScript.isPresent() && buildScript.get() != null) {
             IPath projectPath = new Path(eclipseProject.getProjectDirectory().getAbsolutePath());
@@ -37,9 +41,9 @@ final class BuildScriptLocationUpdater {
             } else {
                 buildScriptPath = new Path(new File("build.gradle").getAbsolutePath());
             }
-            persistentModel.buildScriptPath(RelativePathUtils.getRelativePath(projectPath, buildScriptPath));
+            return RelativePathUtils.getRelativePath(projectPath, buildScriptPath);
         } else {
-            persistentModel.buildScriptPath(new Path("build.gradle"));
+            return new Path("build.gradle");
         }
     }
 }
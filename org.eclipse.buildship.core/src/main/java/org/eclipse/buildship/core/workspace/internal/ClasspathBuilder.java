@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaModelException;
+
+/**
+ * Collects the changes to the raw classpath and to the default output location of a Java project
+ * in memory.
+ * <p/>
+ * The updaters modify the entries returned by {@link #getEntries()}, then the result is written
+ * to the project with a single {@link IJavaProject#setRawClasspath(IClasspathEntry[], IPath, IProgressMonitor)}
+ * call when {@link #commit(IProgressMonitor)} is invoked. If neither the classpath nor the output
+ * location changed, the project is left untouched and JDT doesn't have to process any classpath
+ * change.
+ */
+final class ClasspathBuilder {
+
+    private final IJavaProject project;
+    private final IClasspathEntry[] originalEntries;
+    private final IPath originalOutputLocation;
+    private final List<IClasspathEntry> entries;
+    private IPath outputLocation;
+
+    private ClasspathBuilder(IJavaProject project) throws JavaModelException {
+        this.project = Preconditions.checkNotNull(project);
+        this.originalEntries = project.getRawClasspath();
+        this.originalOutputLocation = project.getOutputLocation();
+        this.entries = Lists.newArrayList(this.originalEntries);
+        this.outputLocation = this.originalOutputLocation;
+    }
+
+    IJavaProject getProject() {
+        return this.project;
+    }
+
+    /**
+     * Returns the mutable list of raw classpath entries.
+     *
+     * @return the classpath entries to be written to the project
+     */
+    List<IClasspathEntry> getEntries() {
+        return this.entries;
+    }
+
+    IPath getOutputLocation() {
+        return this.outputLocation;
+    }
+
+    void setOutputLocation(IPath outputLocation) {
+        this.outputLocation = Preconditions.checkNotNull(outputLocation);
+    }
+
+    boolean hasChanges() {
+        return !Objects.equal(this.originalOutputLocation, this.outputLocation) || !Arrays.equals(this.originalEntries, this.entries.toArray());
+    }
+
+    /**
+     * Writes the classpath and the output location to the project if any of them changed.
+     *
+     * @param monitor the monitor to report progress on
+     * @throws JavaModelException if the classpath modification fails
+     */
+    void commit(IProgressMonitor monitor) throws JavaModelException {
+        if (hasChanges()) {
+            this.project.setRawClasspath(this.entries.toArray(new IClasspathEntry[this.entries.size()]), this.outputLocation, monitor);
+        }
+    }
+
+    static ClasspathBuilder from(IJavaProject project) throws JavaModelException {
+        return new ClasspathBuilder(project);
+    }
+}
@@ -16,7 +16,6 @@ import java.util.ListIterator;
 import java.util.Map;
 
 import com.google.common.base.Optional;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import com.gradleware.tooling.toolingmodel.OmniEclipseClasspathContainer;
@@ -71,12 +70,6 @@ final class ClasspathContainerUpdater {
         this.sourceSettings = sourceSettings;
     }
 
-    private void updateContainers(IProgressMonitor monitor) throws CoreException {
-        List<IClasspathEntry> classpath = Lists.newArrayList(this.project.getRawClasspath());
-        updateContainers(classpath);
-        this.project.setRawClasspath(classpath.toArray(new IClasspathEntry[classpath.size()]), monitor);
-    }
-
     private void updateContainers(List<IClasspathEntry> classpath) throws JavaModelException {
         if (this.gradleSupportsContainers) {
             overWriteContainers(classpath);
@@ -167,7 +160,13 @@ final class ClasspathContainerUpdater {
 
     public static void update(IJavaProject project, Optional<List<OmniEclipseClasspathContainer>> containers, OmniJavaSourceSettings omniJavaSourceSettings,
             IProgressMonitor monitor) throws CoreException {
-        new ClasspathContainerUpdater(project, containers, omniJavaSourceSettings).updateContainers(monitor);
+        ClasspathBuilder classpath = ClasspathBuilder.from(project);
+        update(classpath, containers, omniJavaSourceSettings);
+        classpath.commit(monitor);
+    }
+
+    static void update(ClasspathBuilder classpath, Optional<List<OmniEclipseClasspathContainer>> containers, OmniJavaSourceSettings omniJavaSourceSettings) throws JavaModelException {
+        new ClasspathContainerUpdater(classpath.getProject(), containers, omniJavaSourceSettings).updateContainers(classpath.getEntries());
     }
 
 }
@@ -8,8 +8,11 @@
 
 package org.eclipse.buildship.core.workspace.internal;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.io.File;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.gradle.tooling.BuildAction;
 import org.gradle.tooling.BuildController;
@@ -17,11 +20,16 @@ import org.gradle.tooling.model.gradle.GradleBuild;
 
 /**
  * Build action to query a model for all participants in a composite.
+ * <p/>
+ * The result maps the root project directory of each participant to its model and to the time in
+ * milliseconds it took to build the model. Each participant is queried only once, even if it's
+ * included by multiple builds. The result only contains JDK and Tooling API types, so it can be
+ * read regardless of the class loader the action was loaded with.
  *
  * @param <T> The requested model type
  * @author Donat Csikos
  */
-public final class CompositeModelQuery<T> implements BuildAction<Collection<T>> {
+public final class CompositeModelQuery<T> implements BuildAction<Map<File, Map.Entry<T, Long>>> {
 
     private static final long serialVersionUID = 1L;
 
@@ -32,14 +40,22 @@ public final class CompositeModelQuery<T> implements BuildAction<Collection<T>>
     }
 
     @Override
-    public Collection<T> execute(BuildController controller) {
-        Collection<T> models = new ArrayList<T>();
+    public Map<File, Map.Entry<T, Long>> execute(BuildController controller) {
+        Map<File, Map.Entry<T, Long>> models = new LinkedHashMap<File, Map.Entry<T, Long>>();
         collectRootModels(controller, controller.getBuildModel(), models);
         return models;
     }
 
-    private void collectRootModels(BuildController controller, GradleBuild build, Collection<T> models) {
-        models.add(controller.getModel(build.getRootProject(), this.modelType));
+    private void collectRootModels(BuildController controller, GradleBuild build, Map<File, Map.Entry<T, Long>> models) {
+        File rootDir = build.getRootProject().getProjectDirectory();
+        if (models.containsKey(rootDir)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        T model = controller.getModel(build.getRootProject(), this.modelType);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        models.put(rootDir, new SimpleImmutableEntry<T, Long>(model, elapsedMillis));
 
         for (GradleBuild includedBuild : build.getIncludedBuilds()) {
             collectRootModels(controller, includedBuild, models);
@@ -8,6 +8,7 @@
 
 package org.eclipse.buildship.core.workspace.internal;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
 import java.lang.reflect.InvocationHandler;
@@ -16,13 +17,14 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.gradle.tooling.BuildAction;
 import org.gradle.tooling.BuildActionExecuter;
 import org.gradle.tooling.BuildLauncher;
 import org.gradle.tooling.GradleConnectionException;
-import org.gradle.tooling.GradleConnector;
 import org.gradle.tooling.LongRunningOperation;
 import org.gradle.tooling.ModelBuilder;
 import org.gradle.tooling.ProgressListener;
@@ -39,16 +41,19 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.GradlePluginsRuntimeException;
 import org.eclipse.buildship.core.configuration.GradleArguments;
+import org.eclipse.buildship.core.workspace.ProjectConnectionPool;
 
 /**
- * Provides long-running TAPI operation instances that close their project connection after the execution is
- * finished.
+ * Provides long-running TAPI operation instances that release their project connection to the
+ * {@link ProjectConnectionPool} after the execution is finished.
  *
  * @author Donat Csikos
  */
 @SuppressWarnings("unchecked")
 final class ConnectionAwareLauncherProxy implements InvocationHandler {
 
+    private static final BuildEnvironmentCache BUILD_ENVIRONMENTS = new BuildEnvironmentCache();
+
     private final LongRunningOperation launcher;
     private final ProjectConnection connection;
     private static URLClassLoader ideFriendlyCustomActionClassLoader;
@@ -60,40 +65,95 @@ final class ConnectionAwareLauncherProxy implements InvocationHandler {
 
     static <T> ModelBuilder<T> newModelBuilder(Class<T> model, GradleArguments gradleArguments, TransientRequestAttributes transientAttributes) {
         ProjectConnection connection = openConnection(gradleArguments);
-        ModelBuilder<T> builder = connection.model(model);
-        BuildEnvironment buildEnvironment = connection.getModel(BuildEnvironment.class);
-        applyConfiguration(builder, gradleArguments, buildEnvironment, transientAttributes);
-        return (ModelBuilder<T>) newProxyInstance(connection, builder);
+        try {
+            ModelBuilder<T> builder = connection.model(model);
+            BuildEnvironment buildEnvironment = BUILD_ENVIRONMENTS.get(gradleArguments, connection, transientAttributes);
+            applyConfiguration(builder, gradleArguments, buildEnvironment, transientAttributes);
+            return (ModelBuilder<T>) newProxyInstance(connection, builder);
+        } catch (RuntimeException e) {
+            CorePlugin.projectConnectionPool().release(connection);
+            throw e;
+        }
     }
 
-    static <T> BuildActionExecuter<Collection<T>> newCompositeModelQueryExecuter(Class<T> model, GradleArguments gradleArguments, TransientRequestAttributes transientAttributes) {
+    static <T> BuildActionExecuter<Map<File, Map.Entry<T, Long>>> newCompositeModelQueryExecuter(Class<T> model, GradleArguments gradleArguments, TransientRequestAttributes transientAttributes) {
         ProjectConnection connection = openConnection(gradleArguments);
-        BuildEnvironment buildEnvironment = connection.getModel(BuildEnvironment.class);
-        BuildActionExecuter<Collection<T>> executer = connection.action(compositeModelQuery(model));
-        applyConfiguration(executer, gradleArguments, buildEnvironment, transientAttributes);
-        return (BuildActionExecuter<Collection<T>>) newProxyInstance(connection, executer);
+        try {
+            BuildEnvironment buildEnvironment = BUILD_ENVIRONMENTS.get(gradleArguments, connection, transientAttributes);
+            BuildActionExecuter<Map<File, Map.Entry<T, Long>>> executer = connection.action(compositeModelQuery(model));
+            applyConfiguration(executer, gradleArguments, buildEnvironment, transientAttributes);
+            return (BuildActionExecuter<Map<File, Map.Entry<T, Long>>>) newProxyInstance(connection, executer);
+        } catch (RuntimeException e) {
+            CorePlugin.projectConnectionPool().release(connection);
+            throw e;
+        }
+    }
+
+    static <T> BuildActionExecuter<List<T>> newProjectScopedModelQueryExecuter(Class<T> model, Set<String> projectPaths, GradleArguments gradleArguments, TransientRequestAttributes transientAttributes) {
+        ProjectConnection connection = openConnection(gradleArguments);
+        try {
+            BuildEnvironment buildEnvironment = BUILD_ENVIRONMENTS.get(gradleArguments, connection, transientAttributes);
+            BuildActionExecuter<List<T>> executer = connection.action(projectScopedModelQuery(model, projectPaths));
+            applyConfiguration(executer, gradleArguments, buildEnvironment, transientAttributes);
+            return (BuildActionExecuter<List<T>>) newProxyInstance(connection, executer);
+        } catch (RuntimeException e) {
+            CorePlugin.projectConnectionPool().release(connection);
+            throw e;
+        }
     }
 
     static BuildLauncher newBuildLauncher(GradleArguments gradleArguments, Writer configWriter, TransientRequestAttributes transientAttributes) {
         ProjectConnection connection = openConnection(gradleArguments);
-        BuildEnvironment buildEnvironment = connection.getModel(BuildEnvironment.class);
-        BuildLauncher launcher = connection.newBuild();
-        applyConfiguration(launcher, gradleArguments, buildEnvironment, configWriter, transientAttributes);
-        return (BuildLauncher) newProxyInstance(connection, launcher);
+        try {
+            BuildEnvironment buildEnvironment = BUILD_ENVIRONMENTS.get(gradleArguments, connection, transientAttributes);
+            BuildLauncher launcher = connection.newBuild();
+            applyConfiguration(launcher, gradleArguments, buildEnvironment, configWriter, transientAttributes);
+            return (BuildLauncher) newProxyInstance(connection, launcher);
+        } catch (RuntimeException e) {
+            CorePlugin.projectConnectionPool().release(connection);
+            throw e;
+        }
     }
 
     static TestLauncher newTestLauncher(GradleArguments gradleArguments, Writer configWriter, TransientRequestAttributes transientAttributes) {
         ProjectConnection connection = openConnection(gradleArguments);
-        BuildEnvironment buildEnvironment = connection.getModel(BuildEnvironment.class);
-        TestLauncher launcher = connection.newTestLauncher();
-        applyConfiguration(launcher, gradleArguments, buildEnvironment, configWriter, transientAttributes);
-        return (TestLauncher) newProxyInstance(connection, launcher);
+        try {
+            BuildEnvironment buildEnvironment = BUILD_ENVIRONMENTS.get(gradleArguments, connection, transientAttributes);
+            TestLauncher launcher = connection.newTestLauncher();
+            applyConfiguration(launcher, gradleArguments, buildEnvironment, configWriter, transientAttributes);
+            return (TestLauncher) newProxyInstance(connection, launcher);
+        } catch (RuntimeException e) {
+            CorePlugin.projectConnectionPool().release(connection);
+            throw e;
+        }
     }
 
+    /**
+     * Returns the build environment of the target build. The environment is only queried if it's
+     * not cached or if the cached value is outdated, a cached environment is returned without
+     * acquiring a project connection.
+     */
+    static BuildEnvironment getBuildEnvironment(GradleArguments gradleArguments, TransientRequestAttributes transientAttributes) {
+        BuildEnvironment cached = BUILD_ENVIRONMENTS.getIfPresent(gradleArguments);
+        if (cached != null) {
+            return cached;
+        }
+
+        ProjectConnection connection = openConnection(gradleArguments);
+        try {
+            return BUILD_ENVIRONMENTS.get(gradleArguments, connection, transientAttributes);
+        } finally {
+            CorePlugin.projectConnectionPool().release(connection);
+        }
+    }
+
+    static void invalidateBuildEnvironment(GradleArguments gradleArguments) {
+        BUILD_ENVIRONMENTS.invalidate(gradleArguments);
+    }
+
+    // the connection is released if the launcher can't be created, otherwise when the launcher finished running
     private static ProjectConnection openConnection(GradleArguments gradleArguments) {
-        GradleConnector connector = GradleConnector.newConnector();
-        gradleArguments.applyTo(connector);
-        return connector.connect();
+        return CorePlugin.projectConnectionPool().acquire(gradleArguments);
     }
 
     private static void applyConfiguration(LongRunningOperation operation, GradleArguments gradleArguments, BuildEnvironment buildEnvironment,
@@ -119,15 +179,23 @@ final class ConnectionAwareLauncherProxy implements InvocationHandler {
         operation.withCancellationToken(transientAttributes.getCancellationToken());
     }
 
-    private static <T> BuildAction<Collection<T>> compositeModelQuery(Class<T> model) {
+    private static <T> BuildAction<Map<File, Map.Entry<T, Long>>> compositeModelQuery(Class<T> model) {
         if (Platform.inDevelopmentMode()) {
-            return ideFriendlyCompositeModelQuery(model);
+            return (BuildAction<Map<File, Map.Entry<T, Long>>>) ideFriendlyBuildAction(CompositeModelQuery.class, new Class<?>[] { Class.class }, model);
         } else {
             return new CompositeModelQuery<>(model);
         }
     }
 
-    private static <T> BuildAction<Collection<T>> ideFriendlyCompositeModelQuery(Class<T> model) {
+    private static <T> BuildAction<List<T>> projectScopedModelQuery(Class<T> model, Set<String> projectPaths) {
+        if (Platform.inDevelopmentMode()) {
+            return (BuildAction<List<T>>) ideFriendlyBuildAction(ProjectScopedModelQuery.class, new Class<?>[] { Class.class, Set.class }, model, projectPaths);
+        } else {
+            return new ProjectScopedModelQuery<>(model, projectPaths);
+        }
+    }
+
+    private static BuildAction<?> ideFriendlyBuildAction(Class<?> actionType, Class<?>[] parameterTypes, Object... arguments) {
         // When Buildship is launched from the IDE - as an Eclipse application or as a plugin-in
         // test - the URLs returned by the Equinox class loader is incorrect. This means, the
         // Tooling API is unable to find the referenced build actions and fails with a CNF
@@ -138,8 +206,8 @@ final class ConnectionAwareLauncherProxy implements InvocationHandler {
             ClassLoader tapiClassloader = ProjectConnection.class.getClassLoader();
             URL actionRootUrl = FileLocator.resolve(coreClassloader.getResource(""));
             ideFriendlyCustomActionClassLoader = new URLClassLoader(new URL[] { actionRootUrl }, tapiClassloader);
-            Class<?> actionClass = ideFriendlyCustomActionClassLoader.loadClass(CompositeModelQuery.class.getName());
-            return (BuildAction<Collection<T>>) actionClass.getConstructor(Class.class).newInstance(model);
+            Class<?> actionClass = ideFriendlyCustomActionClassLoader.loadClass(actionType.getName());
+            return (BuildAction<?>) actionClass.getConstructor(parameterTypes).newInstance(arguments);
         } catch (Exception e) {
             throw new GradlePluginsRuntimeException(e);
         }
@@ -204,7 +272,7 @@ final class ConnectionAwareLauncherProxy implements InvocationHandler {
     }
 
     private void closeConnection() {
-        this.connection.close();
+        CorePlugin.projectConnectionPool().release(this.connection);
         if (ideFriendlyCustomActionClassLoader != null) {
             try {
                 ideFriendlyCustomActionClassLoader.close();
@@ -12,9 +12,7 @@ import java.util.Iterator;
 import java.util.Set;
 
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableSet.Builder;
 
-import org.eclipse.buildship.core.configuration.BuildConfiguration;
 import org.eclipse.buildship.core.util.progress.AsyncHandler;
 import org.eclipse.buildship.core.workspace.GradleBuild;
 import org.eclipse.buildship.core.workspace.GradleBuilds;
@@ -27,12 +25,8 @@ public class DefaultGradleBuilds implements GradleBuilds {
 
     private final ImmutableSet<GradleBuild> gradleBuilds;
 
-    public DefaultGradleBuilds(Set<BuildConfiguration> buildConfigs) {
-        Builder<GradleBuild> builds = ImmutableSet.builder();
-        for (BuildConfiguration buildConfig : buildConfigs) {
-            builds.add(new DefaultGradleBuild(buildConfig));
-        }
-        this.gradleBuilds = builds.build();
+    public DefaultGradleBuilds(Set<GradleBuild> gradleBuilds) {
+        this.gradleBuilds = ImmutableSet.copyOf(gradleBuilds);
     }
 
     @Override
@@ -7,42 +7,58 @@
  */
 package org.eclipse.buildship.core.workspace.internal;
 
+import java.io.File;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicates;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 
 import com.gradleware.tooling.toolingmodel.repository.FixedRequestAttributes;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.configuration.BuildConfiguration;
 import org.eclipse.buildship.core.configuration.GradleProjectNature;
 import org.eclipse.buildship.core.configuration.ProjectConfiguration;
+import org.eclipse.buildship.core.event.Event;
+import org.eclipse.buildship.core.event.EventDelivery;
+import org.eclipse.buildship.core.event.EventListener;
 import org.eclipse.buildship.core.workspace.GradleBuild;
 import org.eclipse.buildship.core.workspace.GradleBuilds;
 import org.eclipse.buildship.core.workspace.GradleWorkspaceManager;
+import org.eclipse.buildship.core.workspace.ModelCacheStatistics;
+import org.eclipse.buildship.core.workspace.ProjectDeletedEvent;
 
 /**
  * Default implementation of {@link GradleWorkspaceManager}.
+ * <p/>
+ * There is at most one {@link GradleBuild} instance per root project directory, shared by all
+ * callers. The instance is replaced when the configuration of the build changes, and it is
+ * discarded when the last workspace project belonging to the build is deleted. The unused builds
+ * are removed by a background job, so deleting many projects at once only checks the remaining
+ * projects once.
  *
  * @author Stefan Oehme
  */
-public class DefaultGradleWorkspaceManager implements GradleWorkspaceManager {
+public class DefaultGradleWorkspaceManager implements GradleWorkspaceManager, EventListener {
 
-    private final LoadingCache<BuildConfiguration, GradleBuild> cache = CacheBuilder.newBuilder().build(new CacheLoader<BuildConfiguration, GradleBuild>() {
+    private final Map<File, DefaultGradleBuild> builds = Maps.newHashMap();
+    private final RemoveUnusedBuildsJob removeUnusedBuildsJob = new RemoveUnusedBuildsJob();
 
-        @Override
-        public GradleBuild load(BuildConfiguration buildConfiguration) {
-            return new DefaultGradleBuild(buildConfiguration);
-        }});
+    private DefaultGradleWorkspaceManager() {
+    }
 
     @Override
     public GradleBuild getGradleBuild(FixedRequestAttributes attributes) {
@@ -57,8 +73,14 @@ public class DefaultGradleWorkspaceManager implements GradleWorkspaceManager {
     }
 
     @Override
-    public GradleBuild getGradleBuild(BuildConfiguration buildConfig) {
-        return this.cache.getUnchecked(buildConfig);
+    public synchronized GradleBuild getGradleBuild(BuildConfiguration buildConfig) {
+        File rootDir = buildConfig.getRootProjectDirectory();
+        DefaultGradleBuild build = this.builds.get(rootDir);
+        if (build == null || !build.getBuildConfig().equals(buildConfig)) {
+            build = new DefaultGradleBuild(buildConfig);
+            this.builds.put(rootDir, build);
+        }
+        return build;
     }
 
     @Override
@@ -66,7 +88,7 @@ public class DefaultGradleWorkspaceManager implements GradleWorkspaceManager {
         if (GradleProjectNature.isPresentOn(project)) {
             ProjectConfiguration projectConfiguration = CorePlugin.configurationManager().tryLoadProjectConfiguration(project);
             if (projectConfiguration != null) {
-                return Optional.<GradleBuild>of(new DefaultGradleBuild(projectConfiguration.getBuildConfiguration()));
+                return Optional.of(getGradleBuild(projectConfiguration.getBuildConfiguration()));
             } else {
                 return Optional.absent();
             }
@@ -77,12 +99,59 @@ public class DefaultGradleWorkspaceManager implements GradleWorkspaceManager {
 
     @Override
     public GradleBuilds getGradleBuilds() {
-        return new DefaultGradleBuilds(getBuildConfigs(CorePlugin.workspaceOperations().getAllProjects()));
+        return createGradleBuilds(CorePlugin.workspaceOperations().getAllProjects());
     }
 
     @Override
     public GradleBuilds getGradleBuilds(Set<IProject> projects) {
-        return new DefaultGradleBuilds(getBuildConfigs(projects));
+        return createGradleBuilds(projects);
+    }
+
+    private GradleBuilds createGradleBuilds(Collection<IProject> projects) {
+        ImmutableSet.Builder<GradleBuild> result = ImmutableSet.builder();
+        for (BuildConfiguration buildConfig : getBuildConfigs(projects)) {
+            result.add(getGradleBuild(buildConfig));
+        }
+        return new DefaultGradleBuilds(result.build());
+    }
+
+    @Override
+    public ModelCacheStatistics getModelCacheStatistics() {
+        return DefaultModelProvider.getCacheStatistics();
+    }
+
+    @Override
+    public File getSynchronizationReportFile() {
+        return SynchronizationReport.getReportFile();
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        if (event instanceof ProjectDeletedEvent) {
+            // a job which is already waiting isn't scheduled again, a running one is rescheduled once it's finished
+            this.removeUnusedBuildsJob.schedule();
+        }
+    }
+
+    /*
+     * The used builds are determined under the same lock as the one guarding the creation of the
+     * builds, so a build created in the meantime is not removed.
+     */
+    private synchronized void removeUnusedBuilds() {
+        Set<File> usedRootDirs = FluentIterable.from(getBuildConfigs(CorePlugin.workspaceOperations().getAllProjects())).transform(new Function<BuildConfiguration, File>() {
+
+            @Override
+            public File apply(BuildConfiguration buildConfig) {
+                return buildConfig.getRootProjectDirectory();
+            }
+        }).toSet();
+
+        Iterator<File> rootDirs = this.builds.keySet().iterator();
+        while (rootDirs.hasNext()) {
+            if (!usedRootDirs.contains(rootDirs.next())) {
+                rootDirs.remove();
+            }
+        }
     }
 
     private Set<BuildConfiguration> getBuildConfigs(Collection<IProject> projects) {
@@ -96,4 +165,32 @@ public class DefaultGradleWorkspaceManager implements GradleWorkspaceManager {
         }).filter(Predicates.notNull()).toSet();
     }
 
+    public static DefaultGradleWorkspaceManager createAndRegister() {
+        DefaultGradleWorkspaceManager manager = new DefaultGradleWorkspaceManager();
+        CorePlugin.listenerRegistry().addEventListener(manager, ImmutableSet.<Class<? extends Event>>of(ProjectDeletedEvent.class), EventDelivery.SYNCHRONOUS);
+        return manager;
+    }
+
+    public void close() {
+        CorePlugin.listenerRegistry().removeEventListener(this);
+        this.removeUnusedBuildsJob.cancel();
+    }
+
+    /**
+     * Removes the builds without any workspace projects. Cleaning up the unused builds loads the
+     * configuration of all projects, so it's done in the background.
+     */
+    private final class RemoveUnusedBuildsJob extends Job {
+
+        public RemoveUnusedBuildsJob() {
+            super("Remove unused Gradle builds");
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            removeUnusedBuilds();
+            return Status.OK_STATUS;
+        }
+    }
 }
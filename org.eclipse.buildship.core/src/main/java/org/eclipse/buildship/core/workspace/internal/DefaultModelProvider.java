@@ -8,8 +8,11 @@
  */
 package org.eclipse.buildship.core.workspace.internal;
 
+import java.io.File;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 
@@ -24,14 +27,15 @@ import org.gradle.tooling.model.gradle.GradleBuild;
 import org.gradle.util.GradleVersion;
 
 import com.google.common.base.Supplier;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
 
 import com.gradleware.tooling.toolingmodel.OmniBuildEnvironment;
 import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
+import com.gradleware.tooling.toolingmodel.OmniEclipseProjectDependency;
 import com.gradleware.tooling.toolingmodel.OmniGradleBuild;
 import com.gradleware.tooling.toolingmodel.repository.FetchStrategy;
 import com.gradleware.tooling.toolingmodel.repository.TransientRequestAttributes;
@@ -42,21 +46,25 @@ import com.gradleware.tooling.toolingmodel.repository.internal.DefaultOmniGradle
 import org.eclipse.core.runtime.IProgressMonitor;
 
 import org.eclipse.buildship.core.CorePlugin;
-import org.eclipse.buildship.core.GradlePluginsRuntimeException;
 import org.eclipse.buildship.core.configuration.BuildConfiguration;
+import org.eclipse.buildship.core.configuration.GradleArguments;
 import org.eclipse.buildship.core.console.ProcessStreams;
 import org.eclipse.buildship.core.util.progress.DelegatingProgressListener;
+import org.eclipse.buildship.core.workspace.ModelCacheStatistics;
 import org.eclipse.buildship.core.workspace.ModelProvider;
 
 /**
  * Default implementation of {@link ModelProvider}.
+ * <p/>
+ * The loaded models are stored in a {@link ModelCache} shared by all instances.
  *
  * @author Stefan Oehme
  */
 final class DefaultModelProvider implements ModelProvider {
 
+    private static final ModelCache CACHE = ModelCache.create();
+
     private final BuildConfiguration buildConfiguration;
-    private final Cache<Object, Object> cache = CacheBuilder.newBuilder().build();
 
     public DefaultModelProvider(BuildConfiguration buildConfiguration) {
         this.buildConfiguration = buildConfiguration;
@@ -64,26 +72,41 @@ final class DefaultModelProvider implements ModelProvider {
 
     @Override
     public <T> T fetchModel(Class<T> model, FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor) {
-        TransientRequestAttributes transientAttributes = getTransientRequestAttributes(token, monitor);
-        ModelBuilder<T> builder = ConnectionAwareLauncherProxy.newModelBuilder(model, this.buildConfiguration.toGradleArguments(), transientAttributes);
-        return executeModelBuilder(builder, strategy, model);
+        DelegatingProgressListener progressListener = DelegatingProgressListener.withoutDuplicateLifecycleEvents(monitor);
+        TransientRequestAttributes transientAttributes = getTransientRequestAttributes(token, progressListener);
+        GradleArguments gradleArguments = this.buildConfiguration.toGradleArguments();
+        try {
+            return executeModelBuilder(model, gradleArguments, transientAttributes, strategy);
+        } finally {
+            finishProgress(model, progressListener);
+        }
     }
 
     @Override
     public <T> Collection<T> fetchModels(Class<T> model, FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor) {
-        TransientRequestAttributes transientAttributes = getTransientRequestAttributes(token, monitor);
-        if (supportsCompositeBuilds(token, monitor)) {
-            final BuildActionExecuter<Collection<T>> executer = ConnectionAwareLauncherProxy
-                    .newCompositeModelQueryExecuter(model, DefaultModelProvider.this.buildConfiguration.toGradleArguments(), transientAttributes);
-            return executeBuildActionExecuter(executer, strategy, model);
-        } else {
-            ModelBuilder<T> builder = ConnectionAwareLauncherProxy.newModelBuilder(model, this.buildConfiguration.toGradleArguments(), transientAttributes);
-            return ImmutableList.of(executeModelBuilder(builder, strategy, model));
+        return fetchModels(model, strategy, token, monitor, null);
+    }
+
+    private <T> Collection<T> fetchModels(Class<T> model, FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor, SynchronizationReport.BuildTimings timings) {
+        DelegatingProgressListener progressListener = DelegatingProgressListener.withoutDuplicateLifecycleEvents(monitor);
+        TransientRequestAttributes transientAttributes = getTransientRequestAttributes(token, progressListener);
+        GradleArguments gradleArguments = this.buildConfiguration.toGradleArguments();
+        try {
+            if (supportsCompositeBuilds(gradleArguments, transientAttributes)) {
+                return executeCompositeModelQuery(model, gradleArguments, transientAttributes, strategy, timings);
+            } else {
+                return ImmutableList.of(executeModelBuilder(model, gradleArguments, transientAttributes, strategy));
+            }
+        } finally {
+            finishProgress(model, progressListener);
         }
     }
 
     @Override
     public OmniBuildEnvironment fetchBuildEnvironment(FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor) {
+        if (FetchStrategy.FORCE_RELOAD == strategy) {
+            ConnectionAwareLauncherProxy.invalidateBuildEnvironment(this.buildConfiguration.toGradleArguments());
+        }
         BuildEnvironment model = fetchModel(BuildEnvironment.class, strategy, token, monitor);
         return DefaultOmniBuildEnvironment.from(model);
     }
@@ -96,7 +119,17 @@ final class DefaultModelProvider implements ModelProvider {
 
     @Override
     public Set<OmniEclipseProject> fetchEclipseGradleProjects(FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor) {
-        Collection<EclipseProject> models = fetchModels(EclipseProject.class, strategy, token, monitor);
+        return fetchEclipseGradleProjects(strategy, token, monitor, null);
+    }
+
+    /**
+     * Fetches the Eclipse projects like {@link #fetchEclipseGradleProjects(FetchStrategy, CancellationToken, IProgressMonitor)}
+     * and records the time it took to build the model of each participant of the composite.
+     *
+     * @param timings the timings to record the model fetches in, can be {@code null}
+     */
+    Set<OmniEclipseProject> fetchEclipseGradleProjects(FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor, SynchronizationReport.BuildTimings timings) {
+        Collection<EclipseProject> models = fetchModels(EclipseProject.class, strategy, token, monitor, timings);
         ImmutableSet.Builder<OmniEclipseProject> result = ImmutableSet.builder();
         for (EclipseProject model : models) {
             result.addAll(DefaultOmniEclipseProject.from(model).getAll());
@@ -104,38 +137,140 @@ final class DefaultModelProvider implements ModelProvider {
         return result.build();
     }
 
-    private <T> T executeBuildActionExecuter(final BuildActionExecuter<T> executer, FetchStrategy fetchStrategy, Class<?> cacheKey) {
-        return executeOperation(new Supplier<T>() {
+    @Override
+    public Set<OmniEclipseProject> fetchEclipseGradleProjects(Set<String> projectPaths, FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor) {
+        GradleArguments gradleArguments = this.buildConfiguration.toGradleArguments();
+        DelegatingProgressListener progressListener = DelegatingProgressListener.withoutDuplicateLifecycleEvents(monitor);
+        TransientRequestAttributes transientAttributes = getTransientRequestAttributes(token, progressListener);
+        Collection<EclipseProject> models;
+        boolean compositeModelCached = CACHE.getIfPresent(ModelCache.compositeKey(EclipseProject.class, gradleArguments)) != null;
+        if ((compositeModelCached && FetchStrategy.FORCE_RELOAD != strategy) || !supportsCompositeBuilds(gradleArguments, transientAttributes)) {
+            models = fetchModels(EclipseProject.class, strategy, token, monitor);
+        } else {
+            try {
+                models = executeProjectScopedModelQuery(EclipseProject.class, projectPaths, gradleArguments, transientAttributes, strategy);
+            } finally {
+                finishProgress(EclipseProject.class, progressListener);
+            }
+            // the scoped query skips the included builds without requested projects, even if the requested projects depend on them
+            if (models != null && !containsDependencies(selectProjects(models, projectPaths))) {
+                models = fetchModels(EclipseProject.class, strategy, token, monitor);
+            }
+        }
+        return models == null ? ImmutableSet.<OmniEclipseProject>of() : selectProjects(models, projectPaths);
+    }
 
-            @Override
-            public T get() {
-                return executer.run();
+    /*
+     * Returns the projects with the given paths and the projects they depend on. The project
+     * dependencies reference their target by the name of the Eclipse project.
+     */
+    private static Set<OmniEclipseProject> selectProjects(Collection<EclipseProject> models, Set<String> projectPaths) {
+        Map<String, OmniEclipseProject> projectsByName = Maps.newHashMap();
+        Deque<OmniEclipseProject> queue = Queues.newArrayDeque();
+        Set<File> rootDirs = Sets.newHashSet();
+        for (EclipseProject model : models) {
+            EclipseProject root = model;
+            while (root.getParent() != null) {
+                root = root.getParent();
+            }
+            if (rootDirs.add(root.getProjectDirectory())) {
+                for (OmniEclipseProject project : DefaultOmniEclipseProject.from(root).getAll()) {
+                    projectsByName.put(project.getName(), project);
+                    if (projectPaths.contains(project.getPath().getPath())) {
+                        queue.add(project);
+                    }
+                }
             }
-        }, fetchStrategy, cacheKey);
+        }
+
+        Set<OmniEclipseProject> result = Sets.newLinkedHashSet();
+        while (!queue.isEmpty()) {
+            OmniEclipseProject project = queue.remove();
+            if (result.add(project)) {
+                for (OmniEclipseProjectDependency dependency : project.getProjectDependencies()) {
+                    OmniEclipseProject target = projectsByName.get(dependency.getPath());
+                    if (target != null) {
+                        queue.add(target);
+                    }
+                }
+            }
+        }
+        return result;
     }
 
-    private <T> T executeModelBuilder(final ModelBuilder<T> builder, FetchStrategy fetchStrategy, Class<?> cacheKey) {
+    private static boolean containsDependencies(Set<OmniEclipseProject> projects) {
+        Set<String> projectNames = Sets.newHashSet();
+        for (OmniEclipseProject project : projects) {
+            projectNames.add(project.getName());
+        }
+        for (OmniEclipseProject project : projects) {
+            for (OmniEclipseProjectDependency dependency : project.getProjectDependencies()) {
+                if (!projectNames.contains(dependency.getPath())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private <T> T executeModelBuilder(final Class<T> model, final GradleArguments gradleArguments, final TransientRequestAttributes transientAttributes, FetchStrategy fetchStrategy) {
         return executeOperation(new Supplier<T>() {
 
             @Override
             public T get() {
+                ModelBuilder<T> builder = ConnectionAwareLauncherProxy.newModelBuilder(model, gradleArguments, transientAttributes);
                 return builder.get();
             }
-        }, fetchStrategy, cacheKey);
+        }, fetchStrategy, ModelCache.singleBuildKey(model, gradleArguments));
+    }
+
+    private <T> Collection<T> executeCompositeModelQuery(final Class<T> model, final GradleArguments gradleArguments, final TransientRequestAttributes transientAttributes, FetchStrategy fetchStrategy,
+            final SynchronizationReport.BuildTimings timings) {
+        return executeOperation(new Supplier<Collection<T>>() {
+
+            @Override
+            public Collection<T> get() {
+                BuildActionExecuter<Map<File, Map.Entry<T, Long>>> executer = ConnectionAwareLauncherProxy.newCompositeModelQueryExecuter(model, gradleArguments, transientAttributes);
+                ImmutableList.Builder<T> models = ImmutableList.builder();
+                for (Map.Entry<File, Map.Entry<T, Long>> participant : executer.run().entrySet()) {
+                    models.add(participant.getValue().getKey());
+                    if (timings != null) {
+                        timings.recordModelFetch(participant.getKey(), participant.getValue().getValue());
+                    }
+                }
+                return models.build();
+            }
+        }, fetchStrategy, ModelCache.compositeKey(model, gradleArguments));
+    }
+
+    private <T> List<T> executeProjectScopedModelQuery(final Class<T> model, final Set<String> projectPaths, final GradleArguments gradleArguments, final TransientRequestAttributes transientAttributes,
+            FetchStrategy fetchStrategy) {
+        return executeOperation(new Supplier<List<T>>() {
+
+            @Override
+            public List<T> get() {
+                BuildActionExecuter<List<T>> executer = ConnectionAwareLauncherProxy.newProjectScopedModelQueryExecuter(model, projectPaths, gradleArguments, transientAttributes);
+                return executer.run();
+            }
+        }, fetchStrategy, ModelCache.projectScopedKey(model, projectPaths, gradleArguments));
     }
 
-    private <T> T executeOperation(final Supplier<T> operation, FetchStrategy fetchStrategy, Class<?> cacheKey) {
+    /*
+     * The operation creates the launcher and hence acquires a project connection, it's only invoked if
+     * the model is not served from the cache.
+     */
+    private <T> T executeOperation(final Supplier<T> operation, FetchStrategy fetchStrategy, ModelCache.Key cacheKey) {
         if (FetchStrategy.FROM_CACHE_ONLY == fetchStrategy) {
             @SuppressWarnings("unchecked")
-            T result = (T) this.cache.getIfPresent(cacheKey);
+            T result = (T) CACHE.getIfPresent(cacheKey);
             return result;
         }
 
         if (FetchStrategy.FORCE_RELOAD == fetchStrategy) {
-            this.cache.invalidate(cacheKey);
+            CACHE.invalidate(cacheKey);
         }
 
-        T value = getFromCache(cacheKey, new Callable<T>() {
+        T value = CACHE.get(cacheKey, new Callable<T>() {
 
             @Override
             public T call() {
@@ -147,29 +282,33 @@ final class DefaultModelProvider implements ModelProvider {
         return value;
     }
 
-    private <U> U getFromCache(Class<?> cacheKey, Callable<U> cacheValueLoader) {
-        try {
-            @SuppressWarnings("unchecked")
-            U result = (U) this.cache.get(cacheKey, cacheValueLoader);
-            return result;
-        } catch (Exception e) {
-            if (e instanceof UncheckedExecutionException && e.getCause() instanceof RuntimeException) {
-                throw (RuntimeException)e.getCause();
-            } else {
-                throw new GradlePluginsRuntimeException(e);
-            }
-        }
-    }
-
-    private boolean supportsCompositeBuilds(CancellationToken token, IProgressMonitor monitor) {
-        BuildEnvironment buildEnvironment = fetchModel(BuildEnvironment.class, FetchStrategy.FORCE_RELOAD, token, monitor);
+    private static boolean supportsCompositeBuilds(GradleArguments gradleArguments, TransientRequestAttributes transientAttributes) {
+        BuildEnvironment buildEnvironment = ConnectionAwareLauncherProxy.getBuildEnvironment(gradleArguments, transientAttributes);
         GradleVersion gradleVersion = GradleVersion.version(buildEnvironment.getGradle().getGradleVersion());
         return gradleVersion.getBaseVersion().compareTo(GradleVersion.version("3.3")) >= 0;
     }
 
-    private static TransientRequestAttributes getTransientRequestAttributes(CancellationToken token, IProgressMonitor monitor) {
+    /**
+     * Returns the statistics of the cache shared by the model providers.
+     *
+     * @return the cache statistics
+     */
+    static ModelCacheStatistics getCacheStatistics() {
+        return CACHE.getStatistics();
+    }
+
+    private static void finishProgress(Class<?> model, DelegatingProgressListener progressListener) {
+        progressListener.finish();
+        // models served from the cache don't produce any events
+        if (progressListener.getEventCount() > 0) {
+            CorePlugin.logger().debug(String.format("Received %d progress events (%.1f per second) while fetching %s model",
+                    progressListener.getEventCount(), progressListener.getEventRate(), model.getSimpleName()));
+        }
+    }
+
+    private static TransientRequestAttributes getTransientRequestAttributes(CancellationToken token, DelegatingProgressListener progressListener) {
         ProcessStreams streams = CorePlugin.processStreamsProvider().getBackgroundJobProcessStreams();
-        List<ProgressListener> progressListeners = ImmutableList.<ProgressListener>of(DelegatingProgressListener.withoutDuplicateLifecycleEvents(monitor));
+        List<ProgressListener> progressListeners = ImmutableList.<ProgressListener>of(progressListener);
         ImmutableList<org.gradle.tooling.events.ProgressListener> noEventListeners = ImmutableList.<org.gradle.tooling.events.ProgressListener>of();
         if (token == null) {
             token = GradleConnector.newCancellationTokenSource().token();
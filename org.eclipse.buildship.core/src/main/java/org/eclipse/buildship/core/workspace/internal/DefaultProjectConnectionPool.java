@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.gradle.tooling.GradleConnector;
+import org.gradle.tooling.ProjectConnection;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+import com.gradleware.tooling.toolingclient.GradleDistribution;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.configuration.GradleArguments;
+import org.eclipse.buildship.core.util.preference.AdvancedPreferences;
+import org.eclipse.buildship.core.workspace.ProjectConnectionPool;
+
+/**
+ * Default implementation of {@link ProjectConnectionPool}.
+ * <p/>
+ * There is at most one open connection for each connection setting, shared by all clients as the
+ * Tooling API connections are thread-safe. A connection is closed when it wasn't used for the idle
+ * timeout, or when the number of unused connections exceeds the maximum size of the pool, in which
+ * case the least recently used one is closed first. The limits are defined by
+ * {@link AdvancedPreferences}.
+ */
+public final class DefaultProjectConnectionPool implements ProjectConnectionPool {
+
+    private final int maximumSize;
+    private final long idleTimeoutMillis;
+
+    // ordered by access, the least recently used connection is the first
+    private final Map<ConnectionKey, PooledConnection> connections;
+    private final Map<ProjectConnection, PooledConnection> leasedConnections;
+    private final IdleConnectionReaper reaper;
+
+    private DefaultProjectConnectionPool(int maximumSize, long idleTimeoutMillis) {
+        this.maximumSize = maximumSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.connections = new LinkedHashMap<ConnectionKey, PooledConnection>(16, 0.75f, true);
+        this.leasedConnections = new IdentityHashMap<ProjectConnection, PooledConnection>();
+        this.reaper = new IdleConnectionReaper();
+    }
+
+    @Override
+    public ProjectConnection acquire(GradleArguments gradleArguments) {
+        ConnectionKey key = ConnectionKey.from(gradleArguments);
+        synchronized (this) {
+            PooledConnection pooledConnection = this.connections.get(key);
+            if (pooledConnection == null) {
+                pooledConnection = new PooledConnection(connect(gradleArguments));
+                this.connections.put(key, pooledConnection);
+            }
+            pooledConnection.leases++;
+            this.leasedConnections.put(pooledConnection.connection, pooledConnection);
+            return pooledConnection.connection;
+        }
+    }
+
+    @Override
+    public void release(ProjectConnection connection) {
+        List<PooledConnection> toClose = Lists.newArrayList();
+        synchronized (this) {
+            PooledConnection pooledConnection = this.leasedConnections.get(connection);
+            if (pooledConnection == null) {
+                // not acquired from the pool
+                connection.close();
+                return;
+            }
+
+            pooledConnection.leases--;
+            pooledConnection.lastReleased = System.currentTimeMillis();
+            if (pooledConnection.leases == 0) {
+                this.leasedConnections.remove(connection);
+                if (pooledConnection.evicted) {
+                    toClose.add(pooledConnection);
+                }
+            }
+            collectOverflow(toClose);
+        }
+        closeAll(toClose);
+        this.reaper.schedule(this.idleTimeoutMillis);
+    }
+
+    @Override
+    public void evict(File rootDir) {
+        Preconditions.checkNotNull(rootDir);
+        List<PooledConnection> toClose = Lists.newArrayList();
+        synchronized (this) {
+            Iterator<Map.Entry<ConnectionKey, PooledConnection>> iterator = this.connections.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<ConnectionKey, PooledConnection> entry = iterator.next();
+                if (entry.getKey().rootDir.equals(rootDir)) {
+                    iterator.remove();
+                    markEvicted(entry.getValue(), toClose);
+                }
+            }
+        }
+        closeAll(toClose);
+    }
+
+    @Override
+    public void evictAll() {
+        List<PooledConnection> toClose = Lists.newArrayList();
+        synchronized (this) {
+            for (PooledConnection pooledConnection : this.connections.values()) {
+                markEvicted(pooledConnection, toClose);
+            }
+            this.connections.clear();
+        }
+        closeAll(toClose);
+    }
+
+    /**
+     * Closes the connections that exceeded the idle timeout.
+     *
+     * @return the number of milliseconds until the next idle connection expires, or -1 if there
+     *         are no idle connections left
+     */
+    private long closeIdleConnections() {
+        List<PooledConnection> toClose = Lists.newArrayList();
+        long nextExpiration = -1;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            Iterator<PooledConnection> iterator = this.connections.values().iterator();
+            while (iterator.hasNext()) {
+                PooledConnection pooledConnection = iterator.next();
+                if (pooledConnection.leases == 0) {
+                    long remaining = pooledConnection.lastReleased + this.idleTimeoutMillis - now;
+                    if (remaining <= 0) {
+                        iterator.remove();
+                        toClose.add(pooledConnection);
+                    } else if (nextExpiration < 0 || remaining < nextExpiration) {
+                        nextExpiration = remaining;
+                    }
+                }
+            }
+        }
+        closeAll(toClose);
+        return nextExpiration;
+    }
+
+    private void collectOverflow(List<PooledConnection> toClose) {
+        int idleConnections = 0;
+        for (PooledConnection pooledConnection : this.connections.values()) {
+            if (pooledConnection.leases == 0) {
+                idleConnections++;
+            }
+        }
+
+        Iterator<PooledConnection> iterator = this.connections.values().iterator();
+        while (idleConnections > this.maximumSize && iterator.hasNext()) {
+            PooledConnection pooledConnection = iterator.next();
+            if (pooledConnection.leases == 0) {
+                iterator.remove();
+                toClose.add(pooledConnection);
+                idleConnections--;
+            }
+        }
+    }
+
+    private static void markEvicted(PooledConnection pooledConnection, List<PooledConnection> toClose) {
+        pooledConnection.evicted = true;
+        if (pooledConnection.leases == 0) {
+            toClose.add(pooledConnection);
+        }
+    }
+
+    private static void closeAll(List<PooledConnection> pooledConnections) {
+        // closing a connection can block, hence it's done outside of the synchronized blocks
+        for (PooledConnection pooledConnection : pooledConnections) {
+            try {
+                pooledConnection.connection.close();
+            } catch (Exception e) {
+                CorePlugin.logger().warn("Cannot close Gradle project connection", e);
+            }
+        }
+    }
+
+    private static ProjectConnection connect(GradleArguments gradleArguments) {
+        GradleConnector connector = GradleConnector.newConnector();
+        gradleArguments.applyTo(connector);
+        return connector.connect();
+    }
+
+    public static DefaultProjectConnectionPool create() {
+        int maximumSize = Math.max(AdvancedPreferences.getConnectionPoolMaximumSize(), 0);
+        long idleTimeoutMillis = TimeUnit.SECONDS.toMillis(Math.max(AdvancedPreferences.getConnectionPoolIdleTimeoutSeconds(), 0));
+        return new DefaultProjectConnectionPool(maximumSize, idleTimeoutMillis);
+    }
+
+    public void close() {
+        this.reaper.cancel();
+        evictAll();
+    }
+
+    /**
+     * The connection settings of a {@link GradleArguments} instance.
+     */
+    private static final class ConnectionKey {
+
+        private final File rootDir;
+        private final GradleDistribution gradleDistribution;
+        private final File gradleUserHome;
+
+        private ConnectionKey(File rootDir, GradleDistribution gradleDistribution, File gradleUserHome) {
+            this.rootDir = Preconditions.checkNotNull(rootDir);
+            this.gradleDistribution = Preconditions.checkNotNull(gradleDistribution);
+            this.gradleUserHome = gradleUserHome;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof ConnectionKey) {
+                ConnectionKey other = (ConnectionKey) obj;
+                return this.rootDir.equals(other.rootDir)
+                        && this.gradleDistribution.equals(other.gradleDistribution)
+                        && Objects.equal(this.gradleUserHome, other.gradleUserHome);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(this.rootDir, this.gradleDistribution, this.gradleUserHome);
+        }
+
+        private static ConnectionKey from(GradleArguments gradleArguments) {
+            return new ConnectionKey(gradleArguments.getRootDir(), gradleArguments.getGradleDistribution(), gradleArguments.getGradleUserHome());
+        }
+    }
+
+    /**
+     * A pooled connection along with its usage information.
+     */
+    private static final class PooledConnection {
+
+        private final ProjectConnection connection;
+        private int leases;
+        private long lastReleased;
+        private boolean evicted;
+
+        private PooledConnection(ProjectConnection connection) {
+            this.connection = Preconditions.checkNotNull(connection);
+        }
+    }
+
+    /**
+     * Closes the connections that exceeded the idle timeout.
+     */
+    private final class IdleConnectionReaper extends Job {
+
+        public IdleConnectionReaper() {
+            super("Closing idle Gradle connections");
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            long nextExpiration = closeIdleConnections();
+            if (nextExpiration >= 0) {
+                schedule(nextExpiration);
+            }
+            return Status.OK_STATUS;
+        }
+    }
+}
@@ -45,35 +45,29 @@ import org.eclipse.buildship.core.workspace.WorkspaceOperations;
  */
 public class DefaultWorkspaceOperations implements WorkspaceOperations {
 
+    private final WorkspaceProjectIndex projectIndex;
+
+    public DefaultWorkspaceOperations() {
+        this(new WorkspaceProjectIndex());
+    }
+
+    public DefaultWorkspaceOperations(WorkspaceProjectIndex projectIndex) {
+        this.projectIndex = Preconditions.checkNotNull(projectIndex);
+    }
+
     @Override
     public ImmutableList<IProject> getAllProjects() {
         return ImmutableList.copyOf(ResourcesPlugin.getWorkspace().getRoot().getProjects());
     }
 
     @Override
-    public Optional<IProject> findProjectByName(final String name) {
-        return FluentIterable.from(getAllProjects()).firstMatch(new Predicate<IProject>() {
-
-            @Override
-            public boolean apply(IProject project) {
-                return project.getName().equals(name);
-            }
-        });
+    public Optional<IProject> findProjectByName(String name) {
+        return this.projectIndex.findByName(name);
     }
 
     @Override
-    public Optional<IProject> findProjectByLocation(final File directory) {
-        return FluentIterable.from(getAllProjects()).firstMatch(new Predicate<IProject>() {
-
-            @Override
-            public boolean apply(IProject project) {
-                IPath location = project.getLocation();
-                // since Eclipse 3.4 projects can be non-local and they could return null locations
-                // for Buildship this is not the case, Gradle projects are always available on the
-                // local file system
-                return location != null && location.toFile().equals(directory);
-            }
-        });
+    public Optional<IProject> findProjectByLocation(File directory) {
+        return this.projectIndex.findByLocation(directory);
     }
 
     @Override
@@ -111,6 +105,7 @@ public class DefaultWorkspaceOperations implements WorkspaceOperations {
             projectDescription.setComment(String.format("Project %s created by Buildship.", name));
             IProject project = workspace.getRoot().getProject(name);
             project.create(projectDescription, progress.newChild(1));
+            this.projectIndex.add(project);
 
             // open the project
             project.open(IResource.NONE, progress.newChild(1));
@@ -143,6 +138,7 @@ public class DefaultWorkspaceOperations implements WorkspaceOperations {
             IWorkspace workspace = ResourcesPlugin.getWorkspace();
             IProject project = workspace.getRoot().getProject(projectName);
             project.create(projectDescription, progress.newChild(1));
+            this.projectIndex.add(project);
 
             // open the project
             project.open(IResource.NONE, progress.newChild(1));
@@ -352,6 +348,8 @@ public class DefaultWorkspaceOperations implements WorkspaceOperations {
             IProjectDescription description = project.getDescription();
             description.setName(newName);
             project.move(description, false, progress.newChild(1));
+            this.projectIndex.remove(project);
+            this.projectIndex.add(ResourcesPlugin.getWorkspace().getRoot().getProject(newName));
         } catch (CoreException e) {
             throw new GradlePluginsRuntimeException(e);
         }
@@ -11,17 +11,27 @@
 
 package org.eclipse.buildship.core.workspace.internal;
 
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.jdt.core.ClasspathContainerInitializer;
 import org.eclipse.jdt.core.IClasspathContainer;
+import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 
 import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.configuration.GradleProjectNature;
 import org.eclipse.buildship.core.workspace.GradleBuild;
+import org.eclipse.buildship.core.workspace.GradleClasspathContainer;
 
 /**
  * Updates the Gradle classpath container of the given Java workspace project.
@@ -29,16 +39,69 @@ import org.eclipse.buildship.core.workspace.GradleBuild;
  * This initializer is assigned to the projects via the
  * {@code org.eclipse.jdt.core.classpathContainerInitializer} extension point.
  * <p/>
+ * JDT initializes the containers one project at a time. To avoid a separate Java model update for
+ * each project at startup, the first initialization sets the containers of all Gradle projects
+ * which have a stored classpath in one batch. As JDT only initializes the containers which aren't
+ * set yet, the later calls only happen for the projects which were not part of the batch. If the
+ * batch fails, the project is initialized on its own and the batch is retried once with the next
+ * one; after that the projects are always initialized on their own.
  *
  * @see GradleClasspathContainerUpdater
  */
 public final class GradleClasspathContainerInitializer extends ClasspathContainerInitializer {
 
+    private static final int MAX_BATCH_ATTEMPTS = 2;
+
+    private final AtomicInteger remainingBatchAttempts = new AtomicInteger(MAX_BATCH_ATTEMPTS);
+
     @Override
     public void initialize(IPath containerPath, IJavaProject javaProject) throws JavaModelException {
+        // setting the remaining attempts to zero prevents concurrent batches
+        int remainingAttempts = this.remainingBatchAttempts.get();
+        if (remainingAttempts > 0 && this.remainingBatchAttempts.compareAndSet(remainingAttempts, 0)) {
+            try {
+                Set<IJavaProject> initializedProjects = GradleClasspathContainerUpdater.updateFromStorage(collectGradleJavaProjects(javaProject), null);
+                if (initializedProjects.contains(javaProject)) {
+                    return;
+                }
+            } catch (Exception e) {
+                // retry the batch with the next project, and initialize the current one on its own
+                this.remainingBatchAttempts.set(remainingAttempts - 1);
+                CorePlugin.logger().warn("Failed to initialize the Gradle classpath containers of the workspace projects", e);
+            }
+        }
         loadClasspath(javaProject);
     }
 
+    private static List<IJavaProject> collectGradleJavaProjects(IJavaProject requestedProject) {
+        List<IJavaProject> result = Lists.newArrayList(requestedProject);
+        for (IProject project : CorePlugin.workspaceOperations().getAllProjects()) {
+            if (!project.equals(requestedProject.getProject()) && project.isAccessible() && GradleProjectNature.isPresentOn(project)) {
+                IJavaProject javaProject = JavaCore.create(project);
+                if (hasGradleClasspathContainer(javaProject)) {
+                    result.add(javaProject);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean hasGradleClasspathContainer(IJavaProject javaProject) {
+        try {
+            if (!javaProject.getProject().hasNature(JavaCore.NATURE_ID)) {
+                return false;
+            }
+            for (IClasspathEntry entry : javaProject.getRawClasspath()) {
+                if (entry.getEntryKind() == IClasspathEntry.CPE_CONTAINER && entry.getPath().equals(GradleClasspathContainer.CONTAINER_PATH)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (CoreException e) {
+            return false;
+        }
+    }
+
     @Override
     public void requestClasspathContainerUpdate(IPath containerPath, IJavaProject javaProject, IClasspathContainer containerSuggestion) throws JavaModelException {
         loadClasspath(javaProject);
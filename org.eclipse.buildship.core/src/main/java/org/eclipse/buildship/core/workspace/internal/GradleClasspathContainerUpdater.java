@@ -13,15 +13,19 @@
 package org.eclipse.buildship.core.workspace.internal;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
@@ -59,9 +63,14 @@ import org.eclipse.buildship.core.workspace.GradleClasspathContainer;
  */
 final class GradleClasspathContainerUpdater {
 
+    // the entries last assigned to the containers, all assignments are done through this class
+    private static final ConcurrentMap<IJavaProject, List<IClasspathEntry>> ASSIGNED_ENTRIES = Maps.newConcurrentMap();
+
     private final IJavaProject eclipseProject;
     private final OmniEclipseProject gradleProject;
     private final Map<File, OmniEclipseProject> projectDirToProject;
+    private ImmutableList<IClasspathEntry> containerEntries;
+    private boolean hasMissingDependencies;
 
     private GradleClasspathContainerUpdater(IJavaProject eclipseProject, OmniEclipseProject gradleProject, Set<OmniEclipseProject> allGradleProjects) {
         this.eclipseProject = Preconditions.checkNotNull(eclipseProject);
@@ -70,12 +79,24 @@ final class GradleClasspathContainerUpdater {
         for (OmniEclipseProject project : gradleProject.getRoot().getAll()) {
             this.projectDirToProject.put(project.getProjectDirectory(), project);
         }
+        this.containerEntries = collectClasspathContainerEntries();
+    }
+
+    void update(PersistentModelBuilder persistentModel, IProgressMonitor monitor) throws JavaModelException {
+        // missing dependencies can point to linked resources that might have been created since the entries were collected
+        if (this.hasMissingDependencies) {
+            this.containerEntries = collectClasspathContainerEntries();
+        }
+        if (!isContainerUpToDate()) {
+            setClasspathContainer(this.eclipseProject, this.containerEntries, monitor);
+        }
+        persistentModel.classpath(this.containerEntries);
     }
 
-    private void updateClasspathContainer(PersistentModelBuilder persistentModel, IProgressMonitor monitor) throws JavaModelException {
-        ImmutableList<IClasspathEntry> containerEntries = collectClasspathContainerEntries();
-        setClasspathContainer(this.eclipseProject, containerEntries, monitor);
-        persistentModel.classpath(containerEntries);
+    private boolean isContainerUpToDate() {
+        // the persisted entries are not necessarily assigned to the container, e.g. if the initializer
+        // cleared it after a failed load; querying the container instead could run the initializer
+        return this.containerEntries.equals(ASSIGNED_ENTRIES.get(this.eclipseProject));
     }
 
     private ImmutableList<IClasspathEntry> collectClasspathContainerEntries() {
@@ -103,6 +124,7 @@ final class GradleClasspathContainerUpdater {
 
     private List<IClasspathEntry> collectExternalDependencies() {
         Builder<IClasspathEntry> result = ImmutableList.builder();
+        this.hasMissingDependencies = false;
         for (OmniExternalDependency dependency : this.gradleProject.getExternalDependencies()) {
             File dependencyFile = dependency.getFile();
             boolean linkedResourceCreated = tryCreatingLinkedResource(dependencyFile, result);
@@ -124,6 +146,7 @@ final class GradleClasspathContainerUpdater {
 
     private boolean tryCreatingLinkedResource(File dependencyFile, Builder<IClasspathEntry> result) {
         if (!dependencyFile.exists()) {
+            this.hasMissingDependencies = true;
             IPath path = new Path("/" + dependencyFile.getPath());
             IResource member = this.eclipseProject.getProject().findMember(path);
             if (member != null) {
@@ -150,8 +173,16 @@ final class GradleClasspathContainerUpdater {
      * The container will be persisted so it does not have to be reloaded after the workbench is restarted.
      */
     public static void updateFromModel(IJavaProject eclipseProject, OmniEclipseProject gradleProject, Set<OmniEclipseProject> allGradleProjects, PersistentModelBuilder persistentModel, IProgressMonitor monitor) throws JavaModelException {
-        GradleClasspathContainerUpdater updater = new GradleClasspathContainerUpdater(eclipseProject, gradleProject, allGradleProjects);
-        updater.updateClasspathContainer(persistentModel, monitor);
+        prepare(eclipseProject, gradleProject, allGradleProjects).update(persistentModel, monitor);
+    }
+
+    /**
+     * Collects the classpath container entries from the Gradle model without modifying the project.
+     * The container is updated when the {@code update(PersistentModelBuilder, IProgressMonitor)}
+     * method of the returned updater is called.
+     */
+    static GradleClasspathContainerUpdater prepare(IJavaProject eclipseProject, OmniEclipseProject gradleProject, Set<OmniEclipseProject> allGradleProjects) {
+        return new GradleClasspathContainerUpdater(eclipseProject, gradleProject, allGradleProjects);
     }
 
     /**
@@ -167,6 +198,34 @@ final class GradleClasspathContainerUpdater {
         }
     }
 
+    /**
+     * Updates the classpath containers of several projects from their stored state with a single
+     * JDT operation, so the projects share one Java model delta. The projects without a stored
+     * state are skipped.
+     *
+     * @return the projects whose classpath container was updated
+     */
+    public static Set<IJavaProject> updateFromStorage(Collection<IJavaProject> eclipseProjects, IProgressMonitor monitor) throws JavaModelException {
+        List<IJavaProject> projects = Lists.newArrayListWithCapacity(eclipseProjects.size());
+        List<IClasspathContainer> containers = Lists.newArrayListWithCapacity(eclipseProjects.size());
+        for (IJavaProject eclipseProject : eclipseProjects) {
+            PersistentModel model = CorePlugin.modelPersistence().loadModel(eclipseProject.getProject());
+            if (model.isPresent()) {
+                projects.add(eclipseProject);
+                containers.add(GradleClasspathContainer.newInstance(model.getClasspath()));
+            }
+        }
+
+        if (!projects.isEmpty()) {
+            JavaCore.setClasspathContainer(GradleClasspathContainer.CONTAINER_PATH, projects.toArray(new IJavaProject[projects.size()]),
+                    containers.toArray(new IClasspathContainer[containers.size()]), monitor);
+            for (int i = 0; i < projects.size(); i++) {
+                ASSIGNED_ENTRIES.put(projects.get(i), ImmutableList.copyOf(containers.get(i).getClasspathEntries()));
+            }
+        }
+        return ImmutableSet.copyOf(projects);
+    }
+
     /**
      * Resolves the classpath container to an empty list.
      */
@@ -177,6 +236,7 @@ final class GradleClasspathContainerUpdater {
     private static void setClasspathContainer(IJavaProject eclipseProject, List<IClasspathEntry> classpathEntries, IProgressMonitor monitor) throws JavaModelException {
         IClasspathContainer classpathContainer = GradleClasspathContainer.newInstance(classpathEntries);
         JavaCore.setClasspathContainer(GradleClasspathContainer.CONTAINER_PATH, new IJavaProject[]{eclipseProject}, new IClasspathContainer[]{classpathContainer}, monitor);
+        ASSIGNED_ENTRIES.put(eclipseProject, ImmutableList.copyOf(classpathEntries));
     }
 
 }
@@ -25,6 +25,9 @@ import com.gradleware.tooling.toolingmodel.util.Maybe;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -47,21 +50,29 @@ final class GradleFolderUpdater {
 
     private final IProject workspaceProject;
     private final OmniEclipseProject modelProject;
+    private final GradleFolderInfo folderInfo;
 
-    private GradleFolderUpdater(IProject workspaceProject, OmniEclipseProject modelProject) {
+    private GradleFolderUpdater(IProject workspaceProject, OmniEclipseProject modelProject, ProjectDirectoryTrie projectDirectories) {
         this.workspaceProject = Preconditions.checkNotNull(workspaceProject);
         this.modelProject = Preconditions.checkNotNull(modelProject);
+        this.folderInfo = collectFolderInfo(projectDirectories);
     }
 
-    private void update(PersistentModelBuilder persistentModel, IProgressMonitor monitor) {
-        SubMonitor progress = SubMonitor.convert(monitor, 3);
+    void update(final PersistentModelBuilder persistentModel, IProgressMonitor monitor) {
+        final Collection<IPath> folderPaths = this.folderInfo.toPathList();
+        persistentModel.buildDir(this.folderInfo.getProjectBuildDir());
+        persistentModel.subprojectPaths(this.folderInfo.getNestedProjectPaths());
         try {
-            GradleFolderInfo folderInfo = collectFolderInfo(progress.newChild(1));
-            Collection<IPath> folderPaths = folderInfo.toPathList();
-            persistentModel.buildDir(folderInfo.getProjectBuildDir());
-            persistentModel.subprojectPaths(folderInfo.getNestedProjectPaths());
-            removePreviousMarkers(folderPaths, persistentModel, progress.newChild(1));
-            addNewMarkers(folderPaths, persistentModel, progress.newChild(1));
+            // update all markers in one operation
+            ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+
+                @Override
+                public void run(IProgressMonitor monitor) throws CoreException {
+                    SubMonitor progress = SubMonitor.convert(monitor, 2);
+                    removePreviousMarkers(folderPaths, persistentModel, progress.newChild(1));
+                    addNewMarkers(folderPaths, persistentModel, progress.newChild(1));
+                }
+            }, this.workspaceProject, IWorkspace.AVOID_UPDATE, monitor);
         } catch (CoreException e) {
             String message = String.format("Could not update folder information on project %s.", this.workspaceProject.getName());
             throw new GradlePluginsRuntimeException(message, e);
@@ -72,26 +83,33 @@ final class GradleFolderUpdater {
         }
     }
 
-    private GradleFolderInfo collectFolderInfo(IProgressMonitor monitor) {
+    /**
+     * Returns the project-relative paths of the folders which are marked as derived.
+     *
+     * @return the paths of the derived folders
+     */
+    Collection<IPath> getFolderPaths() {
+        return this.folderInfo.toPathList();
+    }
+
+    private GradleFolderInfo collectFolderInfo(ProjectDirectoryTrie projectDirectories) {
         IPath currentProjectPath = this.workspaceProject.getLocation();
 
         IPath currentProjectBuildDirPath = new Path(DEFAULT_BUILD_DIR_NAME);
         List<IPath> nestedProjectPaths = Lists.newArrayList();
         List<IPath> nestedBuildDirPaths = Lists.newArrayList();
 
-        for (OmniEclipseProject project : this.modelProject.getAll()) {
+        for (OmniEclipseProject project : projectDirectories.getProjectsUnder(currentProjectPath)) {
             OmniGradleProject gradleProject = project.getGradleProject();
             IPath projectPath = Path.fromOSString(project.getProjectDirectory().getPath());
-            if (currentProjectPath.isPrefixOf(projectPath)) {
-                IPath relativePath = RelativePathUtils.getRelativePath(currentProjectPath, projectPath);
-                IPath buildDirPath = getBuildDirectoryPath(gradleProject.getBuildDirectory(), relativePath);
-                if (relativePath.segmentCount() == 0) {
-                    currentProjectBuildDirPath = buildDirPath;
-                } else {
-                    nestedProjectPaths.add(relativePath);
-                    if (buildDirPath != null) {
-                        nestedBuildDirPaths.add(buildDirPath);
-                    }
+            IPath relativePath = RelativePathUtils.getRelativePath(currentProjectPath, projectPath);
+            IPath buildDirPath = getBuildDirectoryPath(gradleProject.getBuildDirectory(), relativePath);
+            if (relativePath.segmentCount() == 0) {
+                currentProjectBuildDirPath = buildDirPath;
+            } else {
+                nestedProjectPaths.add(relativePath);
+                if (buildDirPath != null) {
+                    nestedBuildDirPaths.add(buildDirPath);
                 }
             }
         }
@@ -105,7 +123,7 @@ final class GradleFolderUpdater {
         progress.setWorkRemaining(previouslyKnownPaths.size());
         for (IPath resourcePath : previouslyKnownPaths) {
             IResource resource = this.workspaceProject.findMember(resourcePath);
-            if (resource != null) {
+            if (resource != null && resource.isDerived() && !folderPaths.contains(resourcePath)) {
                 resource.setDerived(false, progress.newChild(1));
             } else {
                 progress.worked(1);
@@ -117,7 +135,7 @@ final class GradleFolderUpdater {
         progress.setWorkRemaining(folderPaths.size());
         for (IPath resourcePath : folderPaths) {
             IResource resource = this.workspaceProject.findMember(resourcePath);
-            if (resource != null) {
+            if (resource != null && !resource.isDerived()) {
                 resource.setDerived(true, progress.newChild(1));
             } else {
                 progress.worked(1);
@@ -156,7 +174,19 @@ final class GradleFolderUpdater {
     }
 
     static void update(IProject workspaceProject, OmniEclipseProject project, PersistentModelBuilder persistentModel, IProgressMonitor monitor) {
-        new GradleFolderUpdater(workspaceProject, project).update(persistentModel, monitor);
+        prepare(workspaceProject, project, ProjectDirectoryTrie.create(project.getAll())).update(persistentModel, monitor);
+    }
+
+    /**
+     * Collects the Gradle-specific folders of the project from the Gradle model. The returned
+     * updater doesn't modify the workspace until {@link #update(PersistentModelBuilder, IProgressMonitor)}
+     * is called, so this method can be called without holding any scheduling rule.
+     * <p/>
+     * The nested projects are looked up in the given index, which should contain all projects of
+     * the synchronized builds, so that it can be shared by all projects.
+     */
+    static GradleFolderUpdater prepare(IProject workspaceProject, OmniEclipseProject project, ProjectDirectoryTrie projectDirectories) {
+        return new GradleFolderUpdater(workspaceProject, project, projectDirectories);
     }
 
     /**
@@ -8,10 +8,8 @@
 
 package org.eclipse.buildship.core.workspace.internal;
 
-import java.util.Arrays;
-
-import com.google.common.base.Predicate;
-import com.google.common.collect.FluentIterable;
+import java.util.Iterator;
+import java.util.List;
 
 import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
 
@@ -31,20 +29,24 @@ import org.eclipse.jdt.core.JavaModelException;
 final class LibraryFilter {
 
     public static void update(IJavaProject eclipseProject, OmniEclipseProject modelProject, IProgressMonitor monitor) throws JavaModelException {
+        ClasspathBuilder classpath = ClasspathBuilder.from(eclipseProject);
+        update(classpath, modelProject);
+        classpath.commit(monitor);
+    }
+
+    static void update(ClasspathBuilder classpath, OmniEclipseProject modelProject) {
         if (supportsClasspathCustomization(modelProject)) {
-            IClasspathEntry[] newClasspath = filterLibraries(eclipseProject.getRawClasspath());
-            eclipseProject.setRawClasspath(newClasspath, monitor);
+            filterLibraries(classpath.getEntries());
         }
     }
 
-    private static IClasspathEntry[] filterLibraries(IClasspathEntry[] classpath) throws JavaModelException {
-        return FluentIterable.from(Arrays.asList(classpath)).filter(new Predicate<IClasspathEntry>() {
-
-            @Override
-            public boolean apply(IClasspathEntry entry) {
-                return entry.getEntryKind() != IClasspathEntry.CPE_LIBRARY;
+    private static void filterLibraries(List<IClasspathEntry> classpath) {
+        Iterator<IClasspathEntry> iterator = classpath.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getEntryKind() == IClasspathEntry.CPE_LIBRARY) {
+                iterator.remove();
             }
-        }).toArray(IClasspathEntry.class);
+        }
     }
 
     private static boolean supportsClasspathCustomization(OmniEclipseProject modelProject) {
@@ -47,8 +47,9 @@ final class LinkedResourcesUpdater {
     private final IProject project;
     private final ImmutableList<OmniEclipseLinkedResource> resources;
     private final ImmutableSet<IPath> resourcePaths;
+    private final ImmutableList<IPath> outdatedLinkedPaths;
 
-    private LinkedResourcesUpdater(IProject project, List<OmniEclipseLinkedResource> linkedResources) {
+    private LinkedResourcesUpdater(IProject project, List<OmniEclipseLinkedResource> linkedResources, PersistentModel previousModel) {
         this.project = Preconditions.checkNotNull(project);
         ImmutableList.Builder<OmniEclipseLinkedResource> resources = ImmutableList.builder();
         ImmutableSet.Builder<IPath> resourcePaths = ImmutableSet.builder();
@@ -60,6 +61,18 @@ final class LinkedResourcesUpdater {
         }
         this.resources = resources.build();
         this.resourcePaths = resourcePaths.build();
+        this.outdatedLinkedPaths = collectOutdatedLinkedPaths(previousModel);
+    }
+
+    private ImmutableList<IPath> collectOutdatedLinkedPaths(PersistentModel previousModel) {
+        Collection<IPath> linkedPaths = previousModel.isPresent() ? previousModel.getLinkedResources() : Collections.<IPath>emptyList();
+        ImmutableList.Builder<IPath> result = ImmutableList.builder();
+        for (IPath linkedPath : linkedPaths) {
+            if (!this.resourcePaths.contains(linkedPath)) {
+                result.add(linkedPath);
+            }
+        }
+        return result.build();
     }
 
     private static boolean isSupportedLinkedResource(OmniEclipseLinkedResource linkedResource) {
@@ -67,17 +80,15 @@ final class LinkedResourcesUpdater {
         return linkedResource.getLocation() != null;
     }
 
-    private void updateLinkedResources(PersistentModelBuilder persistentModel, IProgressMonitor monitor) throws CoreException {
+    void update(PersistentModelBuilder persistentModel, IProgressMonitor monitor) throws CoreException {
         SubMonitor progress = SubMonitor.convert(monitor, 2);
-        removeOutdatedLinkedResources(persistentModel, progress.newChild(1));
+        removeOutdatedLinkedResources(progress.newChild(1));
         createLinkedResources(persistentModel, progress.newChild(1));
     }
 
-    private void removeOutdatedLinkedResources(PersistentModelBuilder persistentModel, SubMonitor progress) throws CoreException {
-        PersistentModel previousModel = persistentModel.getPrevious();
-        Collection<IPath> linkedPaths = previousModel.isPresent() ? previousModel.getLinkedResources() : Collections.<IPath>emptyList();
-        progress.setWorkRemaining(linkedPaths.size());
-        for (IPath linkedPath : linkedPaths) {
+    private void removeOutdatedLinkedResources(SubMonitor progress) throws CoreException {
+        progress.setWorkRemaining(this.outdatedLinkedPaths.size());
+        for (IPath linkedPath : this.outdatedLinkedPaths) {
             SubMonitor childProgress = progress.newChild(1);
             IResource linkedResource = this.project.findMember(linkedPath);
             if (shouldDelete(linkedResource)) {
@@ -87,17 +98,13 @@ final class LinkedResourcesUpdater {
     }
 
     private boolean shouldDelete(IResource resource) {
-        return resource != null && linkedWithValidLocation(resource) && !partOfCurrentGradleModel(resource);
+        return resource != null && linkedWithValidLocation(resource);
     }
 
     private boolean linkedWithValidLocation(IResource resource) {
         return resource.exists() && resource.isLinked() && resource.getLocation() != null;
     }
 
-    private boolean partOfCurrentGradleModel(IResource resource) {
-        return this.resourcePaths.contains(resource.getProjectRelativePath());
-    }
-
     private void createLinkedResources(PersistentModelBuilder persistentModel, SubMonitor progress) throws CoreException {
         progress.setWorkRemaining(this.resources.size());
         Set<IPath> linkedPaths = Sets.newHashSet();
@@ -129,7 +136,15 @@ final class LinkedResourcesUpdater {
     }
 
     public static void update(IProject project, List<OmniEclipseLinkedResource> linkedResources, PersistentModelBuilder persistentModel, IProgressMonitor monitor) throws CoreException {
-        LinkedResourcesUpdater updater = new LinkedResourcesUpdater(project, linkedResources);
-        updater.updateLinkedResources(persistentModel, monitor);
+        LinkedResourcesUpdater updater = prepare(project, linkedResources, persistentModel.getPrevious());
+        updater.update(persistentModel, monitor);
+    }
+
+    /**
+     * Calculates the linked resources to create and to remove without modifying the workspace.
+     * The changes are applied when {@link #update(PersistentModelBuilder, IProgressMonitor)} is called.
+     */
+    static LinkedResourcesUpdater prepare(IProject project, List<OmniEclipseLinkedResource> linkedResources, PersistentModel previousModel) {
+        return new LinkedResourcesUpdater(project, linkedResources, previousModel);
     }
 }
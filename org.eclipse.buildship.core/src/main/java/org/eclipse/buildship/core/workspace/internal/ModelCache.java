@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.gradle.tooling.model.eclipse.EclipseProject;
+import org.gradle.tooling.model.gradle.GradleBuild;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import org.eclipse.buildship.core.GradlePluginsRuntimeException;
+import org.eclipse.buildship.core.configuration.GradleArguments;
+import org.eclipse.buildship.core.util.preference.AdvancedPreferences;
+import org.eclipse.buildship.core.workspace.ModelCacheStatistics;
+
+/**
+ * Stores the models loaded by the {@link DefaultModelProvider} instances.
+ * <p/>
+ * The models are keyed by the model type, by whether they were loaded from a single build or
+ * from all the participants of a composite build, by the paths of the projects the query was
+ * restricted to, and by the Gradle arguments used to load them.
+ * The size of the cache is limited by the number of Gradle projects the cached models describe.
+ * The limit and the optional expiration time are defined by {@link AdvancedPreferences}.
+ */
+final class ModelCache {
+
+    private final Cache<Key, Object> cache;
+
+    private ModelCache(long maximumWeight, long expirationMinutes) {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumWeight(maximumWeight).weigher(new ModelWeigher()).recordStats();
+        if (expirationMinutes > 0) {
+            builder.expireAfterAccess(expirationMinutes, TimeUnit.MINUTES);
+        }
+        this.cache = builder.build();
+    }
+
+    Object getIfPresent(Key key) {
+        return this.cache.getIfPresent(key);
+    }
+
+    <T> T get(Key key, Callable<T> loader) {
+        try {
+            @SuppressWarnings("unchecked")
+            T result = (T) this.cache.get(key, loader);
+            return result;
+        } catch (Exception e) {
+            if (e instanceof UncheckedExecutionException && e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new GradlePluginsRuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Removes the model with the given key from the cache. Removing the model of all participants
+     * of a composite also removes the models loaded for selected projects of the same composite.
+     *
+     * @param key the key of the model to remove
+     */
+    void invalidate(Key key) {
+        this.cache.invalidate(key);
+        if (key.composite && key.projectPaths.isEmpty()) {
+            List<Key> projectScopedKeys = Lists.newArrayList();
+            for (Key cachedKey : this.cache.asMap().keySet()) {
+                if (cachedKey.isProjectScopedVariantOf(key)) {
+                    projectScopedKeys.add(cachedKey);
+                }
+            }
+            this.cache.invalidateAll(projectScopedKeys);
+        }
+    }
+
+    ModelCacheStatistics getStatistics() {
+        CacheStats stats = this.cache.stats();
+        return new ModelCacheStatistics(stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.totalLoadTime());
+    }
+
+    static ModelCache create() {
+        return new ModelCache(AdvancedPreferences.getModelCacheMaximumWeight(), AdvancedPreferences.getModelCacheExpirationMinutes());
+    }
+
+    static Key singleBuildKey(Class<?> modelType, GradleArguments arguments) {
+        return new Key(modelType, false, ImmutableSet.<String>of(), arguments);
+    }
+
+    static Key compositeKey(Class<?> modelType, GradleArguments arguments) {
+        return new Key(modelType, true, ImmutableSet.<String>of(), arguments);
+    }
+
+    static Key projectScopedKey(Class<?> modelType, Set<String> projectPaths, GradleArguments arguments) {
+        return new Key(modelType, true, ImmutableSet.copyOf(projectPaths), arguments);
+    }
+
+    /**
+     * Cache key identifying a model query.
+     */
+    static final class Key {
+
+        private final Class<?> modelType;
+        private final boolean composite;
+        private final ImmutableSet<String> projectPaths;
+        private final GradleArguments arguments;
+
+        private Key(Class<?> modelType, boolean composite, ImmutableSet<String> projectPaths, GradleArguments arguments) {
+            this.modelType = Preconditions.checkNotNull(modelType);
+            this.composite = composite;
+            this.projectPaths = Preconditions.checkNotNull(projectPaths);
+            this.arguments = Preconditions.checkNotNull(arguments);
+        }
+
+        private boolean isProjectScopedVariantOf(Key compositeKey) {
+            return this.composite && !this.projectPaths.isEmpty() && this.modelType.equals(compositeKey.modelType) && this.arguments.equals(compositeKey.arguments);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Key) {
+                Key other = (Key) obj;
+                return this.modelType.equals(other.modelType) && this.composite == other.composite && this.projectPaths.equals(other.projectPaths)
+                        && this.arguments.equals(other.arguments);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(this.modelType, this.composite, this.projectPaths, this.arguments);
+        }
+    }
+
+    /**
+     * Weighs the models by the number of Gradle projects they contain.
+     */
+    private static final class ModelWeigher implements Weigher<Object, Object> {
+
+        @Override
+        public int weigh(Object key, Object model) {
+            return weigh(model);
+        }
+
+        private static int weigh(Object model) {
+            if (model instanceof Collection) {
+                int weight = 0;
+                for (Object element : (Collection<?>) model) {
+                    weight += weigh(element);
+                }
+                return Math.max(weight, 1);
+            } else if (model instanceof EclipseProject) {
+                int weight = 1;
+                for (EclipseProject child : ((EclipseProject) model).getChildren()) {
+                    weight += weigh(child);
+                }
+                return weight;
+            } else if (model instanceof GradleBuild) {
+                return Math.max(((GradleBuild) model).getProjects().size(), 1);
+            } else {
+                return 1;
+            }
+        }
+    }
+}
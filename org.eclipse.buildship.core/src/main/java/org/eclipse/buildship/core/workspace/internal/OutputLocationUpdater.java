@@ -25,10 +25,16 @@ import org.eclipse.jdt.core.IJavaProject;
 final class OutputLocationUpdater {
 
     public static void update(IJavaProject project, Optional<OmniEclipseOutputLocation> outputLocation, IProgressMonitor monitor) throws CoreException {
+        ClasspathBuilder classpath = ClasspathBuilder.from(project);
+        update(classpath, outputLocation);
+        classpath.commit(monitor);
+    }
+
+    static void update(ClasspathBuilder classpath, Optional<OmniEclipseOutputLocation> outputLocation) {
         if (outputLocation.isPresent()) {
-            IPath projectPath = project.getProject().getFullPath();
+            IPath projectPath = classpath.getProject().getProject().getFullPath();
             String outputPath = outputLocation.get().getPath();
-            project.setOutputLocation(projectPath.append(outputPath), monitor);
+            classpath.setOutputLocation(projectPath.append(outputPath));
         }
     }
 }
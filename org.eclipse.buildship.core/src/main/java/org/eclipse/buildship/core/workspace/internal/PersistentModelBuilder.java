@@ -10,6 +10,7 @@ package org.eclipse.buildship.core.workspace.internal;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.google.common.base.Preconditions;
 
@@ -22,6 +23,9 @@ import org.eclipse.buildship.core.preferences.internal.DefaultPersistentModel;
 
 /**
  * Builder for {@link PersistentModel}.
+ * <p/>
+ * All values are initialized from the previous model, except the fingerprint: it's only set
+ * when the project was fully synchronized.
  *
  * @author Donat Csikos
  */
@@ -37,6 +41,8 @@ public final class PersistentModelBuilder {
     private Collection<IPath> linkedResources;
     private Collection<String> managedNatures;
     private Collection<ICommand> managedBuilders;
+    private String fingerprint;
+    private Map<IPath, String> buildInputHashes;
 
     public PersistentModelBuilder(PersistentModel previous) {
         this.previous = Preconditions.checkNotNull(previous);
@@ -49,6 +55,7 @@ public final class PersistentModelBuilder {
             this.linkedResources = previous.getLinkedResources();
             this.managedNatures = previous.getManagedNatures();
             this.managedBuilders = previous.getManagedBuilders();
+            this.buildInputHashes = previous.getBuildInputHashes().orNull();
         }
     }
 
@@ -92,11 +99,22 @@ public final class PersistentModelBuilder {
         return this;
     }
 
+    public PersistentModelBuilder fingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+        return this;
+    }
+
+    public PersistentModelBuilder buildInputHashes(Map<IPath, String> buildInputHashes) {
+        this.buildInputHashes = buildInputHashes;
+        return this;
+    }
+
     public PersistentModel getPrevious() {
         return this.previous;
     }
 
     public PersistentModel build() {
-        return new DefaultPersistentModel(this.previous.getProject(), this.buildDir, this.buildScriptPath, this.subprojectPaths, this.classpath, this.derivedResources, this.linkedResources, this.managedNatures, this.managedBuilders);
+        return new DefaultPersistentModel(this.previous.getProject(), this.buildDir, this.buildScriptPath, this.subprojectPaths, this.classpath, this.derivedResources, this.linkedResources, this.managedNatures, this.managedBuilders, this.fingerprint,
+                this.buildInputHashes);
     }
 }
\ No newline at end of file
@@ -8,17 +8,14 @@
 
 package org.eclipse.buildship.core.workspace.internal;
 
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+
 import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.IResourceChangeEvent;
-import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
-import org.eclipse.core.resources.IResourceDeltaVisitor;
-import org.eclipse.core.resources.IWorkspaceRoot;
-import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
 
 import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.workspace.ProjectCreatedEvent;
@@ -26,73 +23,55 @@ import org.eclipse.buildship.core.workspace.ProjectDeletedEvent;
 import org.eclipse.buildship.core.workspace.ProjectMovedEvent;
 
 /**
- * An {@link IResourceChangeListener} implementation which sends events about project change events
- * via {@link CorePlugin#listenerRegistry()}.
+ * A {@link ResourceDeltaDispatcher.Subscriber} implementation which sends events about project
+ * change events via {@link CorePlugin#listenerRegistry()}.
  *
  * @author Donat Csikos
  *
  */
-public final class ProjectChangeListener implements IResourceChangeListener {
+public final class ProjectChangeListener implements ResourceDeltaDispatcher.Subscriber {
+
+    private final ResourceDeltaDispatcher dispatcher;
 
-    private ProjectChangeListener() {
+    private ProjectChangeListener(ResourceDeltaDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
     }
 
     @Override
-    public void resourceChanged(IResourceChangeEvent event) {
-        IResourceDelta delta = event.getDelta();
-        if (delta != null) {
-            try {
-                visitDelta(delta);
-            } catch (CoreException e) {
-                CorePlugin.logger().warn("Failed to detect project changes", e);
+    public void projectChanged(IResourceDelta delta) {
+        IProject project = (IProject) delta.getResource();
+        IPath fromPath = delta.getMovedFromPath();
+        IPath toPath = delta.getMovedToPath();
+        if (delta.getKind() == IResourceDelta.REMOVED) {
+            if (fromPath == null && toPath == null) {
+                CorePlugin.listenerRegistry().dispatch(new ProjectDeletedEvent(project));
+            }
+        } else  if (delta.getKind() == IResourceDelta.ADDED) {
+            if (fromPath == null && toPath == null) {
+                CorePlugin.listenerRegistry().dispatch(new ProjectCreatedEvent(project));
+            } else if (fromPath != null) {
+                CorePlugin.listenerRegistry().dispatch(new ProjectMovedEvent(project, fromPath.lastSegment()));
             }
         }
     }
 
-    private void visitDelta(IResourceDelta delta) throws CoreException {
-        delta.accept(new IResourceDeltaVisitor() {
-
-            @Override
-            public boolean visit(IResourceDelta delta) throws CoreException {
-                try {
-                    return doVisitDelta(delta);
-                } catch (Exception e) {
-                    throw new CoreException(new Status(IStatus.WARNING, CorePlugin.PLUGIN_ID, "ProjectChangeListener failed", e));
-                }
-            }
-        });
+    @Override
+    public Set<IPath> getInterestingPaths(IProject project) {
+        // only the project-level changes are relevant
+        return ImmutableSet.of();
     }
 
-    private boolean doVisitDelta(IResourceDelta delta) throws Exception {
-        if (delta.getResource() instanceof IProject) {
-            IProject project = (IProject) delta.getResource();
-            IPath fromPath = delta.getMovedFromPath();
-            IPath toPath = delta.getMovedToPath();
-            if (delta.getKind() == IResourceDelta.REMOVED) {
-                if (fromPath == null && toPath == null) {
-                    CorePlugin.listenerRegistry().dispatch(new ProjectDeletedEvent(project));
-                }
-            } else  if (delta.getKind() == IResourceDelta.ADDED) {
-                if (fromPath == null && toPath == null) {
-                    CorePlugin.listenerRegistry().dispatch(new ProjectCreatedEvent(project));
-                } else if (fromPath != null) {
-                    CorePlugin.listenerRegistry().dispatch(new ProjectMovedEvent(project, fromPath.lastSegment()));
-                }
-            }
-            return false;
-        } else {
-            // don't traverse deeper than the project level
-            return delta.getResource() instanceof IWorkspaceRoot;
-        }
+    @Override
+    public void resourcesChanged(IProject project, List<IResourceDelta> deltas) {
     }
 
-    public static ProjectChangeListener createAndRegister() {
-        ProjectChangeListener listener = new ProjectChangeListener();
-        ResourcesPlugin.getWorkspace().addResourceChangeListener(listener, IResourceChangeEvent.POST_CHANGE);
+    public static ProjectChangeListener createAndRegister(ResourceDeltaDispatcher dispatcher) {
+        ProjectChangeListener listener = new ProjectChangeListener(dispatcher);
+        dispatcher.subscribe(listener);
         return listener;
     }
 
     public void close() {
-        ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+        this.dispatcher.unsubscribe(this);
     }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+
+/**
+ * Index of Gradle projects by their project directories.
+ * <p/>
+ * The directories are stored in a trie of path segments, so the projects located in or under a
+ * directory can be looked up in time proportional to the depth of the directory and the number of
+ * results, instead of testing the location of every project.
+ */
+final class ProjectDirectoryTrie {
+
+    private final Node root;
+
+    private ProjectDirectoryTrie() {
+        this.root = new Node();
+    }
+
+    private void add(OmniEclipseProject project) {
+        IPath path = Path.fromOSString(project.getProjectDirectory().getPath());
+        Node node = this.root.getOrCreateChild(deviceKey(path));
+        for (int i = 0; i < path.segmentCount(); i++) {
+            node = node.getOrCreateChild(path.segment(i));
+        }
+        node.projects.add(project);
+    }
+
+    /**
+     * Returns the projects whose project directory is the given location or is located under it.
+     *
+     * @param location the absolute file system location
+     * @return the matching projects, the ones in parent directories first
+     */
+    List<OmniEclipseProject> getProjectsUnder(IPath location) {
+        Node node = this.root.getChild(deviceKey(location));
+        for (int i = 0; node != null && i < location.segmentCount(); i++) {
+            node = node.getChild(location.segment(i));
+        }
+
+        if (node == null) {
+            return ImmutableList.of();
+        }
+        List<OmniEclipseProject> result = Lists.newArrayList();
+        node.collectProjects(result);
+        return result;
+    }
+
+    private static String deviceKey(IPath path) {
+        // devices are compared case-insensitively, see IPath#isPrefixOf()
+        return Strings.nullToEmpty(path.getDevice()).toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Creates a new index containing the given projects.
+     *
+     * @param projects the projects to index
+     * @return the new index
+     */
+    static ProjectDirectoryTrie create(Iterable<? extends OmniEclipseProject> projects) {
+        ProjectDirectoryTrie trie = new ProjectDirectoryTrie();
+        for (OmniEclipseProject project : projects) {
+            trie.add(project);
+        }
+        return trie;
+    }
+
+    /**
+     * A directory in the trie.
+     */
+    private static final class Node {
+
+        private final Map<String, Node> children = Maps.newLinkedHashMap();
+        private final List<OmniEclipseProject> projects = Lists.newArrayListWithCapacity(1);
+
+        private Node getChild(String segment) {
+            return this.children.get(segment);
+        }
+
+        private Node getOrCreateChild(String segment) {
+            Node child = this.children.get(segment);
+            if (child == null) {
+                child = new Node();
+                this.children.put(segment, child);
+            }
+            return child;
+        }
+
+        private void collectProjects(List<OmniEclipseProject> result) {
+            result.addAll(this.projects);
+            for (Node child : this.children.values()) {
+                child.collectProjects(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import com.gradleware.tooling.toolingmodel.OmniAccessRule;
+import com.gradleware.tooling.toolingmodel.OmniClasspathAttribute;
+import com.gradleware.tooling.toolingmodel.OmniClasspathEntry;
+import com.gradleware.tooling.toolingmodel.OmniEclipseBuildCommand;
+import com.gradleware.tooling.toolingmodel.OmniEclipseClasspathContainer;
+import com.gradleware.tooling.toolingmodel.OmniEclipseLinkedResource;
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
+import com.gradleware.tooling.toolingmodel.OmniEclipseProjectDependency;
+import com.gradleware.tooling.toolingmodel.OmniEclipseProjectNature;
+import com.gradleware.tooling.toolingmodel.OmniEclipseSourceDirectory;
+import com.gradleware.tooling.toolingmodel.OmniExternalDependency;
+import com.gradleware.tooling.toolingmodel.OmniGradleScript;
+import com.gradleware.tooling.toolingmodel.OmniJavaSourceSettings;
+import com.gradleware.tooling.toolingmodel.util.Maybe;
+
+import org.eclipse.core.resources.ICommand;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Computes the fingerprints used to skip the synchronization of unchanged projects.
+ * <p/>
+ * The model fingerprint covers every part of an {@link OmniEclipseProject} that the project
+ * synchronization reads: the natures, the build commands, the source folders, the dependencies,
+ * the linked resources, the Java settings, the output location and the folders of the nested
+ * projects, looked up in the same {@link ProjectDirectoryTrie} the derived resources are computed
+ * from. The project fingerprint combines it with the state of the workspace project the
+ * synchronization writes, so that a project modified outside of the synchronization - e.g. by
+ * editing its classpath - is synchronized again even if its Gradle model didn't change.
+ */
+final class ProjectFingerprint {
+
+    private ProjectFingerprint() {
+    }
+
+    static String ofModel(OmniEclipseProject project, ProjectDirectoryTrie projectDirectories) {
+        Hasher hasher = Hashing.md5().newHasher();
+        putString(hasher, project.getName());
+        putFile(hasher, project.getProjectDirectory());
+        putNatures(hasher, project.getProjectNatures());
+        putBuildCommands(hasher, project.getBuildCommands());
+        putSourceDirectories(hasher, project.getSourceDirectories());
+        putExternalDependencies(hasher, project.getExternalDependencies());
+        putProjectDependencies(hasher, project.getProjectDependencies());
+        putLinkedResources(hasher, project.getLinkedResources());
+        putJavaSourceSettings(hasher, project.getJavaSourceSettings());
+        putString(hasher, project.getOutputLocation().isPresent() ? project.getOutputLocation().get().getPath() : null);
+        putClasspathContainers(hasher, project.getClasspathContainers());
+        putBuildScript(hasher, project.getGradleProject().getBuildScript());
+        putNestedProjects(hasher, project, projectDirectories);
+        return hasher.hash().toString();
+    }
+
+    static String of(String modelFingerprint, IProject workspaceProject, Collection<IPath> derivedResources, Collection<IPath> linkedResources) throws CoreException {
+        Hasher hasher = Hashing.md5().newHasher();
+        putString(hasher, modelFingerprint);
+        putString(hasher, workspaceProject.getName());
+
+        IProjectDescription description = workspaceProject.getDescription();
+        String[] natures = description.getNatureIds();
+        hasher.putInt(natures.length);
+        for (String nature : natures) {
+            putString(hasher, nature);
+        }
+        ICommand[] commands = description.getBuildSpec();
+        hasher.putInt(commands.length);
+        for (ICommand command : commands) {
+            putString(hasher, command.getBuilderName());
+            putArguments(hasher, command.getArguments());
+        }
+
+        hasher.putInt(derivedResources.size());
+        for (IPath path : derivedResources) {
+            IResource resource = workspaceProject.findMember(path);
+            hasher.putBoolean(resource != null);
+            hasher.putBoolean(resource != null && resource.isDerived());
+        }
+        hasher.putInt(linkedResources.size());
+        for (IPath path : linkedResources) {
+            IResource resource = workspaceProject.findMember(path);
+            hasher.putBoolean(resource != null && resource.isLinked());
+            putString(hasher, resource != null && resource.getLocation() != null ? resource.getLocation().toPortableString() : null);
+        }
+
+        boolean javaProject = workspaceProject.hasNature(JavaCore.NATURE_ID);
+        hasher.putBoolean(javaProject);
+        if (javaProject) {
+            putJavaProject(hasher, JavaCore.create(workspaceProject));
+        }
+        return hasher.hash().toString();
+    }
+
+    private static void putJavaProject(Hasher hasher, IJavaProject javaProject) throws CoreException {
+        IClasspathEntry[] classpath = javaProject.getRawClasspath();
+        hasher.putInt(classpath.length);
+        for (IClasspathEntry entry : classpath) {
+            putString(hasher, javaProject.encodeClasspathEntry(entry));
+        }
+        putString(hasher, javaProject.getOutputLocation().toPortableString());
+        putString(hasher, javaProject.getOption(JavaCore.COMPILER_COMPLIANCE, true));
+        putString(hasher, javaProject.getOption(JavaCore.COMPILER_SOURCE, true));
+        putString(hasher, javaProject.getOption(JavaCore.COMPILER_CODEGEN_TARGET_PLATFORM, true));
+    }
+
+    private static void putNatures(Hasher hasher, Optional<List<OmniEclipseProjectNature>> natures) {
+        hasher.putBoolean(natures.isPresent());
+        if (natures.isPresent()) {
+            hasher.putInt(natures.get().size());
+            for (OmniEclipseProjectNature nature : natures.get()) {
+                putString(hasher, nature.getId());
+            }
+        }
+    }
+
+    private static void putBuildCommands(Hasher hasher, Optional<List<OmniEclipseBuildCommand>> buildCommands) {
+        hasher.putBoolean(buildCommands.isPresent());
+        if (buildCommands.isPresent()) {
+            hasher.putInt(buildCommands.get().size());
+            for (OmniEclipseBuildCommand buildCommand : buildCommands.get()) {
+                putString(hasher, buildCommand.getName());
+                putArguments(hasher, buildCommand.getArguments());
+            }
+        }
+    }
+
+    private static void putSourceDirectories(Hasher hasher, List<OmniEclipseSourceDirectory> sourceDirectories) {
+        hasher.putInt(sourceDirectories.size());
+        for (OmniEclipseSourceDirectory sourceDirectory : sourceDirectories) {
+            putString(hasher, sourceDirectory.getPath());
+            putFile(hasher, sourceDirectory.getDirectory());
+            Maybe<String> output = sourceDirectory.getOutput();
+            putString(hasher, output.isPresent() ? output.get() : null);
+            putAttributes(hasher, sourceDirectory.getClasspathAttributes());
+            putStrings(hasher, sourceDirectory.getExcludes());
+            putStrings(hasher, sourceDirectory.getIncludes());
+        }
+    }
+
+    private static void putExternalDependencies(Hasher hasher, List<? extends OmniExternalDependency> dependencies) {
+        hasher.putInt(dependencies.size());
+        for (OmniExternalDependency dependency : dependencies) {
+            putFile(hasher, dependency.getFile());
+            // missing dependencies are resolved against the linked resources
+            hasher.putBoolean(dependency.getFile().exists());
+            putFile(hasher, dependency.getSource());
+            putClasspathEntry(hasher, dependency);
+        }
+    }
+
+    private static void putProjectDependencies(Hasher hasher, List<? extends OmniEclipseProjectDependency> dependencies) {
+        hasher.putInt(dependencies.size());
+        for (OmniEclipseProjectDependency dependency : dependencies) {
+            putString(hasher, dependency.getPath());
+            putClasspathEntry(hasher, dependency);
+        }
+    }
+
+    private static void putLinkedResources(Hasher hasher, List<OmniEclipseLinkedResource> linkedResources) {
+        hasher.putInt(linkedResources.size());
+        for (OmniEclipseLinkedResource linkedResource : linkedResources) {
+            putString(hasher, linkedResource.getName());
+            putString(hasher, linkedResource.getType());
+            putString(hasher, linkedResource.getLocation());
+        }
+    }
+
+    private static void putJavaSourceSettings(Hasher hasher, Optional<OmniJavaSourceSettings> sourceSettings) {
+        hasher.putBoolean(sourceSettings.isPresent());
+        if (sourceSettings.isPresent()) {
+            putString(hasher, sourceSettings.get().getSourceLanguageLevel().getName());
+            putString(hasher, sourceSettings.get().getTargetBytecodeLevel().getName());
+            putFile(hasher, sourceSettings.get().getTargetRuntime().getHomeDirectory());
+        }
+    }
+
+    private static void putClasspathContainers(Hasher hasher, Optional<List<OmniEclipseClasspathContainer>> containers) {
+        hasher.putBoolean(containers.isPresent());
+        if (containers.isPresent()) {
+            hasher.putInt(containers.get().size());
+            for (OmniEclipseClasspathContainer container : containers.get()) {
+                putString(hasher, container.getPath());
+                putClasspathEntry(hasher, container);
+            }
+        }
+    }
+
+    private static void putBuildScript(Hasher hasher, Maybe<OmniGradleScript> buildScript) {
+        boolean present = buildScript.isPresent() && buildScript.get() != null;
+        putFile(hasher, present ? buildScript.get().getSourceFile() : null);
+    }
+
+    private static void putNestedProjects(Hasher hasher, OmniEclipseProject project, ProjectDirectoryTrie projectDirectories) {
+        // the derived resources depend on the location and the build directory of the nested projects
+        List<OmniEclipseProject> nestedProjects = projectDirectories.getProjectsUnder(Path.fromOSString(project.getProjectDirectory().getPath()));
+        hasher.putInt(nestedProjects.size());
+        for (OmniEclipseProject nestedProject : nestedProjects) {
+            putFile(hasher, nestedProject.getProjectDirectory());
+            Maybe<File> buildDirectory = nestedProject.getGradleProject().getBuildDirectory();
+            putFile(hasher, buildDirectory.isPresent() ? buildDirectory.get() : null);
+        }
+    }
+
+    private static void putClasspathEntry(Hasher hasher, OmniClasspathEntry entry) {
+        hasher.putBoolean(entry.isExported());
+        putAttributes(hasher, entry.getClasspathAttributes());
+        Optional<List<OmniAccessRule>> accessRules = entry.getAccessRules();
+        hasher.putBoolean(accessRules.isPresent());
+        if (accessRules.isPresent()) {
+            hasher.putInt(accessRules.get().size());
+            for (OmniAccessRule rule : accessRules.get()) {
+                hasher.putInt(rule.getKind());
+                putString(hasher, rule.getPattern());
+            }
+        }
+    }
+
+    private static void putAttributes(Hasher hasher, Optional<List<OmniClasspathAttribute>> attributes) {
+        hasher.putBoolean(attributes.isPresent());
+        if (attributes.isPresent()) {
+            hasher.putInt(attributes.get().size());
+            for (OmniClasspathAttribute attribute : attributes.get()) {
+                putString(hasher, attribute.getName());
+                putString(hasher, attribute.getValue());
+            }
+        }
+    }
+
+    private static void putArguments(Hasher hasher, Map<String, String> arguments) {
+        // the order of the arguments is not significant
+        Map<String, String> sortedArguments = Maps.newTreeMap();
+        sortedArguments.putAll(arguments);
+        hasher.putInt(sortedArguments.size());
+        for (Map.Entry<String, String> argument : sortedArguments.entrySet()) {
+            putString(hasher, argument.getKey());
+            putString(hasher, argument.getValue());
+        }
+    }
+
+    private static void putStrings(Hasher hasher, Optional<List<String>> strings) {
+        hasher.putBoolean(strings.isPresent());
+        if (strings.isPresent()) {
+            hasher.putInt(strings.get().size());
+            for (String string : strings.get()) {
+                putString(hasher, string);
+            }
+        }
+    }
+
+    private static void putFile(Hasher hasher, File file) {
+        putString(hasher, file != null ? file.getAbsolutePath() : null);
+    }
+
+    private static void putString(Hasher hasher, String string) {
+        // the length prefix keeps adjacent values from being merged
+        if (string == null) {
+            hasher.putInt(-1);
+        } else {
+            hasher.putInt(string.length());
+            hasher.putString(string, Charsets.UTF_8);
+        }
+    }
+}
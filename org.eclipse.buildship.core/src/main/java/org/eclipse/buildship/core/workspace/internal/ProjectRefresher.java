@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseLinkedResource;
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
+import com.gradleware.tooling.toolingmodel.OmniEclipseSourceDirectory;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.SubMonitor;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.GradlePluginsRuntimeException;
+import org.eclipse.buildship.core.preferences.PersistentModel;
+import org.eclipse.buildship.core.util.preference.AdvancedPreferences;
+
+/**
+ * Brings the resources of a workspace project read or modified by the project synchronization in
+ * sync with the file system.
+ * <p/>
+ * Instead of refreshing the whole project, only the following resources are refreshed: the direct
+ * children of the project (including the {@code .project} and {@code .classpath} files), the
+ * content of the {@code .settings} folder, the source folders, the derived folders and the linked
+ * resources, both of the current Gradle model and of the previous synchronization. The source
+ * folders are fully refreshed when they are not yet known to the workspace, so that their content
+ * becomes visible; all other folders are only refreshed themselves. This way large folders like
+ * the build directory are not traversed on every synchronization.
+ * <p/>
+ * The whole project is refreshed if {@link AdvancedPreferences#isSynchronizationFullRefreshEnabled()}
+ * is set.
+ */
+final class ProjectRefresher {
+
+    private static final IPath SETTINGS_FOLDER_PATH = new Path(".settings");
+
+    private final IProject workspaceProject;
+    private final Map<IPath, Integer> depthsByPath;
+
+    private ProjectRefresher(IProject workspaceProject) {
+        this.workspaceProject = Preconditions.checkNotNull(workspaceProject);
+        this.depthsByPath = Maps.newLinkedHashMap();
+        add(SETTINGS_FOLDER_PATH, IResource.DEPTH_ONE);
+    }
+
+    private void addModel(OmniEclipseProject project, ProjectDirectoryTrie projectDirectories) {
+        for (OmniEclipseSourceDirectory sourceDirectory : project.getSourceDirectories()) {
+            IPath path = new Path(sourceDirectory.getPath());
+            add(path, this.workspaceProject.findMember(path) == null ? IResource.DEPTH_INFINITE : IResource.DEPTH_ZERO);
+        }
+        for (IPath path : GradleFolderUpdater.prepare(this.workspaceProject, project, projectDirectories).getFolderPaths()) {
+            add(path, IResource.DEPTH_ZERO);
+        }
+        for (OmniEclipseLinkedResource linkedResource : project.getLinkedResources()) {
+            add(new Path(linkedResource.getName()), IResource.DEPTH_ZERO);
+        }
+    }
+
+    private void addPersistentModel(PersistentModel model) {
+        if (model.isPresent()) {
+            for (IPath path : model.getDerivedResources()) {
+                add(path, IResource.DEPTH_ZERO);
+            }
+            for (IPath path : model.getLinkedResources()) {
+                add(path, IResource.DEPTH_ZERO);
+            }
+        }
+    }
+
+    private void add(IPath path, int depth) {
+        if (path.isEmpty() || path.isAbsolute() || "..".equals(path.segment(0))) {
+            return;
+        }
+        Integer currentDepth = this.depthsByPath.get(path);
+        if (currentDepth == null || currentDepth < depth) {
+            this.depthsByPath.put(path, depth);
+        }
+    }
+
+    private void refresh(IProgressMonitor monitor) {
+        SubMonitor progress = SubMonitor.convert(monitor, this.depthsByPath.size() + 1);
+        try {
+            this.workspaceProject.refreshLocal(IResource.DEPTH_ONE, progress.newChild(1));
+            for (Entry<IPath, Integer> entry : this.depthsByPath.entrySet()) {
+                refresh(entry.getKey(), entry.getValue(), progress.newChild(1));
+            }
+        } catch (CoreException e) {
+            String message = String.format("Could not refresh project %s.", this.workspaceProject.getName());
+            throw new GradlePluginsRuntimeException(message, e);
+        }
+    }
+
+    private void refresh(IPath path, int depth, IProgressMonitor monitor) throws CoreException {
+        IResource resource = this.workspaceProject.findMember(path);
+        if (resource == null) {
+            // the folders not yet known to the workspace are discovered one segment at a time
+            for (int i = 1; i < path.segmentCount(); i++) {
+                IResource parent = this.workspaceProject.getFolder(path.uptoSegment(i));
+                if (!parent.exists()) {
+                    parent.refreshLocal(IResource.DEPTH_ZERO, null);
+                }
+            }
+            resource = this.workspaceProject.getFolder(path);
+        }
+        resource.refreshLocal(depth, monitor);
+    }
+
+    /**
+     * Refreshes the resources of the target project used by the synchronization of the given
+     * Gradle project.
+     *
+     * @param workspaceProject the project to refresh, must be open
+     * @param project the Gradle project the workspace project is synchronized with
+     * @param projectDirectories the index of all synchronized Gradle projects
+     * @param monitor the monitor to report progress on
+     */
+    static void refresh(IProject workspaceProject, OmniEclipseProject project, ProjectDirectoryTrie projectDirectories, IProgressMonitor monitor) {
+        Preconditions.checkArgument(workspaceProject.isAccessible(), "Project must be open.");
+        if (AdvancedPreferences.isSynchronizationFullRefreshEnabled()) {
+            CorePlugin.workspaceOperations().refreshProject(workspaceProject, monitor);
+        } else {
+            ProjectRefresher refresher = new ProjectRefresher(workspaceProject);
+            refresher.addModel(project, projectDirectories);
+            refresher.addPersistentModel(CorePlugin.modelPersistence().loadModel(workspaceProject));
+            refresher.refresh(monitor);
+        }
+    }
+
+    /**
+     * Refreshes the project description and the settings of the target project.
+     *
+     * @param workspaceProject the project to refresh, must be open
+     * @param monitor the monitor to report progress on
+     */
+    static void refreshMetadata(IProject workspaceProject, IProgressMonitor monitor) {
+        Preconditions.checkArgument(workspaceProject.isAccessible(), "Project must be open.");
+        if (AdvancedPreferences.isSynchronizationFullRefreshEnabled()) {
+            CorePlugin.workspaceOperations().refreshProject(workspaceProject, monitor);
+        } else {
+            new ProjectRefresher(workspaceProject).refresh(monitor);
+        }
+    }
+}
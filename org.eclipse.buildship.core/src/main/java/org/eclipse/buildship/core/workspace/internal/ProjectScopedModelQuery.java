@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.gradle.tooling.BuildAction;
+import org.gradle.tooling.BuildController;
+import org.gradle.tooling.model.gradle.BasicGradleProject;
+import org.gradle.tooling.model.gradle.GradleBuild;
+
+/**
+ * Build action to query a model for selected projects of a composite.
+ * <p/>
+ * The projects are identified by their Gradle path. The model is only queried for the projects
+ * with a matching path, and the participants of the composite without such projects are skipped
+ * entirely. Like {@link CompositeModelQuery}, the action and its result only reference JDK and
+ * Tooling API types, as the action is deserialized in the Gradle daemon.
+ *
+ * @param <T> The requested model type
+ */
+public final class ProjectScopedModelQuery<T> implements BuildAction<List<T>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Class<T> modelType;
+    private final Set<String> projectPaths;
+
+    public ProjectScopedModelQuery(Class<T> modelType, Set<String> projectPaths) {
+        this.modelType = modelType;
+        // copy to a JDK collection to make the action deserializable in the Gradle daemon
+        this.projectPaths = new LinkedHashSet<String>(projectPaths);
+    }
+
+    @Override
+    public List<T> execute(BuildController controller) {
+        List<T> models = new ArrayList<T>();
+        collectModels(controller, controller.getBuildModel(), new HashSet<File>(), models);
+        return models;
+    }
+
+    private void collectModels(BuildController controller, GradleBuild build, Set<File> visitedBuilds, List<T> models) {
+        if (!visitedBuilds.add(build.getRootProject().getProjectDirectory())) {
+            return;
+        }
+
+        for (BasicGradleProject project : build.getProjects()) {
+            if (this.projectPaths.contains(project.getPath())) {
+                models.add(controller.getModel(project, this.modelType));
+            }
+        }
+
+        for (GradleBuild includedBuild : build.getIncludedBuilds()) {
+            collectModels(controller, includedBuild, visitedBuilds, models);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+
+import org.eclipse.buildship.core.CorePlugin;
+
+/**
+ * The single {@link IResourceChangeListener} of Buildship which walks each POST_CHANGE delta once
+ * and routes the relevant parts of it to the {@link Subscriber subscribers}.
+ * <p/>
+ * The project-level changes (added, removed, moved, opened, closed or description changed) are
+ * sent to all subscribers. For the changed projects, including the opened ones and the ones with
+ * a changed description, the dispatcher also asks the subscribers which project-relative paths
+ * they are interested in, and descends only into the members which are or contain such a path. The {@code build} and {@code .gradle} folders are never entered
+ * unless a subscriber explicitly asks for a path below them.
+ */
+public final class ResourceDeltaDispatcher implements IResourceChangeListener {
+
+    private static final Set<String> SKIPPED_FOLDER_NAMES = ImmutableSet.of("build", ".gradle");
+
+    private final List<Subscriber> subscribers;
+
+    private ResourceDeltaDispatcher() {
+        this.subscribers = new CopyOnWriteArrayList<Subscriber>();
+    }
+
+    public void subscribe(Subscriber subscriber) {
+        this.subscribers.add(subscriber);
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        this.subscribers.remove(subscriber);
+    }
+
+    @Override
+    public void resourceChanged(IResourceChangeEvent event) {
+        IResourceDelta delta = event.getDelta();
+        if (delta == null) {
+            return;
+        }
+
+        List<Subscriber> subscribers = ImmutableList.copyOf(this.subscribers);
+        for (IResourceDelta projectDelta : delta.getAffectedChildren()) {
+            try {
+                if (isProjectLevelChange(projectDelta)) {
+                    for (Subscriber subscriber : subscribers) {
+                        subscriber.projectChanged(projectDelta);
+                    }
+                }
+                // a single workspace operation can change both the description and the members of a project
+                if (projectDelta.getKind() == IResourceDelta.CHANGED) {
+                    dispatchResourceChanges((IProject) projectDelta.getResource(), projectDelta, subscribers);
+                }
+            } catch (Exception e) {
+                CorePlugin.logger().warn("Failed to process the changes of project " + projectDelta.getResource().getName(), e);
+            }
+        }
+    }
+
+    private static boolean isProjectLevelChange(IResourceDelta projectDelta) {
+        return projectDelta.getKind() != IResourceDelta.CHANGED || (projectDelta.getFlags() & (IResourceDelta.OPEN | IResourceDelta.DESCRIPTION)) != 0;
+    }
+
+    private static void dispatchResourceChanges(IProject project, IResourceDelta projectDelta, List<Subscriber> subscribers) {
+        if (!project.isAccessible()) {
+            return;
+        }
+
+        PathInterestIndex index = new PathInterestIndex();
+        for (Subscriber subscriber : subscribers) {
+            for (IPath path : subscriber.getInterestingPaths(project)) {
+                index.add(path, subscriber);
+            }
+        }
+        if (index.isEmpty()) {
+            return;
+        }
+
+        Map<Subscriber, List<IResourceDelta>> changes = Maps.newLinkedHashMap();
+        collectChanges(projectDelta, index, changes);
+        for (Map.Entry<Subscriber, List<IResourceDelta>> entry : changes.entrySet()) {
+            entry.getKey().resourcesChanged(project, entry.getValue());
+        }
+    }
+
+    private static void collectChanges(IResourceDelta parent, PathInterestIndex index, Map<Subscriber, List<IResourceDelta>> changes) {
+        for (IResourceDelta delta : parent.getAffectedChildren()) {
+            IPath path = delta.getProjectRelativePath();
+            boolean interestBelow = index.hasInterestBelow(path);
+            if (SKIPPED_FOLDER_NAMES.contains(path.lastSegment()) && !interestBelow) {
+                continue;
+            }
+
+            List<Subscriber> interested = index.getSubscribersFor(path);
+            if (!interested.isEmpty() && isMemberChange(delta)) {
+                for (Subscriber subscriber : interested) {
+                    List<IResourceDelta> deltas = changes.get(subscriber);
+                    if (deltas == null) {
+                        deltas = Lists.newArrayList();
+                        changes.put(subscriber, deltas);
+                    }
+                    deltas.add(delta);
+                }
+            }
+            if (interestBelow || !interested.isEmpty()) {
+                collectChanges(delta, index, changes);
+            }
+        }
+    }
+
+    /*
+     * A folder reported as changed without any flags only contains changed members, and a marker
+     * update doesn't change the resource itself, so neither is passed to the subscribers.
+     */
+    private static boolean isMemberChange(IResourceDelta delta) {
+        return delta.getKind() != IResourceDelta.CHANGED || (delta.getFlags() & ~IResourceDelta.MARKERS) != 0;
+    }
+
+    public static ResourceDeltaDispatcher createAndRegister() {
+        ResourceDeltaDispatcher dispatcher = new ResourceDeltaDispatcher();
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(dispatcher, IResourceChangeEvent.POST_CHANGE);
+        return dispatcher;
+    }
+
+    public void close() {
+        ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+        this.subscribers.clear();
+    }
+
+    /**
+     * Receives the resource changes of the workspace from the {@link ResourceDeltaDispatcher}.
+     */
+    public interface Subscriber {
+
+        /**
+         * Called when a project was added, removed, moved, opened or closed, or its description
+         * changed.
+         *
+         * @param projectDelta the delta of the project
+         */
+        void projectChanged(IResourceDelta projectDelta);
+
+        /**
+         * Returns the project-relative paths of the resources the subscriber wants to be notified
+         * about. A folder path also covers all members of the folder.
+         *
+         * @param project the changed project
+         * @return the paths, or an empty set if no change in the project is relevant
+         */
+        Set<IPath> getInterestingPaths(IProject project);
+
+        /**
+         * Called with the changed resources of a project which match the
+         * {@link #getInterestingPaths(IProject) interesting paths}.
+         *
+         * @param project the changed project
+         * @param deltas the deltas of the matching resources, parents before their members
+         */
+        void resourcesChanged(IProject project, List<IResourceDelta> deltas);
+    }
+
+    /**
+     * The subscribers interested in the changes of a project, indexed by the paths they asked for.
+     */
+    private static final class PathInterestIndex {
+
+        private final Map<IPath, List<Subscriber>> subscribersByPath = Maps.newHashMap();
+
+        private void add(IPath path, Subscriber subscriber) {
+            List<Subscriber> subscribers = this.subscribersByPath.get(path);
+            if (subscribers == null) {
+                subscribers = Lists.newArrayListWithCapacity(1);
+                this.subscribersByPath.put(path, subscribers);
+            }
+            if (!subscribers.contains(subscriber)) {
+                subscribers.add(subscriber);
+            }
+        }
+
+        private boolean isEmpty() {
+            return this.subscribersByPath.isEmpty();
+        }
+
+        /*
+         * Returns the subscribers which asked for the given path or one of its parent folders.
+         */
+        private List<Subscriber> getSubscribersFor(IPath path) {
+            List<Subscriber> result = ImmutableList.of();
+            for (int segmentCount = path.segmentCount(); segmentCount > 0; segmentCount--) {
+                List<Subscriber> subscribers = this.subscribersByPath.get(path.uptoSegment(segmentCount));
+                if (subscribers != null) {
+                    result = result.isEmpty() ? subscribers : mergeSubscribers(result, subscribers);
+                }
+            }
+            return result;
+        }
+
+        private static List<Subscriber> mergeSubscribers(List<Subscriber> first, List<Subscriber> second) {
+            List<Subscriber> result = Lists.newArrayList(first);
+            for (Subscriber subscriber : second) {
+                if (!result.contains(subscriber)) {
+                    result.add(subscriber);
+                }
+            }
+            return result;
+        }
+
+        /*
+         * Returns whether a subscriber asked for a resource located below the given folder path.
+         */
+        private boolean hasInterestBelow(IPath path) {
+            for (IPath interestingPath : this.subscribersByPath.keySet()) {
+                if (interestingPath.segmentCount() > path.segmentCount() && path.isPrefixOf(interestingPath)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
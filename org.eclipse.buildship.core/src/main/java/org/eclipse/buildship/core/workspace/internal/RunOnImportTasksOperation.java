@@ -112,13 +112,18 @@ public class RunOnImportTasksOperation {
     private void runTasks(final List<String> tasksToRun, IProgressMonitor monitor, CancellationToken token) {
         RunConfiguration runConfiguration = CorePlugin.configurationManager().createDefaultRunConfiguration(this.buildConfig);
 
-        BuildLauncher launcher = CorePlugin.gradleWorkspaceManager().getGradleBuild(this.buildConfig).newBuildLauncher(runConfiguration, CharStreams.nullWriter(), getTransientRequestAttributes(token, monitor));
-        launcher.forTasks(tasksToRun.toArray(new String[tasksToRun.size()])).run();
+        DelegatingProgressListener progressListener = DelegatingProgressListener.withoutDuplicateLifecycleEvents(monitor);
+        BuildLauncher launcher = CorePlugin.gradleWorkspaceManager().getGradleBuild(this.buildConfig).newBuildLauncher(runConfiguration, CharStreams.nullWriter(), getTransientRequestAttributes(token, progressListener));
+        try {
+            launcher.forTasks(tasksToRun.toArray(new String[tasksToRun.size()])).run();
+        } finally {
+            progressListener.finish();
+        }
     }
 
-    private TransientRequestAttributes getTransientRequestAttributes(CancellationToken token, IProgressMonitor monitor) {
+    private TransientRequestAttributes getTransientRequestAttributes(CancellationToken token, DelegatingProgressListener progressListener) {
         ProcessStreams streams = CorePlugin.processStreamsProvider().getBackgroundJobProcessStreams();
-        List<ProgressListener> progressListeners = ImmutableList.<ProgressListener> of(DelegatingProgressListener.withoutDuplicateLifecycleEvents(monitor));
+        List<ProgressListener> progressListeners = ImmutableList.<ProgressListener> of(progressListener);
         ImmutableList<org.gradle.tooling.events.ProgressListener> noEventListeners = ImmutableList.<org.gradle.tooling.events.ProgressListener> of();
         return new TransientRequestAttributes(false, streams.getOutput(), streams.getError(), streams.getInput(), progressListeners, noEventListeners, token);
     }
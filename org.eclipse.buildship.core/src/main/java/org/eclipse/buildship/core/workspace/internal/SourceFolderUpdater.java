@@ -17,7 +17,6 @@ import java.util.Map;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import com.gradleware.tooling.toolingmodel.OmniClasspathAttribute;
@@ -65,11 +64,9 @@ final class SourceFolderUpdater {
         }
     }
 
-    private void updateSourceFolders(IProgressMonitor monitor) throws JavaModelException {
-        List<IClasspathEntry> classpath = Lists.newArrayList(this.project.getRawClasspath());
-        updateExistingSourceFolders(classpath);
-        addNewSourceFolders(classpath);
-        this.project.setRawClasspath(classpath.toArray(new IClasspathEntry[0]), monitor);
+    void update(ClasspathBuilder classpath) {
+        updateExistingSourceFolders(classpath.getEntries());
+        addNewSourceFolders(classpath.getEntries());
     }
 
     private void updateExistingSourceFolders(List<IClasspathEntry> classpath) {
@@ -170,8 +167,23 @@ final class SourceFolderUpdater {
      * @throws JavaModelException if the classpath modification fails
      */
     public static void update(IJavaProject project, List<OmniEclipseSourceDirectory> sourceFolders, IProgressMonitor monitor) throws JavaModelException {
-        SourceFolderUpdater updater = new SourceFolderUpdater(project, sourceFolders);
-        updater.updateSourceFolders(monitor);
+        ClasspathBuilder classpath = ClasspathBuilder.from(project);
+        prepare(project, sourceFolders).update(classpath);
+        classpath.commit(monitor);
+    }
+
+    /**
+     * Indexes the source folders from the Gradle model without modifying the project. The returned
+     * updater applies the changes to the classpath when its {@code update(ClasspathBuilder)} method
+     * is called, which can happen at most once.
+     *
+     * @param project the target project to update the source folders on
+     * @param sourceFolders the list of source folders from the Gradle model to assign to the
+     *            project
+     * @return the updater
+     */
+    static SourceFolderUpdater prepare(IJavaProject project, List<OmniEclipseSourceDirectory> sourceFolders) {
+        return new SourceFolderUpdater(project, sourceFolders);
     }
 
     /**
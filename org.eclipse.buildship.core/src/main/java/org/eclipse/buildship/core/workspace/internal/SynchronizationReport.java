@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+
+import org.eclipse.buildship.core.CorePlugin;
+
+/**
+ * Collects the time spent in the phases of a workspace synchronization and in the updaters applied
+ * to the individual projects.
+ * <p/>
+ * The report is written as JSON to the plugin state location after each synchronization,
+ * overwriting the report of the previous one. The phases are recorded by
+ * {@link SynchronizeGradleBuildsJob}, the model fetches of the composite participants by
+ * {@link DefaultModelProvider}, the project steps by {@link SynchronizeGradleBuildOperation}. As
+ * the projects can be synchronized in parallel, all recording methods are thread-safe.
+ */
+final class SynchronizationReport {
+
+    private static final String REPORT_FILE_NAME = "synchronization-report.json";
+
+    private final long startTime;
+    private final long startNanos;
+    private final List<BuildTimings> builds;
+
+    SynchronizationReport() {
+        this.startTime = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+        this.builds = Lists.newArrayList();
+    }
+
+    /**
+     * Starts collecting the timings of a Gradle build.
+     *
+     * @param rootProjectDirectory the root project directory of the build
+     * @return the timings of the build
+     */
+    synchronized BuildTimings addBuild(File rootProjectDirectory) {
+        BuildTimings build = new BuildTimings(rootProjectDirectory);
+        this.builds.add(build);
+        return build;
+    }
+
+    /**
+     * Writes the report to the {@link #getReportFile() report file}. A failure is logged but not
+     * propagated, as the report must not affect the outcome of the synchronization.
+     */
+    void write() {
+        File reportFile = getReportFile();
+        try {
+            Files.createParentDirs(reportFile);
+            Files.write(toJson(), reportFile, Charsets.UTF_8);
+        } catch (IOException e) {
+            CorePlugin.logger().warn("Failed to write synchronization report to " + reportFile, e);
+        }
+    }
+
+    synchronized String toJson() {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.ENGLISH);
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"buildshipVersion\": ").append(quote(getBuildshipVersion())).append(",\n");
+        json.append("  \"startTime\": ").append(quote(dateFormat.format(new Date(this.startTime)))).append(",\n");
+        json.append("  \"totalMillis\": ").append(elapsedMillis(this.startNanos)).append(",\n");
+        json.append("  \"builds\": [");
+        for (int i = 0; i < this.builds.size(); i++) {
+            json.append(i == 0 ? "\n" : ",\n");
+            this.builds.get(i).appendJson(json, "    ");
+        }
+        json.append(this.builds.isEmpty() ? "]\n" : "\n  ]\n");
+        json.append("}\n");
+        return json.toString();
+    }
+
+    private static String getBuildshipVersion() {
+        CorePlugin plugin = CorePlugin.getInstance();
+        return plugin != null ? plugin.getBundle().getVersion().toString() : "unknown";
+    }
+
+    /**
+     * Returns the location of the report of the last synchronization.
+     *
+     * @return the report file, which doesn't exist if no synchronization has finished yet
+     */
+    static File getReportFile() {
+        return CorePlugin.getInstance().getStateLocation().append(REPORT_FILE_NAME).toFile();
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static void add(Map<String, Long> timings, String name, long millis) {
+        Long current = timings.get(name);
+        timings.put(name, current == null ? millis : current + millis);
+    }
+
+    private static void appendJson(StringBuilder json, Map<String, Long> timings) {
+        json.append('{');
+        boolean first = true;
+        for (Entry<String, Long> timing : timings.entrySet()) {
+            json.append(first ? "" : ", ").append(quote(timing.getKey())).append(": ").append(timing.getValue());
+            first = false;
+        }
+        json.append('}');
+    }
+
+    private static String quote(String value) {
+        StringBuilder result = new StringBuilder(value.length() + 2);
+        result.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    result.append("\\\"");
+                    break;
+                case '\\':
+                    result.append("\\\\");
+                    break;
+                case '\n':
+                    result.append("\\n");
+                    break;
+                case '\r':
+                    result.append("\\r");
+                    break;
+                case '\t':
+                    result.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        result.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        result.append(c);
+                    }
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    /**
+     * The timings of a single Gradle build.
+     */
+    static final class BuildTimings {
+
+        private final File rootProjectDirectory;
+        private final long startNanos;
+        private final Map<String, Long> phases;
+        private final Map<String, Long> modelFetches;
+        private final Map<String, Map<String, Long>> projects;
+        private long totalMillis;
+        private int updatedProjects;
+        private int skippedProjects;
+
+        private BuildTimings(File rootProjectDirectory) {
+            this.rootProjectDirectory = Preconditions.checkNotNull(rootProjectDirectory);
+            this.startNanos = System.nanoTime();
+            this.phases = Maps.newLinkedHashMap();
+            this.modelFetches = Maps.newLinkedHashMap();
+            this.projects = Maps.newTreeMap();
+        }
+
+        /**
+         * Records a phase of the synchronization which started at the given time and ends now.
+         *
+         * @param phase the name of the phase
+         * @param startNanos the start of the phase as returned by {@link System#nanoTime()}
+         */
+        synchronized void recordPhase(String phase, long startNanos) {
+            add(this.phases, phase, elapsedMillis(startNanos));
+        }
+
+        /**
+         * Records the time it took to build the model of a participant of the composite build.
+         *
+         * @param participantRootDirectory the root project directory of the participant
+         * @param millis the time spent building the model
+         */
+        synchronized void recordModelFetch(File participantRootDirectory, long millis) {
+            add(this.modelFetches, participantRootDirectory.getAbsolutePath(), millis);
+        }
+
+        /**
+         * Starts measuring the steps applied to a project.
+         *
+         * @param projectName the name of the project
+         * @return the timer to record the steps with
+         */
+        ProjectTimer startProject(String projectName) {
+            return new ProjectTimer(this, projectName);
+        }
+
+        synchronized void finish(int updatedProjects, int skippedProjects) {
+            this.totalMillis = elapsedMillis(this.startNanos);
+            this.updatedProjects = updatedProjects;
+            this.skippedProjects = skippedProjects;
+        }
+
+        private synchronized void recordProjectStep(String projectName, String step, long millis) {
+            Map<String, Long> steps = this.projects.get(projectName);
+            if (steps == null) {
+                steps = Maps.newLinkedHashMap();
+                this.projects.put(projectName, steps);
+            }
+            add(steps, step, millis);
+        }
+
+        synchronized Map<String, Long> getPhases() {
+            return ImmutableMap.copyOf(this.phases);
+        }
+
+        synchronized Map<String, Long> getModelFetches() {
+            return ImmutableMap.copyOf(this.modelFetches);
+        }
+
+        synchronized Map<String, Long> getProjectSteps(String projectName) {
+            Map<String, Long> steps = this.projects.get(projectName);
+            return steps == null ? ImmutableMap.<String, Long>of() : ImmutableMap.copyOf(steps);
+        }
+
+        private synchronized void appendJson(StringBuilder json, String indent) {
+            json.append(indent).append("{\n");
+            json.append(indent).append("  \"rootProjectDirectory\": ").append(quote(this.rootProjectDirectory.getAbsolutePath())).append(",\n");
+            json.append(indent).append("  \"totalMillis\": ").append(this.totalMillis).append(",\n");
+            json.append(indent).append("  \"updatedProjects\": ").append(this.updatedProjects).append(",\n");
+            json.append(indent).append("  \"skippedProjects\": ").append(this.skippedProjects).append(",\n");
+            json.append(indent).append("  \"phases\": ");
+            SynchronizationReport.appendJson(json, this.phases);
+            json.append(",\n");
+            json.append(indent).append("  \"modelFetches\": ");
+            SynchronizationReport.appendJson(json, this.modelFetches);
+            json.append(",\n");
+            json.append(indent).append("  \"projects\": {");
+            List<Entry<String, Map<String, Long>>> projects = ImmutableList.copyOf(this.projects.entrySet());
+            for (int i = 0; i < projects.size(); i++) {
+                json.append(i == 0 ? "\n" : ",\n");
+                json.append(indent).append("    ").append(quote(projects.get(i).getKey())).append(": ");
+                SynchronizationReport.appendJson(json, projects.get(i).getValue());
+            }
+            json.append(projects.isEmpty() ? "}\n" : "\n" + indent + "  }\n");
+            json.append(indent).append('}');
+        }
+    }
+
+    /**
+     * Measures the consecutive steps applied to a project on a single thread. Each step is
+     * recorded with the time elapsed since the previous step or since the timer was created.
+     */
+    static final class ProjectTimer {
+
+        private final BuildTimings build;
+        private final String projectName;
+        private long lastNanos;
+
+        private ProjectTimer(BuildTimings build, String projectName) {
+            this.build = build;
+            this.projectName = Preconditions.checkNotNull(projectName);
+            this.lastNanos = System.nanoTime();
+        }
+
+        /**
+         * Records the step which just finished.
+         *
+         * @param step the name of the step
+         */
+        void lap(String step) {
+            long now = System.nanoTime();
+            this.build.recordProjectStep(this.projectName, step, TimeUnit.NANOSECONDS.toMillis(now - this.lastNanos));
+            this.lastNanos = now;
+        }
+    }
+}
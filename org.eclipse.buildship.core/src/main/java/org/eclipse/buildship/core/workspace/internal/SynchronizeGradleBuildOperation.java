@@ -13,34 +13,51 @@
 package org.eclipse.buildship.core.workspace.internal;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
-import org.eclipse.jdt.core.JavaModelException;
 
 import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.GradlePluginsRuntimeException;
 import org.eclipse.buildship.core.configuration.BuildConfiguration;
 import org.eclipse.buildship.core.configuration.ConfigurationManager;
 import org.eclipse.buildship.core.configuration.GradleProjectNature;
 import org.eclipse.buildship.core.configuration.ProjectConfiguration;
+import org.eclipse.buildship.core.preferences.PersistentModel;
 import org.eclipse.buildship.core.workspace.NewProjectHandler;
 
 /**
@@ -94,25 +111,71 @@ import org.eclipse.buildship.core.workspace.NewProjectHandler;
  *
  * <p/>
  * This operation changes resources. It will acquire the workspace scheduling rule to ensure an atomic operation.
- *
+ * <p/>
+ * If the operation is created with a parallelism greater than 1, then only the changes affecting the workspace structure
+ * (creating, renaming, refreshing and uncoupling projects, updating the project descriptions) are executed while holding
+ * the workspace root scheduling rule. The rest of the synchronization (linked resources, derived resources, source folders
+ * and classpath) is executed on a bounded thread pool where each project only holds its own scheduling rule. In this
+ * mode the linked and derived resources of a project are updated after its natures and build commands, otherwise they
+ * are updated before them.
+ * <p/>
+ * An existing workspace project is left unchanged if neither its Gradle model nor the state of the
+ * project changed since its last synchronization. This is determined by comparing the current
+ * {@link ProjectFingerprint} with the one stored in the persistent model.
+ * <p/>
+ * The time spent in the individual updaters is recorded per project in the given
+ * {@link SynchronizationReport.BuildTimings}.
  */
 final class SynchronizeGradleBuildOperation implements IWorkspaceRunnable {
 
     private final Set<OmniEclipseProject> allProjects;
     private final BuildConfiguration buildConfig;
     private final NewProjectHandler newProjectHandler;
+    private final int parallelism;
+    private final ProjectDirectoryTrie projectDirectories;
+    private final SynchronizationReport.BuildTimings timings;
+    private int updatedProjects;
+    private int skippedProjects;
 
     SynchronizeGradleBuildOperation(Set<OmniEclipseProject> allProjects, BuildConfiguration buildConfig, NewProjectHandler newProjectHandler) {
+        this(allProjects, buildConfig, newProjectHandler, 1, new SynchronizationReport().addBuild(buildConfig.getRootProjectDirectory()));
+    }
+
+    SynchronizeGradleBuildOperation(Set<OmniEclipseProject> allProjects, BuildConfiguration buildConfig, NewProjectHandler newProjectHandler, int parallelism, SynchronizationReport.BuildTimings timings) {
         this.allProjects = allProjects;
         this.buildConfig = buildConfig;
         this.newProjectHandler = newProjectHandler;
+        this.parallelism = parallelism;
+        this.projectDirectories = ProjectDirectoryTrie.create(allProjects);
+        this.timings = timings;
     }
 
     @Override
     public void run(IProgressMonitor monitor) throws CoreException {
         SubMonitor progress = SubMonitor.convert(monitor);
         progress.setTaskName(String.format("Synchronizing Gradle build at %s", this.buildConfig.getRootProjectDirectory()));
-        synchronizeProjectsWithWorkspace(progress);
+        if (this.parallelism > 1) {
+            synchronizeProjectsWithWorkspaceInParallel(progress);
+        } else {
+            synchronizeProjectsWithWorkspace(progress);
+        }
+        CorePlugin.logger().debug(String.format("Synchronized Gradle build at %s: %d projects updated, %d projects unchanged",
+                this.buildConfig.getRootProjectDirectory(), this.updatedProjects, this.skippedProjects));
+    }
+
+    /**
+     * Returns the number of workspace projects created or updated by this operation.
+     */
+    int getUpdatedProjectCount() {
+        return this.updatedProjects;
+    }
+
+    /**
+     * Returns the number of workspace projects left unchanged by this operation because they were
+     * already in sync with the Gradle model.
+     */
+    int getSkippedProjectCount() {
+        return this.skippedProjects;
     }
 
     private void synchronizeProjectsWithWorkspace(SubMonitor progress) throws CoreException {
@@ -131,12 +194,117 @@ final class SynchronizeGradleBuildOperation implements IWorkspaceRunnable {
             ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
                 @Override
                 public void run(IProgressMonitor monitor) throws CoreException {
-                    synchronizeGradleProjectWithWorkspaceProject(gradleProject, SubMonitor.convert(monitor));
+                    SubMonitor progress = SubMonitor.convert(monitor, 2);
+                    Optional<ProjectContentSynchronization> contentSynchronization = synchronizeGradleProjectWithWorkspaceProject(gradleProject, progress.newChild(1));
+                    if (contentSynchronization.isPresent()) {
+                        contentSynchronization.get().run(progress.newChild(1));
+                        contentSynchronization.get().notifyIfImported();
+                    }
                 }
             }, progress.newChild(1));
         }
     }
 
+    private void synchronizeProjectsWithWorkspaceInParallel(SubMonitor progress) throws CoreException {
+        final List<IProject> decoupledWorkspaceProjects = getOpenWorkspaceProjectsRemovedFromGradleBuild();
+        final List<ProjectContentSynchronization> contentSynchronizations = Lists.newArrayList();
+        progress.setWorkRemaining(decoupledWorkspaceProjects.size() + 2 * this.allProjects.size());
+
+        // uncouple, create, rename and configure the projects while holding the workspace root rule
+        IWorkspace workspace = ResourcesPlugin.getWorkspace();
+        workspace.run(new IWorkspaceRunnable() {
+
+            @Override
+            public void run(IProgressMonitor monitor) throws CoreException {
+                SubMonitor progress = SubMonitor.convert(monitor, decoupledWorkspaceProjects.size() + SynchronizeGradleBuildOperation.this.allProjects.size());
+                for (IProject project : decoupledWorkspaceProjects) {
+                    uncoupleWorkspaceProjectFromGradle(project, progress.newChild(1));
+                }
+                for (OmniEclipseProject gradleProject : SynchronizeGradleBuildOperation.this.allProjects) {
+                    contentSynchronizations.addAll(synchronizeGradleProjectWithWorkspaceProject(gradleProject, progress.newChild(1)).asSet());
+                }
+            }
+        }, workspace.getRoot(), IWorkspace.AVOID_UPDATE, progress.newChild(decoupledWorkspaceProjects.size() + this.allProjects.size()));
+
+        // synchronize the project contents concurrently, each worker holding only the rule of its project
+        synchronizeProjectContentsInParallel(contentSynchronizations, progress.newChild(this.allProjects.size()));
+
+        for (ProjectContentSynchronization contentSynchronization : contentSynchronizations) {
+            contentSynchronization.notifyIfImported();
+        }
+    }
+
+    private void synchronizeProjectContentsInParallel(List<ProjectContentSynchronization> contentSynchronizations, SubMonitor progress) throws CoreException {
+        progress.setWorkRemaining(contentSynchronizations.size());
+        if (contentSynchronizations.isEmpty()) {
+            return;
+        }
+
+        // the workers don't report to the (non thread-safe) progress monitor, they only observe the cancellation
+        final NullProgressMonitor workerMonitor = new NullProgressMonitor();
+        int poolSize = Math.min(this.parallelism, contentSynchronizations.size());
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize, new ThreadFactoryBuilder().setNameFormat("Buildship project synchronization %d").setDaemon(true).build());
+        try {
+            CompletionService<Void> completionService = new ExecutorCompletionService<Void>(executor);
+            for (final ProjectContentSynchronization contentSynchronization : contentSynchronizations) {
+                completionService.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() throws Exception {
+                        contentSynchronization.run(workerMonitor);
+                        return null;
+                    }
+                });
+            }
+
+            int completed = 0;
+            while (completed < contentSynchronizations.size()) {
+                if (progress.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                Future<Void> result = completionService.poll(100, TimeUnit.MILLISECONDS);
+                if (result != null) {
+                    getResult(result);
+                    completed++;
+                    progress.worked(1);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationCanceledException();
+        } finally {
+            // stop the remaining workers and wait until they release their project rules
+            workerMonitor.setCanceled(true);
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+    }
+
+    private static void getResult(Future<Void> result) throws CoreException, InterruptedException {
+        try {
+            result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CoreException) {
+                throw (CoreException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new GradlePluginsRuntimeException(cause);
+            }
+        }
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private List<IProject> getOpenWorkspaceProjectsRemovedFromGradleBuild() {
         // in the workspace, find all projects with a Gradle nature that belong to the same Gradle build (based on the root project directory) but
         // which do not match the location of one of the Gradle projects of that build
@@ -166,88 +334,129 @@ final class SynchronizeGradleBuildOperation implements IWorkspaceRunnable {
         }).toList();
     }
 
-    private void synchronizeGradleProjectWithWorkspaceProject(OmniEclipseProject project, SubMonitor progress) throws CoreException {
+    private Optional<ProjectContentSynchronization> synchronizeGradleProjectWithWorkspaceProject(OmniEclipseProject project, SubMonitor progress) throws CoreException {
         progress.setWorkRemaining(1);
         progress.subTask(String.format("Synchronize Gradle project %s with workspace project", project.getName()));
         // check if a project already exists in the workspace at the location of the Gradle project to import
         Optional<IProject> workspaceProject = CorePlugin.workspaceOperations().findProjectByLocation(project.getProjectDirectory());
         SubMonitor childProgress = progress.newChild(1, SubMonitor.SUPPRESS_ALL_LABELS);
         if (workspaceProject.isPresent()) {
-            synchronizeWorkspaceProject(project, workspaceProject.get(), childProgress);
+            return synchronizeWorkspaceProject(project, workspaceProject.get(), childProgress);
+        } else if (project.getProjectDirectory().exists() && this.newProjectHandler.shouldImport(project)) {
+            return Optional.of(synchronizeNonWorkspaceProject(project, childProgress));
         } else {
-            if (project.getProjectDirectory().exists() && this.newProjectHandler.shouldImport(project)) {
-                synchronizeNonWorkspaceProject(project, childProgress);
-            }
+            return Optional.absent();
         }
     }
 
-    private void synchronizeWorkspaceProject(OmniEclipseProject project, IProject workspaceProject, SubMonitor progress) throws CoreException {
+    private Optional<ProjectContentSynchronization> synchronizeWorkspaceProject(OmniEclipseProject project, IProject workspaceProject, SubMonitor progress) throws CoreException {
         if (workspaceProject.isAccessible()) {
-            synchronizeOpenWorkspaceProject(project, workspaceProject, true, progress);
+            progress.setWorkRemaining(2);
+            SynchronizationReport.ProjectTimer timer = this.timings.startProject(project.getName());
+
+            // only refresh the resources read or modified by the synchronization
+            ProjectRefresher.refresh(workspaceProject, project, this.projectDirectories, progress.newChild(1));
+            timer.lap("ProjectRefresher");
+
+            String modelFingerprint = ProjectFingerprint.ofModel(project, this.projectDirectories);
+            boolean upToDate = isUpToDate(project, workspaceProject, modelFingerprint);
+            timer.lap("ProjectFingerprint");
+            if (upToDate) {
+                this.skippedProjects++;
+                updateBuildInputHashes(project, workspaceProject);
+                timer.lap("BuildInputs");
+                return Optional.absent();
+            }
+            return Optional.of(synchronizeOpenWorkspaceProject(project, workspaceProject, modelFingerprint, false, progress.newChild(1)));
         } else {
             synchronizeClosedWorkspaceProject(progress);
+            return Optional.absent();
         }
     }
 
-    private void synchronizeOpenWorkspaceProject(OmniEclipseProject project, IProject workspaceProject, boolean refreshNeeded, SubMonitor progress) throws CoreException {
-        progress.setWorkRemaining(10);
+    private boolean isUpToDate(OmniEclipseProject project, IProject workspaceProject, String modelFingerprint) throws CoreException {
+        PersistentModel model = CorePlugin.modelPersistence().loadModel(workspaceProject);
+        if (!model.isPresent() || !model.getFingerprint().isPresent() || !GradleProjectNature.isPresentOn(workspaceProject)) {
+            return false;
+        }
 
-        //currently lots of our synchronization logic assumes that the whole resource tree is readable.
-        if (refreshNeeded) {
-            CorePlugin.workspaceOperations().refreshProject(workspaceProject, progress.newChild(1));
-        } else {
-            progress.worked(1);
+        ConfigurationManager configManager = CorePlugin.configurationManager();
+        ProjectConfiguration projectConfig = configManager.createProjectConfiguration(this.buildConfig, project.getProjectDirectory());
+        if (!projectConfig.equals(configManager.tryLoadProjectConfiguration(workspaceProject))) {
+            return false;
         }
 
+        String fingerprint = ProjectFingerprint.of(modelFingerprint, workspaceProject, model.getDerivedResources(), model.getLinkedResources());
+        return fingerprint.equals(model.getFingerprint().get());
+    }
+
+    private void updateBuildInputHashes(OmniEclipseProject project, IProject workspaceProject) {
+        // the build inputs can change without changing the model, e.g. when a task is added to the build script;
+        // the recorded hashes are updated anyway, otherwise every later touch of the inputs would trigger another synchronization
+        PersistentModel model = CorePlugin.modelPersistence().loadModel(workspaceProject);
+        ProjectConfiguration projectConfig = CorePlugin.configurationManager().createProjectConfiguration(this.buildConfig, project.getProjectDirectory());
+        Map<IPath, String> buildInputHashes = hashBuildInputs(project, projectConfig);
+        if (buildInputHashes != null && !buildInputHashes.equals(model.getBuildInputHashes().orNull())) {
+            PersistentModelBuilder persistentModel = new PersistentModelBuilder(model).fingerprint(model.getFingerprint().orNull()).buildInputHashes(buildInputHashes);
+            CorePlugin.modelPersistence().saveModel(persistentModel.build());
+        }
+    }
+
+    private static Map<IPath, String> hashBuildInputs(OmniEclipseProject project, ProjectConfiguration projectConfig) {
+        try {
+            return BuildInputs.of(projectConfig, BuildScriptLocationUpdater.getBuildScriptPath(project)).hash();
+        } catch (IOException e) {
+            CorePlugin.logger().warn("Failed to calculate the hashes of the build inputs of project " + project.getName(), e);
+            return null;
+        }
+    }
+
+    private ProjectContentSynchronization synchronizeOpenWorkspaceProject(OmniEclipseProject project, IProject workspaceProject, String modelFingerprint, boolean newlyImported, SubMonitor progress) throws CoreException {
+        progress.setWorkRemaining(7);
+        this.updatedProjects++;
+        SynchronizationReport.ProjectTimer timer = this.timings.startProject(project.getName());
+
         // save the project configuration; has to be called after workspace project is in sync with the file system
         // otherwise the Eclipse preferences API will throw BackingStoreException
         ConfigurationManager configManager = CorePlugin.configurationManager();
         ProjectConfiguration projectConfig = configManager.createProjectConfiguration(this.buildConfig, project.getProjectDirectory());
         configManager.saveProjectConfiguration(projectConfig);
+        timer.lap("ProjectConfiguration");
 
         workspaceProject = ProjectNameUpdater.updateProjectName(workspaceProject, project, this.allProjects, progress.newChild(1));
+        timer.lap("ProjectNameUpdater");
 
         CorePlugin.workspaceOperations().addNature(workspaceProject, GradleProjectNature.ID, progress.newChild(1));
+        timer.lap("GradleProjectNature");
 
         PersistentModelBuilder persistentModel = new PersistentModelBuilder(CorePlugin.modelPersistence().loadModel(workspaceProject));
+        timer.lap("PersistentModel");
 
         BuildScriptLocationUpdater.update(project, persistentModel, progress.newChild(1));
-        LinkedResourcesUpdater.update(workspaceProject, project.getLinkedResources(), persistentModel, progress.newChild(1));
-        GradleFolderUpdater.update(workspaceProject, project, persistentModel, progress.newChild(1));
+        timer.lap("BuildScriptLocationUpdater");
+        persistentModel.buildInputHashes(hashBuildInputs(project, projectConfig));
+        timer.lap("BuildInputs");
+
+        ProjectContentSynchronization contentSynchronization = new ProjectContentSynchronization(project, workspaceProject, persistentModel, modelFingerprint, newlyImported);
+        if (this.parallelism <= 1) {
+            // the natures and build commands are configured with the linked and derived resources already in place
+            contentSynchronization.updateResources(timer, progress.newChild(1));
+        } else {
+            progress.worked(1);
+        }
+
         ProjectNatureUpdater.update(workspaceProject, project.getProjectNatures(), persistentModel, progress.newChild(1));
+        timer.lap("ProjectNatureUpdater");
         BuildCommandUpdater.update(workspaceProject, project.getBuildCommands(), persistentModel, progress.newChild(1));
+        timer.lap("BuildCommandUpdater");
 
         if (isJavaProject(project)) {
-            synchronizeJavaProject(project, workspaceProject, persistentModel, progress);
-        } else {
-            persistentModel.classpath(ImmutableList.<IClasspathEntry>of());
+            //old Gradle versions did not expose natures, so we need to add the Java nature explicitly
+            CorePlugin.workspaceOperations().addNature(workspaceProject, JavaCore.NATURE_ID, progress.newChild(1));
+            timer.lap("JavaNature");
         }
 
-        CorePlugin.modelPersistence().saveModel(persistentModel.build());
-    }
-
-    private void synchronizeJavaProject(final OmniEclipseProject project, final IProject workspaceProject, final PersistentModelBuilder persistentModel, SubMonitor progress) throws CoreException {
-        JavaCore.run(new IWorkspaceRunnable() {
-            @Override
-            public void run(IProgressMonitor monitor) throws CoreException {
-                SubMonitor progress = SubMonitor.convert(monitor);
-                synchronizeJavaProjectInTransaction(project, workspaceProject, persistentModel, progress);
-            }
-        }, progress.newChild(1));
-    }
-
-    private void synchronizeJavaProjectInTransaction(final OmniEclipseProject project, final IProject workspaceProject, PersistentModelBuilder persistentModel, SubMonitor progress) throws JavaModelException, CoreException {
-        progress.setWorkRemaining(8);
-        //old Gradle versions did not expose natures, so we need to add the Java nature explicitly
-        CorePlugin.workspaceOperations().addNature(workspaceProject, JavaCore.NATURE_ID, progress.newChild(1));
-        IJavaProject javaProject = JavaCore.create(workspaceProject);
-        OutputLocationUpdater.update(javaProject, project.getOutputLocation(), progress.newChild(1));
-        SourceFolderUpdater.update(javaProject, project.getSourceDirectories(), progress.newChild(1));
-        LibraryFilter.update(javaProject, project, progress.newChild(1));
-        ClasspathContainerUpdater.update(javaProject, project.getClasspathContainers(), project.getJavaSourceSettings().get(), progress.newChild(1));
-        JavaSourceSettingsUpdater.update(javaProject, project, progress.newChild(1));
-        GradleClasspathContainerUpdater.updateFromModel(javaProject, project, SynchronizeGradleBuildOperation.this.allProjects, persistentModel, progress.newChild(1));
-        WtpClasspathUpdater.update(javaProject, project, progress.newChild(1));
+        return contentSynchronization;
     }
 
     private boolean isJavaProject(OmniEclipseProject project) {
@@ -258,43 +467,161 @@ final class SynchronizeGradleBuildOperation implements IWorkspaceRunnable {
         // do not modify closed projects
     }
 
-    private void synchronizeNonWorkspaceProject(OmniEclipseProject project, SubMonitor progress) throws CoreException {
+    private ProjectContentSynchronization synchronizeNonWorkspaceProject(OmniEclipseProject project, SubMonitor progress) throws CoreException {
         progress.setWorkRemaining(2);
-        IProject workspaceProject;
 
         // check if an Eclipse project already exists at the location of the Gradle project to import
         Optional<IProjectDescription> projectDescription = CorePlugin.workspaceOperations().findProjectDescriptor(project.getProjectDirectory(), progress.newChild(1));
         if (projectDescription.isPresent()) {
-            workspaceProject = addExistingEclipseProjectToWorkspace(project, projectDescription.get(), progress.newChild(1));
+            return addExistingEclipseProjectToWorkspace(project, projectDescription.get(), progress.newChild(1));
         } else {
-            workspaceProject = addNewEclipseProjectToWorkspace(project, progress.newChild(1));
+            return addNewEclipseProjectToWorkspace(project, progress.newChild(1));
         }
-
-        this.newProjectHandler.afterImport(workspaceProject, project);
     }
 
-    private IProject addExistingEclipseProjectToWorkspace(OmniEclipseProject project, IProjectDescription projectDescription, SubMonitor progress) throws CoreException {
+    private ProjectContentSynchronization addExistingEclipseProjectToWorkspace(OmniEclipseProject project, IProjectDescription projectDescription, SubMonitor progress) throws CoreException {
         progress.setWorkRemaining(3);
         ProjectNameUpdater.ensureProjectNameIsFree(project, this.allProjects, progress.newChild(1));
         IProject workspaceProject = CorePlugin.workspaceOperations().includeProject(projectDescription, ImmutableList.<String>of(), progress.newChild(1));
-        synchronizeOpenWorkspaceProject(project, workspaceProject, false, progress.newChild(1));
-        return workspaceProject;
+        return synchronizeOpenWorkspaceProject(project, workspaceProject, ProjectFingerprint.ofModel(project, this.projectDirectories), true, progress.newChild(1));
     }
 
-    private IProject addNewEclipseProjectToWorkspace(OmniEclipseProject project, SubMonitor progress) throws CoreException {
+    private ProjectContentSynchronization addNewEclipseProjectToWorkspace(OmniEclipseProject project, SubMonitor progress) throws CoreException {
         progress.setWorkRemaining(3);
         ProjectNameUpdater.ensureProjectNameIsFree(project, this.allProjects, progress.newChild(1));
         IProject workspaceProject = CorePlugin.workspaceOperations().createProject(project.getName(), project.getProjectDirectory(), ImmutableList.<String>of(), progress.newChild(1));
-        synchronizeOpenWorkspaceProject(project, workspaceProject, false, progress.newChild(1));
-        return workspaceProject;
+        return synchronizeOpenWorkspaceProject(project, workspaceProject, ProjectFingerprint.ofModel(project, this.projectDirectories), true, progress.newChild(1));
     }
 
     private void uncoupleWorkspaceProjectFromGradle(IProject workspaceProject, SubMonitor monitor) {
         monitor.setWorkRemaining(3);
         monitor.subTask(String.format("Uncouple workspace project %s from Gradle", workspaceProject.getName()));
-        CorePlugin.workspaceOperations().refreshProject(workspaceProject, monitor.newChild(1, SubMonitor.SUPPRESS_ALL_LABELS));
+        ProjectRefresher.refreshMetadata(workspaceProject, monitor.newChild(1, SubMonitor.SUPPRESS_ALL_LABELS));
         CorePlugin.workspaceOperations().removeNature(workspaceProject, GradleProjectNature.ID, monitor.newChild(1, SubMonitor.SUPPRESS_ALL_LABELS));
         CorePlugin.modelPersistence().deleteModel(workspaceProject);
         CorePlugin.configurationManager().deleteProjectConfiguration(workspaceProject);
     }
+
+    /**
+     * The part of the project synchronization which only modifies the target project: the linked
+     * resources, the derived resources and, for Java projects, the classpath. The values derived from
+     * the Gradle model are calculated before the project scheduling rule is acquired. The project
+     * fingerprint is recorded once all changes are applied.
+     */
+    private final class ProjectContentSynchronization {
+
+        private final OmniEclipseProject project;
+        private final IProject workspaceProject;
+        private final PersistentModelBuilder persistentModel;
+        private final String modelFingerprint;
+        private final boolean newlyImported;
+        private boolean resourcesUpdated;
+
+        private ProjectContentSynchronization(OmniEclipseProject project, IProject workspaceProject, PersistentModelBuilder persistentModel, String modelFingerprint, boolean newlyImported) {
+            this.project = project;
+            this.workspaceProject = workspaceProject;
+            this.persistentModel = persistentModel;
+            this.modelFingerprint = modelFingerprint;
+            this.newlyImported = newlyImported;
+        }
+
+        private void run(IProgressMonitor monitor) throws CoreException {
+            // the steps are measured from here, as in parallel mode the content synchronization is queued
+            final SynchronizationReport.ProjectTimer timer = SynchronizeGradleBuildOperation.this.timings.startProject(this.project.getName());
+            final LinkedResourcesUpdater linkedResourcesUpdater;
+            final GradleFolderUpdater folderUpdater;
+            if (this.resourcesUpdated) {
+                linkedResourcesUpdater = null;
+                folderUpdater = null;
+            } else {
+                linkedResourcesUpdater = LinkedResourcesUpdater.prepare(this.workspaceProject, this.project.getLinkedResources(), this.persistentModel.getPrevious());
+                timer.lap("LinkedResourcesUpdater");
+                folderUpdater = GradleFolderUpdater.prepare(this.workspaceProject, this.project, SynchronizeGradleBuildOperation.this.projectDirectories);
+                timer.lap("GradleFolderUpdater");
+            }
+
+            ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+
+                @Override
+                public void run(IProgressMonitor monitor) throws CoreException {
+                    timer.lap("waitForProjectRule");
+                    SubMonitor progress = SubMonitor.convert(monitor, 3);
+                    PersistentModelBuilder persistentModel = ProjectContentSynchronization.this.persistentModel;
+                    if (linkedResourcesUpdater != null) {
+                        linkedResourcesUpdater.update(persistentModel, progress.newChild(1));
+                        timer.lap("LinkedResourcesUpdater");
+                        folderUpdater.update(persistentModel, progress.newChild(1));
+                        timer.lap("GradleFolderUpdater");
+                    } else {
+                        progress.worked(2);
+                    }
+                    if (isJavaProject(ProjectContentSynchronization.this.project)) {
+                        synchronizeJavaProject(timer, progress.newChild(1));
+                    } else {
+                        persistentModel.classpath(ImmutableList.<IClasspathEntry>of());
+                    }
+                    PersistentModel model = persistentModel.build();
+                    persistentModel.fingerprint(ProjectFingerprint.of(ProjectContentSynchronization.this.modelFingerprint, ProjectContentSynchronization.this.workspaceProject,
+                            model.getDerivedResources(), model.getLinkedResources()));
+                    timer.lap("ProjectFingerprint");
+                    CorePlugin.modelPersistence().saveModel(persistentModel.build());
+                    timer.lap("ModelPersistence");
+                }
+            }, this.workspaceProject, IWorkspace.AVOID_UPDATE, monitor);
+        }
+
+        /**
+         * Updates the linked and derived resources on the calling thread, before the rest of the
+         * content synchronization. The caller must hold the scheduling rule of the project.
+         */
+        private void updateResources(SynchronizationReport.ProjectTimer timer, SubMonitor progress) throws CoreException {
+            progress.setWorkRemaining(2);
+            LinkedResourcesUpdater.prepare(this.workspaceProject, this.project.getLinkedResources(), this.persistentModel.getPrevious()).update(this.persistentModel, progress.newChild(1));
+            timer.lap("LinkedResourcesUpdater");
+            GradleFolderUpdater.prepare(this.workspaceProject, this.project, SynchronizeGradleBuildOperation.this.projectDirectories).update(this.persistentModel, progress.newChild(1));
+            timer.lap("GradleFolderUpdater");
+            this.resourcesUpdated = true;
+        }
+
+        private void synchronizeJavaProject(final SynchronizationReport.ProjectTimer timer, SubMonitor progress) throws CoreException {
+            final OmniEclipseProject project = this.project;
+            final IJavaProject javaProject = JavaCore.create(this.workspaceProject);
+            final SourceFolderUpdater sourceFolderUpdater = SourceFolderUpdater.prepare(javaProject, project.getSourceDirectories());
+            timer.lap("SourceFolderUpdater");
+            final GradleClasspathContainerUpdater containerUpdater = GradleClasspathContainerUpdater.prepare(javaProject, project, SynchronizeGradleBuildOperation.this.allProjects);
+            timer.lap("GradleClasspathContainerUpdater");
+
+            JavaCore.run(new IWorkspaceRunnable() {
+
+                @Override
+                public void run(IProgressMonitor monitor) throws CoreException {
+                    SubMonitor progress = SubMonitor.convert(monitor, 3);
+                    // collect the raw classpath changes in memory and write them to the project at once
+                    ClasspathBuilder classpath = ClasspathBuilder.from(javaProject);
+                    OutputLocationUpdater.update(classpath, project.getOutputLocation());
+                    timer.lap("OutputLocationUpdater");
+                    sourceFolderUpdater.update(classpath);
+                    timer.lap("SourceFolderUpdater");
+                    LibraryFilter.update(classpath, project);
+                    timer.lap("LibraryFilter");
+                    ClasspathContainerUpdater.update(classpath, project.getClasspathContainers(), project.getJavaSourceSettings().get());
+                    timer.lap("ClasspathContainerUpdater");
+                    WtpClasspathUpdater.update(classpath, project);
+                    timer.lap("WtpClasspathUpdater");
+                    classpath.commit(progress.newChild(1));
+                    timer.lap("ClasspathCommit");
+                    JavaSourceSettingsUpdater.update(javaProject, project, progress.newChild(1));
+                    timer.lap("JavaSourceSettingsUpdater");
+                    containerUpdater.update(ProjectContentSynchronization.this.persistentModel, progress.newChild(1));
+                    timer.lap("GradleClasspathContainerUpdater");
+                }
+            }, this.workspaceProject, progress);
+        }
+
+        private void notifyIfImported() {
+            if (this.newlyImported) {
+                SynchronizeGradleBuildOperation.this.newProjectHandler.afterImport(this.workspaceProject, this.project);
+            }
+        }
+    }
 }
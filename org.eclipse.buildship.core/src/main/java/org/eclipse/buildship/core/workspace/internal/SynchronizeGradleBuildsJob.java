@@ -17,15 +17,19 @@ import com.google.common.collect.ImmutableSet;
 import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
 import com.gradleware.tooling.toolingmodel.repository.FetchStrategy;
 
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.ILock;
 import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.configuration.BuildConfiguration;
+import org.eclipse.buildship.core.util.preference.AdvancedPreferences;
 import org.eclipse.buildship.core.util.progress.AsyncHandler;
 import org.eclipse.buildship.core.util.progress.ToolingApiJob;
 import org.eclipse.buildship.core.workspace.GradleBuild;
@@ -35,25 +39,39 @@ import org.eclipse.buildship.core.workspace.NewProjectHandler;
 
 /**
  * Synchronizes each of the given Gradle builds with the workspace.
+ * <p/>
+ * By default the job holds the workspace root scheduling rule. If parallel synchronization is
+ * enabled via {@link AdvancedPreferences#getSynchronizationParallelism()}, then the job acquires the
+ * rules only for the operations that need them, and the synchronize jobs are serialized via a lock.
+ * <p/>
+ * The time spent in the individual phases is written to a {@link SynchronizationReport} once the
+ * job finishes.
  */
 public final class SynchronizeGradleBuildsJob extends ToolingApiJob {
 
+    private static final ILock PARALLEL_SYNCHRONIZATION_LOCK = Job.getJobManager().newLock();
+
     private final ImmutableSet<GradleBuild> builds;
     private final NewProjectHandler newProjectHandler;
     private final AsyncHandler initializer;
+    private final int parallelism;
 
     private SynchronizeGradleBuildsJob(Set<GradleBuild> builds, NewProjectHandler newProjectHandler, AsyncHandler initializer) {
         super("Synchronize Gradle projects with workspace", true);
         this.builds = ImmutableSet.copyOf(builds);
         this.newProjectHandler = Preconditions.checkNotNull(newProjectHandler);
         this.initializer = Preconditions.checkNotNull(initializer);
+        this.parallelism = AdvancedPreferences.getSynchronizationParallelism();
 
         // explicitly show a dialog with the progress while the project synchronization is in
         // process
         setUser(true);
 
-        // guarantee sequential order of synchronize jobs
-        setRule(ResourcesPlugin.getWorkspace().getRoot());
+        // guarantee sequential order of synchronize jobs; the parallel synchronization uses a lock
+        // instead, as its workers only hold the rules of the projects they synchronize
+        if (this.parallelism <= 1) {
+            setRule(ResourcesPlugin.getWorkspace().getRoot());
+        }
     }
 
     Set<GradleBuild> getBuilds() {
@@ -62,32 +80,93 @@ public final class SynchronizeGradleBuildsJob extends ToolingApiJob {
 
     @Override
     protected void runToolingApiJob(IProgressMonitor monitor) throws Exception {
-        final SubMonitor progress = SubMonitor.convert(monitor, this.builds.size() + 1);
-
-        this.initializer.run(progress.newChild(1), getToken());
+        if (this.parallelism > 1) {
+            PARALLEL_SYNCHRONIZATION_LOCK.acquire();
+            try {
+                synchronizeBuilds(monitor);
+            } finally {
+                PARALLEL_SYNCHRONIZATION_LOCK.release();
+            }
+        } else {
+            synchronizeBuilds(monitor);
+        }
+    }
 
-        for (GradleBuild build : this.builds) {
-            if (monitor.isCanceled()) {
-                throw new OperationCanceledException();
+    private void synchronizeBuilds(IProgressMonitor monitor) throws CoreException {
+        final SubMonitor progress = SubMonitor.convert(monitor, this.builds.size() + 1);
+        SynchronizationReport report = new SynchronizationReport();
+
+        try {
+            runWithWorkspaceRule(new IWorkspaceRunnable() {
+
+                @Override
+                public void run(IProgressMonitor monitor) {
+                    SynchronizeGradleBuildsJob.this.initializer.run(monitor, getToken());
+                }
+            }, progress.newChild(1));
+
+            for (GradleBuild build : this.builds) {
+                if (monitor.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                synchronizeBuild(build, report, progress.newChild(1));
             }
-            synchronizeBuild(build, progress.newChild(1));
+        } finally {
+            report.write();
         }
     }
 
-    private void synchronizeBuild(GradleBuild build, SubMonitor progress) throws CoreException {
-        BuildConfiguration buildConfig = build.getBuildConfig();
+    private void synchronizeBuild(GradleBuild build, SynchronizationReport report, SubMonitor progress) throws CoreException {
+        final BuildConfiguration buildConfig = build.getBuildConfig();
+        SynchronizationReport.BuildTimings timings = report.addBuild(buildConfig.getRootProjectDirectory());
         progress.setTaskName((String.format("Synchronizing Gradle build at %s with workspace", buildConfig.getRootProjectDirectory())));
         progress.setWorkRemaining(4);
-        Set<OmniEclipseProject> allProjects = fetchEclipseProjects(build, progress.newChild(1));
+
+        long start = System.nanoTime();
+        Set<OmniEclipseProject> allProjects = fetchEclipseProjects(build, timings, progress.newChild(1));
+        timings.recordPhase("fetchModels", start);
+
+        start = System.nanoTime();
         new ValidateProjectLocationOperation(allProjects).run(progress.newChild(1));
-        new SynchronizeBuildConfigurationOperation(buildConfig).run(progress.newChild(1), getToken());
+        timings.recordPhase("validateProjectLocations", start);
+
+        start = System.nanoTime();
+        runWithWorkspaceRule(new IWorkspaceRunnable() {
+
+            @Override
+            public void run(IProgressMonitor monitor) {
+                new SynchronizeBuildConfigurationOperation(buildConfig).run(monitor, getToken());
+            }
+        }, progress.newChild(1));
+        timings.recordPhase("synchronizeBuildConfiguration", start);
+
+        start = System.nanoTime();
         new RunOnImportTasksOperation(allProjects, buildConfig).run(progress.newChild(1), getToken());
-        new SynchronizeGradleBuildOperation(allProjects, buildConfig, SynchronizeGradleBuildsJob.this.newProjectHandler).run(progress.newChild(1));
+        timings.recordPhase("runOnImportTasks", start);
+
+        start = System.nanoTime();
+        SynchronizeGradleBuildOperation synchronizeOperation = new SynchronizeGradleBuildOperation(allProjects, buildConfig, SynchronizeGradleBuildsJob.this.newProjectHandler, this.parallelism, timings);
+        synchronizeOperation.run(progress.newChild(1));
+        timings.recordPhase("synchronizeProjects", start);
+        timings.finish(synchronizeOperation.getUpdatedProjectCount(), synchronizeOperation.getSkippedProjectCount());
     }
 
-    private Set<OmniEclipseProject> fetchEclipseProjects(GradleBuild build, SubMonitor progress) {
+    private void runWithWorkspaceRule(IWorkspaceRunnable runnable, IProgressMonitor monitor) throws CoreException {
+        if (this.parallelism > 1) {
+            IWorkspace workspace = ResourcesPlugin.getWorkspace();
+            workspace.run(runnable, workspace.getRoot(), IWorkspace.AVOID_UPDATE, monitor);
+        } else {
+            // the job already holds the workspace root rule
+            runnable.run(monitor);
+        }
+    }
+
+    private Set<OmniEclipseProject> fetchEclipseProjects(GradleBuild build, SynchronizationReport.BuildTimings timings, SubMonitor progress) {
         progress.setTaskName("Loading Gradle project models");
         ModelProvider modelProvider = build.getModelProvider();
+        if (modelProvider instanceof DefaultModelProvider) {
+            return ((DefaultModelProvider) modelProvider).fetchEclipseGradleProjects(FetchStrategy.FORCE_RELOAD, getToken(), progress, timings);
+        }
         return modelProvider.fetchEclipseGradleProjects(FetchStrategy.FORCE_RELOAD, getToken(), progress);
     }
 
@@ -8,22 +8,16 @@
 
 package org.eclipse.buildship.core.workspace.internal;
 
+import java.util.List;
 import java.util.Set;
 
-import com.google.common.collect.Sets;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 
 import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.IResource;
-import org.eclipse.core.resources.IResourceChangeEvent;
-import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
-import org.eclipse.core.resources.IResourceDeltaVisitor;
-import org.eclipse.core.resources.IWorkspaceRoot;
-import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
 
 import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.configuration.GradleProjectNature;
@@ -32,97 +26,79 @@ import org.eclipse.buildship.core.preferences.PersistentModel;
 
 /**
  * Executes project synchronization if the corresponding preference is enabled and the user changes
- * the build script.
+ * the build script or any other {@link BuildInputs build input}. The synchronization is skipped if
+ * the hashes of the build inputs are equal to the ones recorded by the previous synchronization.
+ * The synchronizations are scheduled through an {@link AutoSyncScheduler}, so simultaneous changes
+ * of many build scripts only synchronize each Gradle build once, and the build inputs are hashed
+ * by its job instead of the thread delivering the resource change events.
+ * <p/>
+ * The listener is notified by the {@link ResourceDeltaDispatcher} only about the changes of the
+ * locations which can contain build inputs.
  *
  * @author Donat Csikos
  */
-public final class SynchronizingBuildScriptUpdateListener implements IResourceChangeListener {
+public final class SynchronizingBuildScriptUpdateListener implements ResourceDeltaDispatcher.Subscriber {
 
-    private SynchronizingBuildScriptUpdateListener() {
+    private final ResourceDeltaDispatcher dispatcher;
+    private final AutoSyncScheduler scheduler;
+
+    private SynchronizingBuildScriptUpdateListener(ResourceDeltaDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        this.scheduler = new AutoSyncScheduler();
     }
 
     @Override
-    public void resourceChanged(IResourceChangeEvent event) {
-
-        IResourceDelta delta = event.getDelta();
-        if (delta != null) {
-            try {
-                visitDelta(delta);
-            } catch (CoreException e) {
-                CorePlugin.logger().warn("Failed to detect project changes", e);
-            }
-        }
+    public void projectChanged(IResourceDelta projectDelta) {
     }
 
-    private boolean isEnabledInPreferences(IProject project) {
-        ProjectConfiguration configuration = CorePlugin.configurationManager().loadProjectConfiguration(project);
-        return configuration.getBuildConfiguration().isAutoSync();
+    @Override
+    public Set<IPath> getInterestingPaths(IProject project) {
+        Optional<BuildInputs> buildInputs = getBuildInputs(project);
+        return buildInputs.isPresent() ? buildInputs.get().getWatchedPaths() : ImmutableSet.<IPath>of();
     }
 
-    private void visitDelta(IResourceDelta delta) throws CoreException {
-        delta.accept(new IResourceDeltaVisitor() {
-
-            @Override
-            public boolean visit(IResourceDelta delta) throws CoreException {
-                try {
-                    return doVisitDelta(delta);
-                } catch (Exception e) {
-                    throw new CoreException(new Status(IStatus.WARNING, CorePlugin.PLUGIN_ID, "SynchronizingBuildScriptUpdateListener failed", e));
-                }
-            }
-        });
+    @Override
+    public void resourcesChanged(IProject project, List<IResourceDelta> deltas) {
+        Optional<BuildInputs> buildInputs = getBuildInputs(project);
+        if (buildInputs.isPresent() && isAffectedBy(buildInputs.get(), deltas)) {
+            this.scheduler.schedule(CorePlugin.gradleWorkspaceManager().getGradleBuild(project).get(), project, buildInputs.get());
+        }
     }
 
-    private boolean doVisitDelta(IResourceDelta delta) throws Exception {
-        IResource resource = delta.getResource();
-        if (resource instanceof IProject) {
-            IProject project = (IProject) resource;
-            if (GradleProjectNature.isPresentOn(project) && isEnabledInPreferences(project)) {
-                executeSyncIfBuildScriptChanged(project, delta);
-            }
-            return false;
-        } else {
-            return resource instanceof IWorkspaceRoot;
+    private Optional<BuildInputs> getBuildInputs(IProject project) {
+        if (!GradleProjectNature.isPresentOn(project)) {
+            return Optional.absent();
         }
-    }
 
-    private void executeSyncIfBuildScriptChanged(IProject project, IResourceDelta delta) {
-        if (hasBuildScriptFileChanged(project, delta.getAffectedChildren())) {
-            CorePlugin.gradleWorkspaceManager().getGradleBuild(project).get().synchronize();
+        ProjectConfiguration configuration = CorePlugin.configurationManager().loadProjectConfiguration(project);
+        if (!configuration.getBuildConfiguration().isAutoSync()) {
+            return Optional.absent();
         }
-    }
 
-    private boolean hasBuildScriptFileChanged(IProject project, IResourceDelta[] deltas) {
         PersistentModel model = CorePlugin.modelPersistence().loadModel(project);
         if (!model.isPresent())  {
-            return false;
-        } else {
-            IPath buildScriptPath = model.getbuildScriptPath();
-            Set<IPath> affectedResourcePaths  = collectAffectedResourcePaths(deltas);
-            return affectedResourcePaths.contains(buildScriptPath);
+            return Optional.absent();
         }
-    }
 
-    private Set<IPath> collectAffectedResourcePaths(IResourceDelta[] children) {
-        Set<IPath> result = Sets.newHashSet();
-        collectAffectedResourcePaths(result, children);
-        return result;
+        return Optional.of(BuildInputs.of(configuration, model.getbuildScriptPath()));
     }
 
-    private void  collectAffectedResourcePaths(Set<IPath> result, IResourceDelta[] deltas) {
+    private static boolean isAffectedBy(BuildInputs buildInputs, List<IResourceDelta> deltas) {
+        List<IPath> paths = Lists.newArrayListWithCapacity(deltas.size());
         for (IResourceDelta delta : deltas) {
-            result.add(delta.getResource().getProjectRelativePath());
-            collectAffectedResourcePaths(result, delta.getAffectedChildren());
+            paths.add(delta.getProjectRelativePath());
         }
+        return buildInputs.isAffectedBy(paths);
     }
 
-    public static SynchronizingBuildScriptUpdateListener createAndRegister() {
-        SynchronizingBuildScriptUpdateListener listener = new SynchronizingBuildScriptUpdateListener();
-        ResourcesPlugin.getWorkspace().addResourceChangeListener(listener, IResourceChangeEvent.POST_CHANGE);
+    public static SynchronizingBuildScriptUpdateListener createAndRegister(ResourceDeltaDispatcher dispatcher) {
+        SynchronizingBuildScriptUpdateListener listener = new SynchronizingBuildScriptUpdateListener(dispatcher);
+        dispatcher.subscribe(listener);
         return listener;
     }
 
     public void close() {
-        ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+        this.dispatcher.unsubscribe(this);
+        this.scheduler.close();
     }
 }
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.BiMap;
+import com.google.common.collect.HashBiMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.event.Event;
+import org.eclipse.buildship.core.event.EventDelivery;
+import org.eclipse.buildship.core.event.EventListener;
+import org.eclipse.buildship.core.workspace.ProjectCreatedEvent;
+import org.eclipse.buildship.core.workspace.ProjectDeletedEvent;
+import org.eclipse.buildship.core.workspace.ProjectMovedEvent;
+
+/**
+ * Indexes the workspace projects by name and by location.
+ * <p/>
+ * The index is built when first queried and is kept up-to-date with the project events sent by
+ * the {@link ProjectChangeListener}. As these events are only sent once the enclosing workspace
+ * operation is finished, the projects created and renamed by {@link DefaultWorkspaceOperations}
+ * are also registered directly. An outdated entry found by a lookup causes the index to be rebuilt,
+ * and so does a failed lookup if the number of indexed projects differs from the number of
+ * projects in the workspace.
+ * <p/>
+ * The location of a project can also change without renaming it, so the projects whose description
+ * changed or which were opened or closed are re-indexed via the {@link ResourceDeltaDispatcher}.
+ */
+public final class WorkspaceProjectIndex implements EventListener, ResourceDeltaDispatcher.Subscriber {
+
+    private final ResourceDeltaDispatcher dispatcher;
+    private Map<String, IProject> projectsByName;
+    private BiMap<File, IProject> projectsByLocation;
+
+    WorkspaceProjectIndex() {
+        // an index which is not notified about the project changes, only used in tests
+        this(null);
+    }
+
+    private WorkspaceProjectIndex(ResourceDeltaDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    synchronized Optional<IProject> findByName(String name) {
+        ensureBuilt();
+        IProject project = this.projectsByName.get(name);
+        if (project != null && project.exists()) {
+            return Optional.of(project);
+        } else if (project != null || isIncomplete()) {
+            rebuild();
+            return Optional.fromNullable(this.projectsByName.get(name));
+        } else {
+            return Optional.absent();
+        }
+    }
+
+    synchronized Optional<IProject> findByLocation(File location) {
+        ensureBuilt();
+        IProject project = this.projectsByLocation.get(location);
+        if (project != null && project.exists() && location.equals(locationOf(project))) {
+            return Optional.of(project);
+        } else if (project != null || isIncomplete()) {
+            rebuild();
+            return Optional.fromNullable(this.projectsByLocation.get(location));
+        } else {
+            return Optional.absent();
+        }
+    }
+
+    synchronized void add(IProject project) {
+        if (this.projectsByName != null) {
+            doAdd(project);
+        }
+    }
+
+    synchronized void remove(IProject project) {
+        if (this.projectsByName != null) {
+            doRemove(project);
+        }
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        if (event instanceof ProjectCreatedEvent) {
+            add(((ProjectCreatedEvent) event).getProject());
+        } else if (event instanceof ProjectDeletedEvent) {
+            remove(((ProjectDeletedEvent) event).getProject());
+        } else if (event instanceof ProjectMovedEvent) {
+            ProjectMovedEvent movedEvent = (ProjectMovedEvent) event;
+            move(ResourcesPlugin.getWorkspace().getRoot().getProject(movedEvent.getPreviousName()), movedEvent.getProject());
+        }
+    }
+
+    @Override
+    public void projectChanged(IResourceDelta projectDelta) {
+        if (projectDelta.getKind() == IResourceDelta.CHANGED && (projectDelta.getFlags() & (IResourceDelta.DESCRIPTION | IResourceDelta.OPEN)) != 0) {
+            reindex((IProject) projectDelta.getResource());
+        }
+    }
+
+    @Override
+    public Set<IPath> getInterestingPaths(IProject project) {
+        return ImmutableSet.of();
+    }
+
+    @Override
+    public void resourcesChanged(IProject project, List<IResourceDelta> deltas) {
+    }
+
+    private synchronized void reindex(IProject project) {
+        if (this.projectsByName != null) {
+            doRemove(project);
+            if (project.exists()) {
+                doAdd(project);
+            }
+        }
+    }
+
+    private synchronized void move(IProject source, IProject target) {
+        if (this.projectsByName != null) {
+            doRemove(source);
+            doAdd(target);
+        }
+    }
+
+    private void ensureBuilt() {
+        if (this.projectsByName == null) {
+            rebuild();
+        }
+    }
+
+    private boolean isIncomplete() {
+        return this.projectsByName.size() != ResourcesPlugin.getWorkspace().getRoot().getProjects().length;
+    }
+
+    private void rebuild() {
+        IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+        this.projectsByName = Maps.newHashMap();
+        this.projectsByLocation = HashBiMap.create();
+        for (IProject project : root.getProjects()) {
+            doAdd(project);
+        }
+    }
+
+    private void doAdd(IProject project) {
+        this.projectsByName.put(project.getName(), project);
+        File location = locationOf(project);
+        if (location != null) {
+            this.projectsByLocation.forcePut(location, project);
+        }
+    }
+
+    private void doRemove(IProject project) {
+        this.projectsByName.remove(project.getName());
+        this.projectsByLocation.inverse().remove(project);
+    }
+
+    private static File locationOf(IProject project) {
+        // since Eclipse 3.4 projects can be non-local and they could return null locations
+        // for Buildship this is not the case, Gradle projects are always available on the
+        // local file system
+        IPath location = project.getLocation();
+        return location != null ? location.toFile() : null;
+    }
+
+    public static WorkspaceProjectIndex createAndRegister(ResourceDeltaDispatcher dispatcher) {
+        WorkspaceProjectIndex index = new WorkspaceProjectIndex(dispatcher);
+        Set<Class<? extends Event>> eventTypes = ImmutableSet.<Class<? extends Event>>of(ProjectCreatedEvent.class, ProjectDeletedEvent.class, ProjectMovedEvent.class);
+        // the index has to be up-to-date before the dispatch returns
+        CorePlugin.listenerRegistry().addEventListener(index, eventTypes, EventDelivery.SYNCHRONOUS);
+        dispatcher.subscribe(index);
+        return index;
+    }
+
+    public void close() {
+        if (this.dispatcher != null) {
+            this.dispatcher.unsubscribe(this);
+        }
+        CorePlugin.listenerRegistry().removeEventListener(this);
+    }
+}
@@ -17,12 +17,13 @@ import java.util.List;
 import java.util.Map;
 
 import org.gradle.kotlin.dsl.tooling.models.KotlinBuildScriptTemplateModel;
-import org.gradle.tooling.GradleConnector;
 import org.gradle.tooling.ProjectConnection;
 import org.jetbrains.kotlin.core.model.ScriptTemplateProviderEx;
 
 import com.google.common.collect.Lists;
 
+import com.gradleware.tooling.toolingclient.GradleDistribution;
+
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -30,6 +31,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.GradlePluginsRuntimeException;
 import org.eclipse.buildship.core.configuration.BuildConfiguration;
+import org.eclipse.buildship.core.configuration.GradleArguments;
 import org.eclipse.buildship.core.configuration.GradleProjectNature;
 import org.eclipse.buildship.core.util.gradle.GradleDistributionWrapper;
 
@@ -76,10 +78,7 @@ public final class GradleKotlinScriptTemplateProvider implements ScriptTemplateP
     private static <T> T queryModel(Class<T> model, Map<String, ? extends Object> environment) {
         ProjectConnection connection = null;
         try {
-            GradleConnector connector = GradleConnector.newConnector().forProjectDirectory((File) environment.get(GSK_PROJECT_ROOT));
-            connector.useGradleUserHomeDir((File) environment.get(GSK_GRADLE_USER_HOME));
-            applyGradleDistribution(environment, connector);
-            connection = connector.connect();
+            connection = CorePlugin.projectConnectionPool().acquire(toGradleArguments(environment));
             return connection.model(model)
                     .setJvmArguments((List<String>) environment.get(GSK_JVM_OPTIONS))
                     .withArguments((List<String>) environment.get(GSK_OPTIONS))
@@ -90,23 +89,36 @@ public final class GradleKotlinScriptTemplateProvider implements ScriptTemplateP
             return null;
         } finally {
             if (connection != null) {
-                connection.close();
+                CorePlugin.projectConnectionPool().release(connection);
             }
         }
     }
 
-    private static void applyGradleDistribution(Map<String, ? extends Object> environment, GradleConnector connector) {
+    private static GradleArguments toGradleArguments(Map<String, ? extends Object> environment) {
+        // only the connection settings are relevant, the rest is applied on the model builder
+        // the environment doesn't necessarily contain the options, hence they are not passed here
+        return GradleArguments.from((File) environment.get(GSK_PROJECT_ROOT),
+                toGradleDistribution(environment),
+                (File) environment.get(GSK_GRADLE_USER_HOME),
+                (File) environment.get(GSK_JAVA_HOME),
+                false,
+                false,
+                Collections.<String>emptyList(),
+                Collections.<String>emptyList());
+    }
+
+    private static GradleDistribution toGradleDistribution(Map<String, ? extends Object> environment) {
         File gradleLocal = (File) environment.get(GSK_INSTALLATION_LOCAL);
         URI gradleRemote = (URI) environment.get(GSK_INSTALLATION_REMOTE);
         String gradleVersion = (String) environment.get(GSK_INSTALLATION_VERSION);
         if (gradleLocal != null) {
-            connector.useInstallation(gradleLocal);
+            return GradleDistribution.forLocalInstallation(gradleLocal);
         } else if (gradleRemote != null) {
-            connector.useDistribution(gradleRemote);
+            return GradleDistribution.forRemoteDistribution(gradleRemote);
         } else if (gradleVersion != null) {
-            connector.useGradleVersion(gradleVersion);
+            return GradleDistribution.forVersion(gradleVersion);
         } else {
-            connector.useBuildDistribution();
+            return GradleDistribution.fromBuild();
         }
     }
 
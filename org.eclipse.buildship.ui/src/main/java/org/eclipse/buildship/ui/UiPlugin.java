@@ -36,6 +36,7 @@ import org.eclipse.buildship.ui.launch.ConsoleShowingLaunchListener;
 import org.eclipse.buildship.ui.launch.UiGradleLaunchConfigurationManager;
 import org.eclipse.buildship.ui.notification.DialogUserNotification;
 import org.eclipse.buildship.ui.view.execution.ExecutionShowingLaunchRequestListener;
+import org.eclipse.buildship.ui.workspace.OpenEditorModelPrefetcher;
 import org.eclipse.buildship.ui.workspace.ShutdownListener;
 
 /**
@@ -131,6 +132,8 @@ public final class UiPlugin extends AbstractUIPlugin {
         CorePlugin.listenerRegistry().addEventListener(this.executionShowingLaunchRequestListener);
 
         PlatformUI.getWorkbench().addWorkbenchListener(this.shutdownListener = new ShutdownListener());
+
+        OpenEditorModelPrefetcher.scheduleOnUiThread();
     }
 
     @SuppressWarnings({"cast", "RedundantCast"})
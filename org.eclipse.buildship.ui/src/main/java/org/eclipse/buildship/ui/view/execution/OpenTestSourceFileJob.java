@@ -26,6 +26,7 @@ import org.gradle.tooling.events.test.JvmTestOperationDescriptor;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.Files;
 
 import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
@@ -165,7 +166,7 @@ public final class OpenTestSourceFileJob extends ToolingApiWorkspaceJob {
 
         BuildConfiguration buildConfig = CorePlugin.configurationManager().loadProjectConfiguration(project.get()).getBuildConfiguration();
         ModelProvider modelProvider = CorePlugin.gradleWorkspaceManager().getGradleBuild(buildConfig).getModelProvider();
-        Set<OmniEclipseProject> eclipseProjects = modelProvider.fetchEclipseGradleProjects(FetchStrategy.LOAD_IF_NOT_CACHED, getToken(), monitor);
+        Set<OmniEclipseProject> eclipseProjects = modelProvider.fetchEclipseGradleProjects(ImmutableSet.of(projectPath.getPath()), FetchStrategy.LOAD_IF_NOT_CACHED, getToken(), monitor);
 
         List<IProject> result = new ArrayList<>();
         for (OmniEclipseProject eclipseProject : eclipseProjects) {
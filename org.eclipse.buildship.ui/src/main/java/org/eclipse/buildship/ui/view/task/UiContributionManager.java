@@ -13,6 +13,7 @@ package org.eclipse.buildship.ui.view.task;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import org.eclipse.jface.action.GroupMarker;
 import org.eclipse.jface.action.IMenuManager;
@@ -23,6 +24,11 @@ import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.swt.widgets.Menu;
 
 import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.event.Event;
+import org.eclipse.buildship.core.event.EventDelivery;
+import org.eclipse.buildship.core.workspace.GradleNatureAddedEvent;
+import org.eclipse.buildship.core.workspace.ProjectCreatedEvent;
+import org.eclipse.buildship.core.workspace.ProjectDeletedEvent;
 import org.eclipse.buildship.ui.UiPluginConstants;
 import org.eclipse.buildship.ui.util.nodeselection.ActionEnablingSelectionChangedListener;
 import org.eclipse.buildship.ui.util.nodeselection.ActionShowingContextMenuListener;
@@ -134,7 +140,8 @@ public final class UiContributionManager {
         this.taskView.getTreeViewer().addDoubleClickListener(this.treeViewerDoubleClickListener);
         this.taskView.getSite().getPage().addPartListener(this.contextActivatingViewPartListener);
         this.taskView.getSite().getWorkbenchWindow().getSelectionService().addSelectionListener(this.workbenchSelectionListener);
-        CorePlugin.listenerRegistry().addEventListener(this.workspaceProjectsChangeListener);
+        CorePlugin.listenerRegistry().addEventListener(this.workspaceProjectsChangeListener,
+                ImmutableSet.<Class<? extends Event>>of(ProjectCreatedEvent.class, ProjectDeletedEvent.class, GradleNatureAddedEvent.class), EventDelivery.ASYNCHRONOUS);
     }
 
     public void dispose() {
@@ -277,11 +277,16 @@ public final class ProjectCreationWizard extends AbstractProjectWizard implement
                 if (!projectDir.exists()) {
                     if (projectDir.mkdir()) {
                         final List<String> tasks = GRADLE_INIT_TASK_CMD_LINE;
-                        List<ProgressListener> progressListeners = this.listeners.isPresent() ? this.listeners.get() : ImmutableList.of(DelegatingProgressListener.withFullOutput(monitor));
+                        DelegatingProgressListener progressListener = DelegatingProgressListener.withFullOutput(monitor);
+                        List<ProgressListener> progressListeners = this.listeners.isPresent() ? this.listeners.get() : ImmutableList.<ProgressListener>of(progressListener);
                         GradleBuild gradleBuild = CorePlugin.gradleWorkspaceManager().getGradleBuild(this.buildConfig);
                         TransientRequestAttributes transientAttributes = getTransientRequestAttributes(progressListeners, token, monitor);
                         RunConfiguration runConfiguration = CorePlugin.configurationManager().createDefaultRunConfiguration(this.buildConfig);
-                        gradleBuild.newBuildLauncher(runConfiguration, CharStreams.nullWriter(), transientAttributes).forTasks(tasks.toArray(new String[tasks.size()])).run();
+                        try {
+                            gradleBuild.newBuildLauncher(runConfiguration, CharStreams.nullWriter(), transientAttributes).forTasks(tasks.toArray(new String[tasks.size()])).run();
+                        } finally {
+                            progressListener.finish();
+                        }
                     }
                 }
             } finally {
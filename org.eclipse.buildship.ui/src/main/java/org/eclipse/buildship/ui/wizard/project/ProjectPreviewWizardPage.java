@@ -295,7 +295,7 @@ public final class ProjectPreviewWizardPage extends AbstractWizardPage {
                 public void run(IProgressMonitor monitor) throws InterruptedException {
                     monitor.beginTask("Loading project preview", IProgressMonitor.UNKNOWN); //$NON-NLS-1$
                     final CountDownLatch latch = new CountDownLatch(1);
-                    final ProgressListener listener = DelegatingProgressListener.withFullOutput(monitor);
+                    final DelegatingProgressListener listener = DelegatingProgressListener.withFullOutput(monitor);
                     final Job job = ProjectPreviewWizardPage.this.projectPreviewLoader.loadPreview(new ProjectPreviewJobResultHandler(latch), ImmutableList.<ProgressListener> of(listener));
                     while (!latch.await(500, TimeUnit.MILLISECONDS)) {
                         // regularly check if the job was cancelled until
@@ -305,6 +305,7 @@ public final class ProjectPreviewWizardPage extends AbstractWizardPage {
                             throw new InterruptedException();
                         }
                     }
+                    listener.finish();
                 }
             });
         } catch (InvocationTargetException e) {
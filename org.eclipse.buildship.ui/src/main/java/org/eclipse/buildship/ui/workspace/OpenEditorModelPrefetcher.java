@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.ui.workspace;
+
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.ui.IEditorInput;
+import org.eclipse.ui.IEditorReference;
+import org.eclipse.ui.IFileEditorInput;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PartInitException;
+import org.eclipse.ui.PlatformUI;
+
+import org.eclipse.buildship.core.CorePlugin;
+
+/**
+ * Asks the model persistence to load the models of the projects having open editors first.
+ */
+public final class OpenEditorModelPrefetcher implements Runnable {
+
+    private OpenEditorModelPrefetcher() {
+    }
+
+    @Override
+    public void run() {
+        IWorkbench workbench = PlatformUI.getWorkbench();
+        Set<IProject> projects = Sets.newLinkedHashSet();
+        for (IWorkbenchWindow window : workbench.getWorkbenchWindows()) {
+            for (IWorkbenchPage page : window.getPages()) {
+                for (IEditorReference editor : page.getEditorReferences()) {
+                    collectProject(editor, projects);
+                }
+            }
+        }
+
+        if (!projects.isEmpty()) {
+            CorePlugin.modelPersistence().prefetchModels(projects);
+        }
+    }
+
+    private static void collectProject(IEditorReference editor, Set<IProject> projects) {
+        try {
+            // the editor input is available without restoring the editor
+            IEditorInput input = editor.getEditorInput();
+            if (input instanceof IFileEditorInput) {
+                projects.add(((IFileEditorInput) input).getFile().getProject());
+            }
+        } catch (PartInitException e) {
+            CorePlugin.logger().debug("Cannot determine input of editor " + editor.getId(), e);
+        }
+    }
+
+    public static void scheduleOnUiThread() {
+        PlatformUI.getWorkbench().getDisplay().asyncExec(new OpenEditorModelPrefetcher());
+    }
+}
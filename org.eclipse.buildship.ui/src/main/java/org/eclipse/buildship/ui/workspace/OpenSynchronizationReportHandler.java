@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.ui.workspace;
+
+import java.io.File;
+
+import org.eclipse.core.commands.AbstractHandler;
+import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PartInitException;
+import org.eclipse.ui.handlers.HandlerUtil;
+import org.eclipse.ui.ide.IDE;
+
+import org.eclipse.buildship.core.CorePlugin;
+
+/**
+ * Opens the JSON report with the timings of the last workspace synchronization in an editor.
+ */
+public final class OpenSynchronizationReportHandler extends AbstractHandler {
+
+    @Override
+    public Object execute(ExecutionEvent event) throws ExecutionException {
+        IWorkbenchWindow window = HandlerUtil.getActiveWorkbenchWindowChecked(event);
+        File reportFile = CorePlugin.gradleWorkspaceManager().getSynchronizationReportFile();
+        if (!reportFile.isFile()) {
+            MessageDialog.openInformation(window.getShell(), WorkspaceMessages.Title_SynchronizationReport, WorkspaceMessages.Message_NoSynchronizationReport);
+            return null;
+        }
+
+        try {
+            IDE.openEditorOnFileStore(window.getActivePage(), EFS.getLocalFileSystem().fromLocalFile(reportFile));
+        } catch (PartInitException e) {
+            throw new ExecutionException("Cannot open synchronization report " + reportFile, e);
+        }
+        return null;
+    }
+}
@@ -18,6 +18,8 @@ public class WorkspaceMessages extends NLS {
     private static final String BUNDLE_NAME = "org.eclipse.buildship.ui.workspace.WorkspaceMessages"; //$NON-NLS-1$
     public static String Action_RefreshProjectAction_Text;
     public static String Action_RefreshProjectAction_Tooltip;
+    public static String Title_SynchronizationReport;
+    public static String Message_NoSynchronizationReport;
     static {
         // initialize resource bundle
         NLS.initializeMessages(BUNDLE_NAME, WorkspaceMessages.class);